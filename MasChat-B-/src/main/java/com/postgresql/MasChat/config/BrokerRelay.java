@@ -0,0 +1,17 @@
+package com.postgresql.MasChat.config;
+
+import org.springframework.messaging.Message;
+
+// Carries broker messages between chat nodes. The in-memory simple broker only reaches sessions
+// on this node, so user and topic messages are also handed to the relay, which delivers them on
+// whichever nodes hold matching sessions. Selected with chat.relay.mode (local | postgres).
+public interface BrokerRelay {
+    String RELAYED_HEADER = "maschatRelayedFrom";
+
+    void userConnected(String user);
+
+    void userDisconnected(String user);
+
+    // Called for every MESSAGE sent to the local broker that did not itself arrive from another node
+    void forward(Message<?> message);
+}
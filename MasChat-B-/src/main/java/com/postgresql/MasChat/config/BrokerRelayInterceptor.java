@@ -0,0 +1,30 @@
+package com.postgresql.MasChat.config;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+
+// Sits on the broker channel and hands user and topic messages to the relay. Resolved session
+// destinations (/queue/...-user{session}) and messages that came from another node are skipped.
+public class BrokerRelayInterceptor implements ChannelInterceptor {
+    private final BrokerRelay brokerRelay;
+
+    public BrokerRelayInterceptor(BrokerRelay brokerRelay) {
+        this.brokerRelay = brokerRelay;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE
+                || message.getHeaders().containsKey(BrokerRelay.RELAYED_HEADER)) {
+            return message;
+        }
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (destination != null && (destination.startsWith("/user/") || destination.startsWith("/topic/"))) {
+            brokerRelay.forward(message);
+        }
+        return message;
+    }
+}
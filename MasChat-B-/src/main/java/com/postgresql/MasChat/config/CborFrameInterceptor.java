@@ -0,0 +1,75 @@
+package com.postgresql.MasChat.config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+// Outbound: re-encodes JSON frames as CBOR for sessions that negotiated x-encoding: cbor. The frame
+// goes out as application/octet-stream, which Spring sends as a binary WebSocket frame; the
+// x-encoding header tells the client how to decode it. Every session subscribed to an event shares
+// the same JSON body, so the CBOR form is computed once per body and reused.
+@Component
+public class CborFrameInterceptor implements ChannelInterceptor {
+    private static final Logger logger = LoggerFactory.getLogger(CborFrameInterceptor.class);
+
+    @Autowired
+    private WireOptionsRegistry wireOptionsRegistry;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final CBORFactory cborFactory = new CBORFactory();
+    // Keyed by the JSON body itself; arrays compare by identity and entries go once the body is garbage
+    private final Map<byte[], byte[]> encoded = Collections.synchronizedMap(new WeakHashMap<>());
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE
+                || !(message.getPayload() instanceof byte[] json)
+                || !wireOptionsRegistry.get(SimpMessageHeaderAccessor.getSessionId(message.getHeaders())).cbor()) {
+            return message;
+        }
+        try {
+            byte[] cbor = encoded.get(json);
+            if (cbor == null) {
+                cbor = toCbor(json);
+                encoded.put(json, cbor);
+            }
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+            accessor.setContentType(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+            accessor.setNativeHeader(WireOptionsRegistry.ENCODING_HEADER, WireOptionsRegistry.CBOR);
+            return MessageBuilder.createMessage(cbor, accessor.getMessageHeaders());
+        } catch (IOException e) {
+            // Not JSON after all; send it untouched
+            logger.debug("Could not encode frame as CBOR: {}", e.getMessage());
+            return message;
+        }
+    }
+
+    private byte[] toCbor(byte[] json) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length);
+        try (JsonParser parser = jsonFactory.createParser(json);
+             JsonGenerator generator = cborFactory.createGenerator(out)) {
+            parser.nextToken();
+            generator.copyCurrentStructure(parser);
+        }
+        return out.toByteArray();
+    }
+}
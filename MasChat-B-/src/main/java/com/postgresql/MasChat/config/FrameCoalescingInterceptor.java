@@ -0,0 +1,127 @@
+package com.postgresql.MasChat.config;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import jakarta.annotation.PreDestroy;
+
+// Outbound: for sessions that asked for x-coalesce, JSON events to the same subscription that
+// arrive within websocket.coalesce-window-ms are held back and sent as one frame whose body is a
+// JSON array of the events. The bodies are spliced together as bytes, not re-serialized.
+@Component
+public class FrameCoalescingInterceptor implements ChannelInterceptor {
+    public static final String BATCH_SIZE_HEADER = "x-batch-size";
+    private static final String COALESCED_HEADER = "wireCoalesced";
+
+    @Autowired
+    private WireOptionsRegistry wireOptionsRegistry;
+
+    @Value("${websocket.coalesce-window-ms:5}")
+    private long windowMs;
+    @Value("${websocket.coalesce-max-batch:50}")
+    private int maxBatch;
+
+    private final Map<String, List<Message<byte[]>>> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "stomp-coalesce");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE
+                || message.getHeaders().containsKey(COALESCED_HEADER)
+                || !(message.getPayload() instanceof byte[])
+                || !isJson(message)) {
+            return message;
+        }
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        String subscriptionId = SimpMessageHeaderAccessor.getSubscriptionId(message.getHeaders());
+        if (subscriptionId == null || !wireOptionsRegistry.get(sessionId).coalesce()) {
+            return message;
+        }
+
+        String key = sessionId + "\n" + subscriptionId;
+        boolean[] first = new boolean[1];
+        boolean[] full = new boolean[1];
+        pending.compute(key, (k, batch) -> {
+            if (batch == null) {
+                batch = new ArrayList<>();
+                first[0] = true;
+            }
+            batch.add((Message<byte[]>) message);
+            full[0] = batch.size() >= maxBatch;
+            return batch;
+        });
+        if (full[0]) {
+            flush(key, channel);
+        } else if (first[0]) {
+            scheduler.schedule(() -> flush(key, channel), windowMs, TimeUnit.MILLISECONDS);
+        }
+        // Held back; flush sends it
+        return null;
+    }
+
+    private void flush(String key, MessageChannel channel) {
+        List<Message<byte[]>> batch = pending.remove(key);
+        if (batch == null || batch.isEmpty()) {
+            return;
+        }
+        Message<byte[]> head = batch.get(0);
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(head);
+        accessor.setHeader(COALESCED_HEADER, Boolean.TRUE);
+        if (batch.size() == 1) {
+            channel.send(MessageBuilder.createMessage(head.getPayload(), accessor.getMessageHeaders()));
+            return;
+        }
+
+        int length = 2 + batch.size() - 1;
+        for (Message<byte[]> message : batch) {
+            length += message.getPayload().length;
+        }
+        ByteBuffer body = ByteBuffer.allocate(length);
+        body.put((byte) '[');
+        for (int i = 0; i < batch.size(); i++) {
+            if (i > 0) {
+                body.put((byte) ',');
+            }
+            body.put(batch.get(i).getPayload());
+        }
+        body.put((byte) ']');
+        accessor.setNativeHeader(BATCH_SIZE_HEADER, String.valueOf(batch.size()));
+        channel.send(MessageBuilder.createMessage(body.array(), accessor.getMessageHeaders()));
+    }
+
+    private boolean isJson(Message<?> message) {
+        Object contentType = message.getHeaders().get(MessageHeaders.CONTENT_TYPE);
+        MimeType mimeType = contentType instanceof MimeType type ? type
+            : contentType != null ? MimeTypeUtils.parseMimeType(contentType.toString()) : null;
+        return mimeType != null && MimeTypeUtils.APPLICATION_JSON.isCompatibleWith(mimeType);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+}
@@ -0,0 +1,22 @@
+package com.postgresql.MasChat.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.Message;
+import org.springframework.stereotype.Component;
+
+// Single-node mode: the simple broker already reaches every session
+@Component
+@ConditionalOnProperty(name = "chat.relay.mode", havingValue = "local", matchIfMissing = true)
+public class LocalBrokerRelay implements BrokerRelay {
+    @Override
+    public void userConnected(String user) {
+    }
+
+    @Override
+    public void userDisconnected(String user) {
+    }
+
+    @Override
+    public void forward(Message<?> message) {
+    }
+}
@@ -0,0 +1,230 @@
+package com.postgresql.MasChat.config;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Base64;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+
+// Multi-node relay over Postgres LISTEN/NOTIFY. User messages go to the channel of each node that
+// holds a session for the user (per UserSessionRegistry); topic messages go to a broadcast channel
+// every node listens on. The receiving node replays the message into its own simple broker.
+// Messages too large for a NOTIFY are stored in relay_payloads and notified by row id.
+// Several nodes can share one database, including two application contexts in the same JVM,
+// as long as each has its own chat.relay.node-id.
+@Component
+@ConditionalOnProperty(name = "chat.relay.mode", havingValue = "postgres")
+public class PostgresBrokerRelay implements BrokerRelay {
+    private static final Logger logger = LoggerFactory.getLogger(PostgresBrokerRelay.class);
+
+    private static final String NODE_CHANNEL_PREFIX = "maschat_node_";
+    private static final String BROADCAST_CHANNEL = "maschat_broadcast";
+    // NOTIFY payloads must stay under 8000 bytes
+    private static final int MAX_NOTIFY_BYTES = 7900;
+    // Stored payloads outlive any plausible delivery delay, then are swept by whichever node runs first
+    private static final long PAYLOAD_RETENTION_SECONDS = 300;
+    private static final long SWEEP_INTERVAL_MS = 60_000;
+    private static final int POLL_TIMEOUT_MS = 500;
+    private static final long RECONNECT_DELAY_MS = 2000;
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserSessionRegistry userSessionRegistry;
+    @Autowired
+    @Lazy
+    private SimpMessagingTemplate messagingTemplate;
+
+    private final String nodeId;
+    private volatile boolean running;
+    private Thread listener;
+
+    public PostgresBrokerRelay(@Value("${chat.relay.node-id:}") String configuredNodeId) {
+        String id = configuredNodeId == null || configuredNodeId.isBlank()
+            ? UUID.randomUUID().toString()
+            : configuredNodeId;
+        // Channel names are identifiers; keep the node id to characters that need no quoting
+        this.nodeId = id.toLowerCase().replaceAll("[^a-z0-9_]", "_");
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        userSessionRegistry.clearNode(nodeId);
+        running = true;
+        listener = new Thread(this::listen, "broker-relay-" + nodeId);
+        listener.setDaemon(true);
+        listener.start();
+        logger.info("Postgres broker relay started as node {}", nodeId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+        try {
+            userSessionRegistry.clearNode(nodeId);
+        } catch (Exception e) {
+            logger.warn("Could not clear session registry for node {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void userConnected(String user) {
+        userSessionRegistry.register(user, nodeId);
+    }
+
+    @Override
+    public void userDisconnected(String user) {
+        userSessionRegistry.unregister(user, nodeId);
+    }
+
+    @Override
+    public void forward(Message<?> message) {
+        if (!(message.getPayload() instanceof byte[] payload)) {
+            return;
+        }
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        Object contentType = message.getHeaders().get(MessageHeaders.CONTENT_TYPE);
+        try {
+            String type = contentType != null ? contentType.toString() : null;
+            String envelope = objectMapper.writeValueAsString(new Envelope(
+                nodeId, destination, type, Base64.getEncoder().encodeToString(payload), null));
+            if (envelope.getBytes(StandardCharsets.UTF_8).length > MAX_NOTIFY_BYTES) {
+                Long payloadId = jdbcTemplate.queryForObject(
+                    "INSERT INTO relay_payloads (payload) VALUES (?) RETURNING id", Long.class, payload);
+                envelope = objectMapper.writeValueAsString(new Envelope(nodeId, destination, type, null, payloadId));
+            }
+
+            if (destination.startsWith("/topic/")) {
+                notify(BROADCAST_CHANNEL, envelope);
+                return;
+            }
+            // /user/{name}/...
+            int end = destination.indexOf('/', "/user/".length());
+            if (end < 0) {
+                return;
+            }
+            String user = destination.substring("/user/".length(), end);
+            for (String node : userSessionRegistry.findNodes(user)) {
+                if (!node.equals(nodeId)) {
+                    notify(NODE_CHANNEL_PREFIX + node, envelope);
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to relay {} to other nodes: {}", destination, e.getMessage());
+        }
+    }
+
+    private void notify(String channel, String envelope) {
+        jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, channel, envelope);
+    }
+
+    // Holds one connection of its own for LISTEN and reconnects if it drops
+    private void listen() {
+        long nextSweep = 0;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + NODE_CHANNEL_PREFIX + nodeId);
+                    statement.execute("LISTEN " + BROADCAST_CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    if (System.currentTimeMillis() >= nextSweep) {
+                        sweepPayloads();
+                        nextSweep = System.currentTimeMillis() + SWEEP_INTERVAL_MS;
+                    }
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        deliver(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Broker relay listener lost its connection, reconnecting: {}", e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void deliver(String raw) {
+        try {
+            Envelope envelope = objectMapper.readValue(raw, Envelope.class);
+            if (nodeId.equals(envelope.from())) {
+                return;
+            }
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            if (envelope.contentType() != null) {
+                accessor.setContentType(MimeTypeUtils.parseMimeType(envelope.contentType()));
+            }
+            accessor.setHeader(RELAYED_HEADER, envelope.from());
+            accessor.setLeaveMutable(true);
+            byte[] payload = envelope.payloadId() != null
+                ? jdbcTemplate.queryForObject("SELECT payload FROM relay_payloads WHERE id = ?", byte[].class, envelope.payloadId())
+                : Base64.getDecoder().decode(envelope.payload());
+            messagingTemplate.send(envelope.destination(), MessageBuilder.createMessage(payload, accessor.getMessageHeaders()));
+        } catch (Exception e) {
+            logger.warn("Dropping malformed relay message: {}", e.getMessage());
+        }
+    }
+
+    private void sweepPayloads() {
+        try {
+            jdbcTemplate.update("DELETE FROM relay_payloads WHERE created_at < NOW() - make_interval(secs => ?)",
+                PAYLOAD_RETENTION_SECONDS);
+        } catch (Exception e) {
+            logger.warn("Could not sweep relayed payloads: {}", e.getMessage());
+        }
+    }
+
+    // payload is the Base64 message body, or null when it is stored in relay_payloads under payloadId
+    private record Envelope(String from, String destination, String contentType, String payload, Long payloadId) {}
+}
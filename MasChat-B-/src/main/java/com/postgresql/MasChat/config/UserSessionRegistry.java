@@ -0,0 +1,45 @@
+package com.postgresql.MasChat.config;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Which nodes hold open WebSocket sessions for a user, shared through the user_session_nodes table.
+// Rows are counted per (user, node) so a user with a phone and a browser on one node stays routable
+// until both disconnect.
+@Component
+@ConditionalOnProperty(name = "chat.relay.mode", havingValue = "postgres")
+public class UserSessionRegistry {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void register(String user, String nodeId) {
+        jdbcTemplate.update(
+            "INSERT INTO user_session_nodes (user_name, node_id, session_count, updated_at) VALUES (?, ?, 1, NOW()) " +
+            "ON CONFLICT (user_name, node_id) DO UPDATE SET " +
+            "session_count = user_session_nodes.session_count + 1, updated_at = NOW()",
+            user, nodeId);
+    }
+
+    public void unregister(String user, String nodeId) {
+        jdbcTemplate.update(
+            "UPDATE user_session_nodes SET session_count = session_count - 1, updated_at = NOW() WHERE user_name = ? AND node_id = ?",
+            user, nodeId);
+        jdbcTemplate.update(
+            "DELETE FROM user_session_nodes WHERE user_name = ? AND node_id = ? AND session_count <= 0",
+            user, nodeId);
+    }
+
+    public List<String> findNodes(String user) {
+        return jdbcTemplate.queryForList(
+            "SELECT node_id FROM user_session_nodes WHERE user_name = ?", String.class, user);
+    }
+
+    // Sessions do not survive a restart, so a node drops whatever it owned when it starts or stops
+    public void clearNode(String nodeId) {
+        jdbcTemplate.update("DELETE FROM user_session_nodes WHERE node_id = ?", nodeId);
+    }
+}
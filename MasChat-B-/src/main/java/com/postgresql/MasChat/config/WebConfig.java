@@ -12,7 +12,9 @@ public class WebConfig implements WebMvcConfigurer {
         registry.addMapping("/**")
             .allowedOrigins("*")
             .allowedMethods("*")
-            .allowedHeaders("*");
+            .allowedHeaders("*")
+            // Lets web clients read the ETag to send back as If-None-Match
+            .exposedHeaders("ETag");
     }
 
     @Override
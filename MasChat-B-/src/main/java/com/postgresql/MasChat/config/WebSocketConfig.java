@@ -1,16 +1,39 @@
 // WebSocketConfig: WebSocketEventListener is required for user online/offline status
 package com.postgresql.MasChat.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.config.annotation.*;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.Map;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+    // Lazy: the relay sends through SimpMessagingTemplate, which needs the broker configured here
+    @Autowired
+    @Lazy
+    private BrokerRelay brokerRelay;
+
+    @Autowired
+    private WireOptionsRegistry wireOptionsRegistry;
+    @Autowired
+    private FrameCoalescingInterceptor frameCoalescingInterceptor;
+    @Autowired
+    private CborFrameInterceptor cborFrameInterceptor;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
+        // Each node keeps its own in-memory broker; BrokerRelay fans messages out across nodes
         config.enableSimpleBroker("/topic", "/queue");
+        config.configureBrokerChannel().interceptors(new BrokerRelayInterceptor(brokerRelay));
         config.setApplicationDestinationPrefixes("/app");
         config.setUserDestinationPrefix("/user");
     }
@@ -18,5 +41,33 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws-chat").setAllowedOriginPatterns("*").withSockJS();
+        // Plain WebSocket without SockJS, the only transport that can carry binary (CBOR) frames
+        registry.addEndpoint("/ws-chat-native").setAllowedOriginPatterns("*")
+            .addInterceptors(new NativeTransportHandshakeInterceptor());
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(wireOptionsRegistry);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        // Coalesce first so a batch is CBOR-encoded as a whole
+        registration.interceptors(frameCoalescingInterceptor, cborFrameInterceptor);
+    }
+
+    private static class NativeTransportHandshakeInterceptor implements HandshakeInterceptor {
+        @Override
+        public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                       WebSocketHandler wsHandler, Map<String, Object> attributes) {
+            attributes.put(WireOptionsRegistry.NATIVE_TRANSPORT_ATTRIBUTE, Boolean.TRUE);
+            return true;
+        }
+
+        @Override
+        public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Exception exception) {
+        }
     }
 }
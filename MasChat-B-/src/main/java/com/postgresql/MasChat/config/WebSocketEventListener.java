@@ -1,7 +1,6 @@
 package com.postgresql.MasChat.config;
 
-import com.postgresql.MasChat.model.User;
-import com.postgresql.MasChat.repository.UserRepository;
+import com.postgresql.MasChat.service.PresenceService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,7 +15,10 @@ public class WebSocketEventListener {
     private static final Logger logger = LoggerFactory.getLogger(WebSocketEventListener.class);
 
     @Autowired
-    private UserRepository userRepository;
+    private PresenceService presenceService;
+
+    @Autowired
+    private BrokerRelay brokerRelay;
 
     @EventListener
     public void handleWebSocketConnectListener(SessionConnectEvent event) {
@@ -24,15 +26,14 @@ public class WebSocketEventListener {
         String userId = headerAccessor.getUser() != null ? headerAccessor.getUser().getName() : null;
         if (userId != null) {
             try {
-                Long id = Long.valueOf(userId);
-                User user = userRepository.findById(id).orElse(null);
-                if (user != null) {
-                    user.setOnline(true);
-                    userRepository.save(user);
-                    logger.info("User {} is now online", userId);
-                }
+                brokerRelay.userConnected(userId);
             } catch (Exception e) {
-                logger.warn("Could not set user online status for userId {}: {}", userId, e.getMessage());
+                logger.warn("Could not register session of userId {} with the broker relay: {}", userId, e.getMessage());
+            }
+            try {
+                presenceService.sessionOpened(Long.valueOf(userId));
+            } catch (NumberFormatException e) {
+                logger.warn("Could not track presence for userId {}: {}", userId, e.getMessage());
             }
         }
     }
@@ -43,15 +44,14 @@ public class WebSocketEventListener {
         String userId = headerAccessor.getUser() != null ? headerAccessor.getUser().getName() : null;
         if (userId != null) {
             try {
-                Long id = Long.valueOf(userId);
-                User user = userRepository.findById(id).orElse(null);
-                if (user != null) {
-                    user.setOnline(false);
-                    userRepository.save(user);
-                    logger.info("User {} is now offline", userId);
-                }
+                brokerRelay.userDisconnected(userId);
             } catch (Exception e) {
-                logger.warn("Could not set user offline status for userId {}: {}", userId, e.getMessage());
+                logger.warn("Could not unregister session of userId {} from the broker relay: {}", userId, e.getMessage());
+            }
+            try {
+                presenceService.sessionClosed(Long.valueOf(userId));
+            } catch (NumberFormatException e) {
+                logger.warn("Could not track presence for userId {}: {}", userId, e.getMessage());
             }
         }
     }
@@ -0,0 +1,56 @@
+package com.postgresql.MasChat.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+// Per-session wire options a client asks for in its STOMP CONNECT frame:
+//   x-encoding: cbor   binary CBOR frames (only on the native /ws-chat-native endpoint)
+//   x-coalesce: true   bursts to one subscription arrive as a single frame holding a JSON array
+// Clients that send neither get plain JSON frames, one per event, as before.
+@Component
+public class WireOptionsRegistry implements ChannelInterceptor {
+    public static final String ENCODING_HEADER = "x-encoding";
+    public static final String COALESCE_HEADER = "x-coalesce";
+    public static final String CBOR = "cbor";
+    // Session attribute set by the handshake of the native endpoint; SockJS cannot carry binary frames
+    public static final String NATIVE_TRANSPORT_ATTRIBUTE = "wire.nativeTransport";
+
+    public record WireOptions(boolean cbor, boolean coalesce) {}
+
+    private static final WireOptions DEFAULTS = new WireOptions(false, false);
+
+    private final Map<String, WireOptions> sessions = new ConcurrentHashMap<>();
+
+    public WireOptions get(String sessionId) {
+        return sessionId == null ? DEFAULTS : sessions.getOrDefault(sessionId, DEFAULTS);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+        StompCommand command = accessor.getCommand();
+        String sessionId = accessor.getSessionId();
+        if (command == null || sessionId == null) {
+            return message;
+        }
+        if (command == StompCommand.CONNECT || command == StompCommand.STOMP) {
+            Map<String, Object> attributes = accessor.getSessionAttributes();
+            boolean nativeTransport = attributes != null && Boolean.TRUE.equals(attributes.get(NATIVE_TRANSPORT_ATTRIBUTE));
+            boolean cbor = nativeTransport && CBOR.equalsIgnoreCase(accessor.getFirstNativeHeader(ENCODING_HEADER));
+            boolean coalesce = "true".equalsIgnoreCase(accessor.getFirstNativeHeader(COALESCE_HEADER));
+            if (cbor || coalesce) {
+                sessions.put(sessionId, new WireOptions(cbor, coalesce));
+            }
+        } else if (command == StompCommand.DISCONNECT) {
+            sessions.remove(sessionId);
+        }
+        return message;
+    }
+}
@@ -1,57 +1,98 @@
 package com.postgresql.MasChat.controller;
 
 import com.postgresql.MasChat.dto.ChatMessage;
-import com.postgresql.MasChat.model.Message;
+import com.postgresql.MasChat.dto.ChatSignal;
+import com.postgresql.MasChat.dto.MessageDTO;
+import com.postgresql.MasChat.service.ChatSignalService;
+import com.postgresql.MasChat.service.ChatWriteBehindService;
 import com.postgresql.MasChat.service.MessageService;
+import com.postgresql.MasChat.service.RealtimeEventPublisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 
+import java.security.Principal;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @Controller
 public class ChatController {
     private static final Logger logger = LoggerFactory.getLogger(ChatController.class);
-    private final SimpMessagingTemplate messagingTemplate;
+    private final RealtimeEventPublisher realtimeEventPublisher;
     
     // Removed unused repositories to satisfy linter
     
     @Autowired
     private MessageService messageService;
 
-    public ChatController(SimpMessagingTemplate messagingTemplate) {
-        this.messagingTemplate = messagingTemplate;
+    @Autowired
+    private ChatWriteBehindService chatWriteBehindService;
+
+    @Autowired
+    private ChatSignalService chatSignalService;
+
+    public ChatController(RealtimeEventPublisher realtimeEventPublisher) {
+        this.realtimeEventPublisher = realtimeEventPublisher;
     }
 
     @MessageMapping("/chat.send")
     public void sendMessage(@Payload ChatMessage chatMessage) {
         try {
-            // Save to DB using MessageService
-            Message savedMessage = messageService.sendMessage(
-                Long.valueOf(chatMessage.getSenderId()),
-                Long.valueOf(chatMessage.getRecipientId()),
-                chatMessage.getContent()
-            );
+            Long senderId = Long.valueOf(chatMessage.getSenderId());
+            Long recipientId = Long.valueOf(chatMessage.getRecipientId());
+            MessageDTO payload = null;
+            if (chatWriteBehindService.isEnabled()) {
+                // Queued for batched persistence; delivered before it reaches the database
+                payload = chatWriteBehindService.submit(senderId, recipientId, chatMessage.getContent());
+                if (payload != null) {
+                    logger.debug("Message queued: {} -> {}", senderId, recipientId);
+                } else {
+                    logger.warn("Chat write queue full, saving message {} -> {} synchronously", senderId, recipientId);
+                }
+            }
+            if (payload == null) {
+                // Save to DB using MessageService; the saved entity only holds references, so send the wire form
+                payload = MessageDTO.fromEntity(messageService.sendChatMessage(senderId, recipientId, chatMessage.getContent()));
+                logger.info("Message saved: {} -> {}: {}", chatMessage.getSenderId(), chatMessage.getRecipientId(), chatMessage.getContent());
+            }
             
-            logger.info("Message saved: {} -> {}: {}", chatMessage.getSenderId(), chatMessage.getRecipientId(), chatMessage.getContent());
-            
-            // Send to users
-            messagingTemplate.convertAndSendToUser(
-                chatMessage.getRecipientId(),
-                "/queue/messages",
-                savedMessage
-            );
-            messagingTemplate.convertAndSendToUser(
-                chatMessage.getSenderId(),
-                "/queue/messages",
-                savedMessage
-            );
+            // Send to users; serialized once for both
+            realtimeEventPublisher.sendToUsers("/queue/messages", payload, recipientId, senderId);
         } catch (Exception e) {
             logger.error("Failed to save or send message: {}", chatMessage, e);
+            notifySendFailed(chatMessage);
+        }
+    }
+
+    // Tells the sender the message was not stored; the client timestamp identifies which one
+    private void notifySendFailed(ChatMessage chatMessage) {
+        try {
+            Map<String, Object> error = new LinkedHashMap<>();
+            error.put("type", "MESSAGE_NOT_SENT");
+            error.put("recipientId", chatMessage.getRecipientId());
+            error.put("timestamp", chatMessage.getTimestamp());
+            realtimeEventPublisher.sendToUsers("/queue/errors", error, Long.valueOf(chatMessage.getSenderId()));
+        } catch (Exception e) {
+            logger.warn("Could not report the failed message to its sender: {}", e.getMessage());
+        }
+    }
+
+    // Typing / recording / seen pings: no persistence, rate-limited and throttled per recipient
+    @MessageMapping("/chat.signal")
+    public void signal(@Payload ChatSignal signal, @Header("simpSessionId") String sessionId, Principal principal) {
+        if (signal.getType() == null || signal.getRecipientId() == null) {
+            return;
+        }
+        if (principal != null) {
+            // Never trust the payload for who is typing when the session is authenticated
+            signal.setSenderId(principal.getName());
+        }
+        if (!chatSignalService.submit(sessionId, signal)) {
+            logger.debug("Dropped chat signal from session {}: rate limited", sessionId);
         }
     }
 
@@ -7,6 +7,8 @@ import com.postgresql.MasChat.model.User;
 import com.postgresql.MasChat.model.FriendRequest;
 import com.postgresql.MasChat.service.FriendService;
 import com.postgresql.MasChat.dto.FriendRequestDTO;
+import com.postgresql.MasChat.dto.FriendSuggestionDTO;
+import com.postgresql.MasChat.dto.UserSummaryDTO;
 
 import java.util.List;
 import java.util.Map;
@@ -24,11 +26,21 @@ public class FriendController {
     }
 
     @GetMapping("/suggestions/{userId}")
-    public ResponseEntity<List<User>> getFriendSuggestions(@PathVariable Long userId) {
-        List<User> suggestions = friendService.getSuggestions(userId);
+    public ResponseEntity<List<FriendSuggestionDTO>> getFriendSuggestions(@PathVariable Long userId, @RequestParam(required = false) Integer limit) {
+        List<FriendSuggestionDTO> suggestions = friendService.getSuggestions(userId, limit);
         return ResponseEntity.ok(suggestions);
     }
 
+    @GetMapping("/mutual/{userId}/{otherUserId}")
+    public ResponseEntity<List<UserSummaryDTO>> getMutualFriends(@PathVariable Long userId, @PathVariable Long otherUserId) {
+        return ResponseEntity.ok(friendService.getMutualFriends(userId, otherUserId));
+    }
+
+    @GetMapping("/online/{userId}")
+    public ResponseEntity<List<UserSummaryDTO>> getOnlineFriends(@PathVariable Long userId) {
+        return ResponseEntity.ok(friendService.getOnlineFriends(userId));
+    }
+
     @GetMapping("/messenger-suggestions/{userId}")
     public ResponseEntity<List<User>> getMessengerSuggestions(@PathVariable Long userId) {
         List<User> suggestions = friendService.getMessengerSuggestions(userId);
@@ -74,6 +86,17 @@ public class FriendController {
         return ResponseEntity.ok(dtos);
     }
 
+    // Body: the user ids to resolve (at most FriendshipStatusService.MAX_BATCH_SIZE); answers
+    // {userId: FRIENDS|SENT|RECEIVED|NONE} from the viewer's side
+    @PostMapping("/status")
+    public ResponseEntity<Map<Long, String>> getFriendshipStatuses(@RequestParam Long userId, @RequestBody List<Long> userIds) {
+        try {
+            return ResponseEntity.ok(friendService.getFriendshipStatuses(userId, userIds));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/status")
     public ResponseEntity<Map<String, String>> getFriendRequestStatus(
         @RequestParam Long senderId,
@@ -41,9 +41,12 @@ public class GroupController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<GroupDTO>> searchGroups(@RequestParam String query) {
+    public ResponseEntity<List<GroupDTO>> searchGroups(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<GroupDTO> groups = groupService.searchGroups(query);
+            List<GroupDTO> groups = groupService.searchGroups(query, page, size);
             return ResponseEntity.ok(groups);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
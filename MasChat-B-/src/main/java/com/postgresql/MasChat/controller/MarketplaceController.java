@@ -1,6 +1,5 @@
 package com.postgresql.MasChat.controller;
 
-import com.postgresql.MasChat.config.AppConfig;
 import com.postgresql.MasChat.model.MarketplaceCategory;
 import com.postgresql.MasChat.model.MarketplaceItem;
 import com.postgresql.MasChat.model.MarketplaceOrder;
@@ -8,17 +7,15 @@ import com.postgresql.MasChat.model.User;
 import com.postgresql.MasChat.repository.MarketplaceItemRepository;
 import com.postgresql.MasChat.repository.UserRepository;
 import com.postgresql.MasChat.service.MarketplaceService;
+import com.postgresql.MasChat.service.MediaService;
+import com.postgresql.MasChat.service.ResourceVersionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.UUID;
-
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
@@ -37,11 +34,17 @@ public class MarketplaceController {
     private UserRepository userRepository;
     
     @Autowired
-    private AppConfig appConfig;
+    private MediaService mediaService;
+    @Autowired
+    private ResourceVersionService resourceVersionService;
 
     // --- Items ---
+    // Answers If-None-Match with 304 while no item has changed
     @GetMapping("/items")
-    public ResponseEntity<List<MarketplaceItem>> getAllItems() {
+    public ResponseEntity<List<MarketplaceItem>> getAllItems(WebRequest request) {
+        if (request.checkNotModified(resourceVersionService.etag(ResourceVersionService.MARKETPLACE))) {
+            return null;
+        }
         try {
             System.out.println("=== DEBUG: Starting getAllItems request ===");
             List<MarketplaceItem> items = marketplaceService.getAllItems();
@@ -109,27 +112,18 @@ public class MarketplaceController {
         }
     }
 
+    // Streamed to disk; resized variants are generated in the background (see MediaService)
     @PostMapping("/upload-image")
-    public ResponseEntity<String> uploadImage(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<String> uploadImage(@RequestParam("file") MultipartFile file, @RequestParam(required = false) Long userId) {
         try {
-            String imageUrl = saveImage(file, "marketplace");
-            return ResponseEntity.ok(imageUrl);
+            return ResponseEntity.ok(mediaService.store(file, userId, "marketplace").getUrl());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (IOException e) {
             return ResponseEntity.status(500).body("Failed to upload image");
         }
     }
 
-    private String saveImage(MultipartFile file, String type) throws IOException {
-        String uploadDir = "uploads/";
-        Files.createDirectories(Paths.get(uploadDir));
-        String originalFileName = file.getOriginalFilename();
-        String fileExtension = originalFileName.substring(originalFileName.lastIndexOf("."));
-        String fileName = type + "_" + UUID.randomUUID() + fileExtension;
-        Path filePath = Paths.get(uploadDir + fileName);
-        Files.write(filePath, file.getBytes());
-        return appConfig.getUploadUrl(fileName);
-    }
-
     @PutMapping("/items/{id}")
     public ResponseEntity<MarketplaceItem> updateItem(@PathVariable Long id, @RequestBody MarketplaceItem item) {
         return ResponseEntity.ok(marketplaceService.updateItem(id, item));
@@ -142,8 +136,11 @@ public class MarketplaceController {
     }
 
     @GetMapping("/items/search")
-    public ResponseEntity<List<MarketplaceItem>> searchItems(@RequestParam String q) {
-        return ResponseEntity.ok(marketplaceService.searchItems(q));
+    public ResponseEntity<List<MarketplaceItem>> searchItems(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(marketplaceService.searchItems(q, page, size));
     }
 
     @GetMapping("/items/category/{categoryId}")
@@ -448,6 +445,9 @@ public class MarketplaceController {
                 fixedCount++;
             }
             
+            if (fixedCount > 0) {
+                resourceVersionService.bump(ResourceVersionService.MARKETPLACE);
+            }
             result.put("message", "Fixed items with null sellers");
             result.put("itemsFixed", fixedCount);
             result.put("defaultSellerId", defaultSeller.getId());
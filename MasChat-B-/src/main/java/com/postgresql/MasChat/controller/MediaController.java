@@ -0,0 +1,46 @@
+package com.postgresql.MasChat.controller;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.postgresql.MasChat.dto.AttachmentDTO;
+import com.postgresql.MasChat.exception.ResourceNotFoundException;
+import com.postgresql.MasChat.service.MediaService;
+
+@RestController
+@RequestMapping("/api/media")
+public class MediaController {
+    @Autowired
+    private MediaService mediaService;
+
+    // Returns while variants are still PENDING; pass the id in attachmentIds when creating the post
+    @PostMapping("/upload")
+    public ResponseEntity<AttachmentDTO> upload(@RequestParam("file") MultipartFile file, @RequestParam Long userId) {
+        try {
+            return ResponseEntity.status(201).body(AttachmentDTO.fromEntity(mediaService.store(file, userId, "post")));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IOException e) {
+            return ResponseEntity.status(500).build();
+        }
+    }
+
+    // Processing status and variant URLs
+    @GetMapping("/{id}")
+    public ResponseEntity<AttachmentDTO> getAttachment(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(mediaService.getAttachment(id));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
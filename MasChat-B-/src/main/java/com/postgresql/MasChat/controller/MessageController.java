@@ -5,6 +5,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import com.postgresql.MasChat.model.Message;
 import com.postgresql.MasChat.service.MessageService;
+import com.postgresql.MasChat.dto.ConversationDeletionDTO;
+import com.postgresql.MasChat.dto.MessagePageDTO;
+import com.postgresql.MasChat.dto.ReadReceiptDTO;
 import com.postgresql.MasChat.dto.RecentChatDTO;
 
 import java.util.List;
@@ -55,12 +58,19 @@ public class MessageController {
     }
 
     @GetMapping("/conversation")
-    public ResponseEntity<List<Message>> getConversation(
+    public ResponseEntity<MessagePageDTO> getConversation(
         @RequestParam Long userId1,
-        @RequestParam Long userId2
+        @RequestParam Long userId2,
+        @RequestParam(required = false) String before,
+        @RequestParam(required = false) Integer limit
     ) {
-        List<Message> conversation = messageService.getConversation(userId1, userId2);
-        return ResponseEntity.ok(conversation);
+        try {
+            MessagePageDTO conversation = messageService.getConversation(userId1, userId2, before, limit);
+            return ResponseEntity.ok(conversation);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error in getConversation: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/recent/{userId}")
@@ -70,12 +80,22 @@ public class MessageController {
     }
 
     @PostMapping("/mark-read")
-    public ResponseEntity<Void> markMessagesAsRead(
+    public ResponseEntity<ReadReceiptDTO> markMessagesAsRead(
+        @RequestParam Long userId,
+        @RequestParam Long partnerId,
+        @RequestParam(required = false) Long upToMessageId
+    ) {
+        ReadReceiptDTO receipt = messageService.markMessagesAsRead(userId, partnerId, upToMessageId);
+        return receipt == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(receipt);
+    }
+
+    // Last read message id per participant, keyed by user id
+    @GetMapping("/read-state")
+    public ResponseEntity<Map<Long, Long>> getReadState(
         @RequestParam Long userId,
         @RequestParam Long partnerId
     ) {
-        messageService.markMessagesAsRead(userId, partnerId);
-        return ResponseEntity.ok().build();
+        return ResponseEntity.ok(messageService.getReadWatermarks(userId, partnerId));
     }
 
     @DeleteMapping("/{messageId}")
@@ -87,13 +107,22 @@ public class MessageController {
         return ResponseEntity.ok().build();
     }
 
+    // Deleting for everyone runs in the background; poll the returned job for progress
     @DeleteMapping("/conversation")
-    public ResponseEntity<Void> deleteConversation(
+    public ResponseEntity<ConversationDeletionDTO> deleteConversation(
         @RequestParam Long userId,
-        @RequestParam Long partnerId
+        @RequestParam Long partnerId,
+        @RequestParam(defaultValue = "true") boolean forEveryone
     ) {
-        messageService.deleteConversation(userId, partnerId);
-        return ResponseEntity.ok().build();
+        ConversationDeletionDTO job = messageService.deleteConversation(userId, partnerId, forEveryone);
+        return job == null ? ResponseEntity.ok().build() : ResponseEntity.accepted().body(job);
+    }
+
+    @GetMapping("/conversation/deletions/{jobId}")
+    public ResponseEntity<ConversationDeletionDTO> getConversationDeletion(@PathVariable String jobId) {
+        return messageService.getConversationDeletion(jobId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
     }
     
     @GetMapping("/test-image-column")
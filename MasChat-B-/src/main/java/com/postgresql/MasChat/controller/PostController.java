@@ -13,19 +13,30 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.postgresql.MasChat.model.Comment;
 import com.postgresql.MasChat.model.Post;
 import com.postgresql.MasChat.dto.PostRequestDto;
 import com.postgresql.MasChat.dto.PostDTO;
 import com.postgresql.MasChat.dto.CommentDTO;
+import com.postgresql.MasChat.dto.CommentPageDTO;
+import com.postgresql.MasChat.dto.FeedPageDTO;
+import com.postgresql.MasChat.dto.RankedFeedPageDTO;
+import com.postgresql.MasChat.dto.ReactionDTO;
+import com.postgresql.MasChat.service.FeedRankingService;
 import com.postgresql.MasChat.service.PostService;
+import com.postgresql.MasChat.service.ResourceVersionService;
 
 @RestController
 @RequestMapping("/api/posts")
 public class PostController {
     @Autowired
     private PostService postService;
+    @Autowired
+    private FeedRankingService feedRankingService;
+    @Autowired
+    private ResourceVersionService resourceVersionService;
 
     @PostMapping
     public ResponseEntity<PostDTO> createPost(@RequestBody PostRequestDto postDto, @RequestParam Long userId) {
@@ -33,31 +44,59 @@ public class PostController {
         return ResponseEntity.status(201).body(PostDTO.fromEntity(post));
     }
 
+    // Answers If-None-Match with 304 while no post, like or comment has changed
     @GetMapping
-    public ResponseEntity<List<PostDTO>> getAllPosts() {
-        return ResponseEntity.ok(postService.getAllPosts().stream().map(PostDTO::fromEntity).toList());
+    public ResponseEntity<List<PostDTO>> getAllPosts(
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Long currentUserId,
+            WebRequest request) {
+        if (request.checkNotModified(resourceVersionService.etag(ResourceVersionService.POSTS))) {
+            return null;
+        }
+        return ResponseEntity.ok(postService.toDTOs(postService.getAllPosts(before, limit), currentUserId));
+    }
+
+    // Home feed: friends' and own posts, newest first; pass nextCursor back as "before"
+    @GetMapping("/feed")
+    public ResponseEntity<FeedPageDTO> getHomeFeed(
+            @RequestParam Long userId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(postService.getHomeFeed(userId, before, limit));
+    }
+
+    // Home feed ranked by affinity, engagement and recency, posts and reels mixed
+    @GetMapping("/feed/ranked")
+    public ResponseEntity<RankedFeedPageDTO> getRankedFeed(
+            @RequestParam Long userId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(feedRankingService.getRankedFeed(userId, page, limit));
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<PostDTO>> getPostsByUser(@PathVariable Long userId) {
-        return ResponseEntity.ok(postService.getPostsByUser(userId).stream().map(PostDTO::fromEntity).toList());
+    public ResponseEntity<List<PostDTO>> getPostsByUser(@PathVariable Long userId, @RequestParam(required = false) Long currentUserId) {
+        return ResponseEntity.ok(postService.toDTOs(postService.getPostsByUser(userId), currentUserId));
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<PostDTO>> searchPosts(@RequestParam String query) {
-        return ResponseEntity.ok(postService.searchPosts(query).stream().map(PostDTO::fromEntity).toList());
+    public ResponseEntity<List<PostDTO>> searchPosts(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) Long currentUserId) {
+        return ResponseEntity.ok(postService.toDTOs(postService.searchPosts(query, page, size), currentUserId));
     }
 
     @PostMapping("/{postId}/like")
-    public ResponseEntity<PostDTO> likePost(@PathVariable Long postId, @RequestParam Long userId) {
-        Post post = postService.likePost(postId, userId);
-        return ResponseEntity.ok(PostDTO.fromEntity(post));
+    public ResponseEntity<ReactionDTO> likePost(@PathVariable Long postId, @RequestParam Long userId) {
+        return ResponseEntity.ok(postService.likePost(postId, userId));
     }
 
     @PostMapping("/{postId}/unlike")
-    public ResponseEntity<PostDTO> unlikePost(@PathVariable Long postId, @RequestParam Long userId) {
-        Post post = postService.unlikePost(postId, userId);
-        return ResponseEntity.ok(PostDTO.fromEntity(post));
+    public ResponseEntity<ReactionDTO> unlikePost(@PathVariable Long postId, @RequestParam Long userId) {
+        return ResponseEntity.ok(postService.unlikePost(postId, userId));
     }
 
     @PostMapping("/{postId}/comment")
@@ -95,10 +134,15 @@ public class PostController {
     }
 
     @GetMapping("/{postId}/comments")
-    public ResponseEntity<List<CommentDTO>> getComments(@PathVariable Long postId, @RequestParam(required = false) String currentUserId) {
+    public ResponseEntity<CommentPageDTO> getComments(
+            @PathVariable Long postId,
+            @RequestParam(required = false) String currentUserId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Integer replies) {
         try {
             Long userId = currentUserId != null ? Long.valueOf(currentUserId) : null;
-            List<CommentDTO> comments = postService.getComments(postId, userId);
+            CommentPageDTO comments = postService.getComments(postId, userId, before, limit, replies);
             return ResponseEntity.ok(comments);
         } catch (NumberFormatException e) {
             System.err.println("Invalid currentUserId format: " + currentUserId);
@@ -127,10 +171,14 @@ public class PostController {
     }
 
     @GetMapping("/comment/{commentId}/replies")
-    public ResponseEntity<List<CommentDTO>> getCommentReplies(@PathVariable Long commentId, @RequestParam(required = false) String currentUserId) {
+    public ResponseEntity<CommentPageDTO> getCommentReplies(
+            @PathVariable Long commentId,
+            @RequestParam(required = false) String currentUserId,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
         try {
             Long userId = currentUserId != null ? Long.valueOf(currentUserId) : null;
-            List<CommentDTO> replies = postService.getCommentReplies(commentId, userId);
+            CommentPageDTO replies = postService.getCommentReplies(commentId, userId, after, limit);
             return ResponseEntity.ok(replies);
         } catch (NumberFormatException e) {
             System.err.println("Invalid currentUserId format: " + currentUserId);
@@ -1,13 +1,16 @@
 
 package com.postgresql.MasChat.controller;
 
+import com.postgresql.MasChat.dto.ReactionDTO;
 import com.postgresql.MasChat.dto.ReelDTO;
 import com.postgresql.MasChat.dto.ReelCommentDTO;
 import com.postgresql.MasChat.model.Reel;
 import com.postgresql.MasChat.model.ReelComment;
 import com.postgresql.MasChat.service.ReelService;
+import com.postgresql.MasChat.service.ResourceVersionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import java.util.List;
 import java.util.stream.Collectors;
 import com.postgresql.MasChat.repository.ReelRepository;
@@ -26,19 +29,28 @@ public class ReelController {
     }
     @Autowired
     private ReelService reelService;
+    @Autowired
+    private ResourceVersionService resourceVersionService;
 
+    // Answers If-None-Match with 304 while the reel family is unchanged
     @GetMapping
-    public List<ReelDTO> getRecentReels() {
+    public List<ReelDTO> getRecentReels(@RequestParam(required = false) Long currentUserId, WebRequest request) {
+        if (request.checkNotModified(resourceVersionService.etag(ResourceVersionService.REELS))) {
+            return null;
+        }
         System.out.println("Received request for recent reels");
         List<Reel> reels = reelService.getRecentReels();
-        List<ReelDTO> dtos = reels.stream().map(ReelDTO::fromEntity).collect(Collectors.toList());
+        List<ReelDTO> dtos = reelService.toDTOs(reels, currentUserId);
         System.out.println("Returning " + dtos.size() + " reels");
         return dtos;
     }
 
     @GetMapping("/search")
-    public List<ReelDTO> searchReels(@RequestParam String query) {
-        return reelService.searchReels(query).stream().map(ReelDTO::fromEntity).collect(Collectors.toList());
+    public List<ReelDTO> searchReels(@RequestParam String query,
+                                     @RequestParam(defaultValue = "0") int page,
+                                     @RequestParam(required = false) Integer size,
+                                     @RequestParam(required = false) Long currentUserId) {
+        return reelService.toDTOs(reelService.searchReels(query, page, size), currentUserId);
     }
 
     @PostMapping("/create")
@@ -56,13 +68,13 @@ public class ReelController {
     }
 
     @PostMapping("/{reelId}/like")
-    public ReelDTO likeReel(@PathVariable Long reelId, @RequestParam Long userId) {
-        return ReelDTO.fromEntity(reelService.likeReel(reelId, userId));
+    public ReactionDTO likeReel(@PathVariable Long reelId, @RequestParam Long userId) {
+        return reelService.likeReel(reelId, userId);
     }
 
     @PostMapping("/{reelId}/unlike")
-    public ReelDTO unlikeReel(@PathVariable Long reelId, @RequestParam Long userId) {
-        return ReelDTO.fromEntity(reelService.unlikeReel(reelId, userId));
+    public ReactionDTO unlikeReel(@PathVariable Long reelId, @RequestParam Long userId) {
+        return reelService.unlikeReel(reelId, userId);
     }
 
     @PostMapping("/{reelId}/comment")
@@ -0,0 +1,39 @@
+package com.postgresql.MasChat.controller;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.postgresql.MasChat.dto.SearchResultsDTO;
+import com.postgresql.MasChat.service.SearchService;
+
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+    @Autowired
+    private SearchService searchService;
+
+    // types is a comma-separated subset of posts,reels,comments,users,groups,items (default: all)
+    @GetMapping
+    public ResponseEntity<SearchResultsDTO> search(
+            @RequestParam String q,
+            @RequestParam(required = false) String types,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) Long currentUserId) {
+        Set<String> requested = types == null || types.isBlank()
+            ? SearchService.TYPES
+            : Arrays.stream(types.split(",")).map(String::trim).map(String::toLowerCase).collect(Collectors.toSet());
+        if (!SearchService.TYPES.containsAll(requested)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(searchService.search(q, requested, page, size, currentUserId));
+    }
+}
@@ -1,27 +1,35 @@
 package com.postgresql.MasChat.controller;
 
+import com.postgresql.MasChat.dto.ReactionDTO;
 import com.postgresql.MasChat.dto.StoryDTO;
 import com.postgresql.MasChat.model.Story;
+import com.postgresql.MasChat.service.ResourceVersionService;
 import com.postgresql.MasChat.service.StoryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/stories")
 public class StoryController {
     @Autowired
     private StoryService storyService;
+    @Autowired
+    private ResourceVersionService resourceVersionService;
 
+    // Answers If-None-Match with 304 while the story family is unchanged
     @GetMapping
-    public List<StoryDTO> getRecentStories() {
-        return storyService.getRecentStories().stream().map(StoryDTO::fromEntity).collect(Collectors.toList());
+    public List<StoryDTO> getRecentStories(@RequestParam(required = false) Long currentUserId, WebRequest request) {
+        if (request.checkNotModified(resourceVersionService.etag(ResourceVersionService.STORIES))) {
+            return null;
+        }
+        return storyService.toDTOs(storyService.getRecentStories(), currentUserId);
     }
 
     @GetMapping("/user/{userId}")
-    public List<StoryDTO> getStoriesByUser(@PathVariable Long userId) {
-        return storyService.getStoriesByUser(userId).stream().map(StoryDTO::fromEntity).collect(Collectors.toList());
+    public List<StoryDTO> getStoriesByUser(@PathVariable Long userId, @RequestParam(required = false) Long currentUserId) {
+        return storyService.toDTOs(storyService.getStoriesByUser(userId), currentUserId);
     }
 
     @PostMapping("/create")
@@ -31,13 +39,18 @@ public class StoryController {
     }
 
     @PostMapping("/{storyId}/like")
-    public StoryDTO likeStory(@PathVariable Long storyId, @RequestParam Long userId) {
-        return StoryDTO.fromEntity(storyService.likeStory(storyId, userId));
+    public ReactionDTO likeStory(@PathVariable Long storyId, @RequestParam Long userId) {
+        return storyService.likeStory(storyId, userId);
     }
 
     @PostMapping("/{storyId}/unlike")
-    public StoryDTO unlikeStory(@PathVariable Long storyId, @RequestParam Long userId) {
-        return StoryDTO.fromEntity(storyService.unlikeStory(storyId, userId));
+    public ReactionDTO unlikeStory(@PathVariable Long storyId, @RequestParam Long userId) {
+        return storyService.unlikeStory(storyId, userId);
+    }
+
+    @PostMapping("/{storyId}/view")
+    public void viewStory(@PathVariable Long storyId, @RequestParam Long userId) {
+        storyService.viewStory(storyId, userId);
     }
 
     @DeleteMapping("/{storyId}")
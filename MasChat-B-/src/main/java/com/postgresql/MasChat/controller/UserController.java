@@ -1,12 +1,6 @@
 package com.postgresql.MasChat.controller;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.List;
-import java.util.UUID;
-import java.util.stream.Collectors;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,16 +14,18 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.context.request.WebRequest;
 
-import com.postgresql.MasChat.config.AppConfig;
 import com.postgresql.MasChat.dto.ProfileUpdateRequest;
 import com.postgresql.MasChat.dto.UserDTO;
 import com.postgresql.MasChat.model.User;
 import com.postgresql.MasChat.model.UserProfile;
 import com.postgresql.MasChat.repository.UserRepository;
+import com.postgresql.MasChat.service.ResourceVersionService;
+import com.postgresql.MasChat.service.SearchService;
 import com.postgresql.MasChat.service.UserService;
+import com.postgresql.MasChat.service.UserSummaryService;
 
 @RestController
 @RequestMapping("/api/users")
@@ -43,12 +39,22 @@ public class UserController {
     private UserRepository userRepository;
     
     @Autowired
-    private AppConfig appConfig;
+    private ResourceVersionService resourceVersionService;
+
+    @Autowired
+    private UserSummaryService userSummaryService;
+
+    @Autowired
+    private SearchService searchService;
 
     
 
+    // Answers If-None-Match with 304 while the user's profile is unchanged
     @GetMapping("/{userId}/profile")
-    public ResponseEntity<User> getUserProfile(@PathVariable Long userId) {
+    public ResponseEntity<User> getUserProfile(@PathVariable Long userId, WebRequest request) {
+    if (request.checkNotModified(resourceVersionService.profileEtag(userId))) {
+        return null;
+    }
     User user = userService.findById(userId); // No need for orElseThrow here
     return ResponseEntity.ok(user);
 }   
@@ -59,10 +65,12 @@ public ResponseEntity<User> getUserById(@PathVariable Long id) {
 }
 
     @GetMapping("/search")
-    public ResponseEntity<List<UserDTO>> searchUsers(@RequestParam String query) {
-        List<User> users = userService.searchUsers(query);
-        List<UserDTO> dtos = users.stream().map(UserDTO::fromEntity).collect(Collectors.toList());
-        return ResponseEntity.ok(dtos);
+    public ResponseEntity<List<UserDTO>> searchUsers(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) Long currentUserId) {
+        return ResponseEntity.ok(searchService.searchUsers(query, page, size, currentUserId));
     }
 
     @PutMapping("/{userId}/profile")
@@ -155,22 +163,6 @@ public ResponseEntity<String> updateAvatarPicture(
     }
 }
 
-
-    private String saveImage(MultipartFile file, String type) throws IOException {
-        String uploadDir = "uploads/";
-        Files.createDirectories(Paths.get(uploadDir));
-        
-        String originalFileName = file.getOriginalFilename();
-        String fileExtension = originalFileName.substring(originalFileName.lastIndexOf("."));
-        String fileName = type + "_" + UUID.randomUUID() + fileExtension;
-        
-        Path filePath = Paths.get(uploadDir + fileName);
-        Files.write(filePath, file.getBytes());
-        
-        // Return the full URL for the image using centralized configuration
-        return appConfig.getUploadUrl(fileName);
-    }
-
     @PutMapping("/{id}")
 public User updateUser(@PathVariable Long id, @RequestBody User updatedUser) {
     return userRepository.findById(id).map(user -> {
@@ -200,13 +192,19 @@ public User updateUser(@PathVariable Long id, @RequestBody User updatedUser) {
             }
         }
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userSummaryService.invalidate(id);
+        resourceVersionService.bumpUser(id);
+        return saved;
     }).orElseThrow(() -> new RuntimeException("User not found with id " + id));
 }
 
 @DeleteMapping("/{userId}")
 public ResponseEntity<Void> deleteUser(@PathVariable Long userId) {
     userRepository.deleteById(userId);
+    userSummaryService.invalidate(userId);
+    // The cascade also removed their posts, reels, stories and listings
+    resourceVersionService.bumpUser(userId);
     return ResponseEntity.ok().build();
 }
 
@@ -217,8 +215,8 @@ public ResponseEntity<List<User>> getFriends(@PathVariable Long userId) {
 }
 
 @GetMapping("/{userId}/best-friends")
-public ResponseEntity<List<User>> getBestFriends(@PathVariable Long userId) {
-    List<User> bestFriends = userService.getBestFriends(userId);
+public ResponseEntity<List<User>> getBestFriends(@PathVariable Long userId, @RequestParam(required = false) Integer limit) {
+    List<User> bestFriends = userService.getBestFriends(userId, limit);
     return ResponseEntity.ok(bestFriends);
 }
 }
\ No newline at end of file
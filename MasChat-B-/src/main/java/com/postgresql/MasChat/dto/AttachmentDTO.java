@@ -0,0 +1,54 @@
+package com.postgresql.MasChat.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.postgresql.MasChat.model.Attachment;
+
+// An uploaded file and its variants. Lists should show thumbnailUrl (falling back to url while
+// status is not READY) over the blurhash placeholder; mediumUrl is for full-screen views.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AttachmentDTO {
+    private Long id;
+    private String fileType;
+    private String status;
+    private String url;
+    private String thumbnailUrl;
+    private String mediumUrl;
+    private String blurhash;
+    private Integer width;
+    private Integer height;
+
+    public static AttachmentDTO fromEntity(Attachment attachment) {
+        if (attachment == null) return null;
+        AttachmentDTO dto = new AttachmentDTO();
+        dto.setId(attachment.getId());
+        dto.setFileType(attachment.getFileType());
+        dto.setStatus(attachment.getStatus() == null ? null : attachment.getStatus().name());
+        dto.setUrl(attachment.getUrl());
+        dto.setThumbnailUrl(attachment.getThumbnailUrl());
+        dto.setMediumUrl(attachment.getMediumUrl());
+        dto.setBlurhash(attachment.getBlurhash());
+        dto.setWidth(attachment.getWidth());
+        dto.setHeight(attachment.getHeight());
+        return dto;
+    }
+
+    // Getters and setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getFileType() { return fileType; }
+    public void setFileType(String fileType) { this.fileType = fileType; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+    public String getThumbnailUrl() { return thumbnailUrl; }
+    public void setThumbnailUrl(String thumbnailUrl) { this.thumbnailUrl = thumbnailUrl; }
+    public String getMediumUrl() { return mediumUrl; }
+    public void setMediumUrl(String mediumUrl) { this.mediumUrl = mediumUrl; }
+    public String getBlurhash() { return blurhash; }
+    public void setBlurhash(String blurhash) { this.blurhash = blurhash; }
+    public Integer getWidth() { return width; }
+    public void setWidth(Integer width) { this.width = width; }
+    public Integer getHeight() { return height; }
+    public void setHeight(Integer height) { this.height = height; }
+}
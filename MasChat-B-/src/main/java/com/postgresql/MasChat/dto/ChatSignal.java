@@ -0,0 +1,24 @@
+package com.postgresql.MasChat.dto;
+
+// Ephemeral chat signal sent to /app/chat.signal and delivered on /user/queue/signals. Never stored.
+public class ChatSignal {
+    public enum Type { TYPING, STOPPED_TYPING, RECORDING, SEEN }
+
+    private String senderId;
+    private String recipientId;
+    private Type type;
+    // For SEEN: the last message the sender has looked at
+    private Long messageId;
+    private long sentAt;
+
+    public String getSenderId() { return senderId; }
+    public void setSenderId(String senderId) { this.senderId = senderId; }
+    public String getRecipientId() { return recipientId; }
+    public void setRecipientId(String recipientId) { this.recipientId = recipientId; }
+    public Type getType() { return type; }
+    public void setType(Type type) { this.type = type; }
+    public Long getMessageId() { return messageId; }
+    public void setMessageId(Long messageId) { this.messageId = messageId; }
+    public long getSentAt() { return sentAt; }
+    public void setSentAt(long sentAt) { this.sentAt = sentAt; }
+}
@@ -2,10 +2,10 @@ package com.postgresql.MasChat.dto;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class CommentDTO {
     private Long id;
+    private Long postId;
     private Long userId;
     private String username;
     private String profilePicture;
@@ -20,6 +20,8 @@ public class CommentDTO {
 
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
+    public Long getPostId() { return postId; }
+    public void setPostId(Long postId) { this.postId = postId; }
     public Long getUserId() { return userId; }
     public void setUserId(Long userId) { this.userId = userId; }
     public String getUsername() { return username; }
@@ -43,49 +45,38 @@ public class CommentDTO {
     public String getTimeAgo() { return timeAgo; }
     public void setTimeAgo(String timeAgo) { this.timeAgo = timeAgo; }
 
-    public static CommentDTO fromEntity(com.postgresql.MasChat.model.Comment comment) {
-        return fromEntity(comment, null);
+    // Counts and the viewer's like come from batched lookups instead of the comment's collections
+    public static CommentDTO fromEntity(com.postgresql.MasChat.model.Comment comment, int likeCount, int replyCount, boolean likedByCurrentUser) {
+        return fromEntity(comment, likeCount, replyCount, likedByCurrentUser, UserSummaryDTO.fromEntity(comment.getUser()));
     }
 
-    public static CommentDTO fromEntity(com.postgresql.MasChat.model.Comment comment, Long currentUserId) {
-        if (comment == null) return null;
-        try {
-            CommentDTO dto = new CommentDTO();
-            dto.setId(comment.getId());
-            dto.setUserId(comment.getUser() != null ? comment.getUser().getId() : null);
-            dto.setUsername(comment.getUser() != null ? comment.getUser().getUsername() : null);
-            dto.setProfilePicture(comment.getUser() != null ? comment.getUser().getProfilePicture() : null);
-            dto.setContent(comment.getContent());
-            dto.setCreatedAt(comment.getCreatedAt());
-            dto.setParentCommentId(comment.getParentComment() != null ? comment.getParentComment().getId() : null);
-            dto.setLikeCount(comment.getLikeCount());
-            dto.setReplyCount(comment.getReplyCount());
-            dto.setLikedByCurrentUser(currentUserId != null && comment.isLikedByUser(currentUserId));
-            dto.setTimeAgo(formatTimeAgo(comment.getCreatedAt()));
-            
-            // Convert replies to DTOs
-            if (comment.getReplies() != null && !comment.getReplies().isEmpty()) {
-                dto.setReplies(comment.getReplies().stream()
-                    .map(reply -> fromEntity(reply, currentUserId))
-                    .filter(reply -> reply != null) // Filter out null replies
-                    .collect(Collectors.toList()));
-            }
-            
-            return dto;
-        } catch (Exception e) {
-            System.err.println("Error converting comment to DTO: " + e.getMessage());
-            e.printStackTrace();
-            // Return a minimal DTO with error information
-            CommentDTO errorDto = new CommentDTO();
-            errorDto.setId(comment.getId());
-            errorDto.setContent("Error loading comment");
-            errorDto.setUsername("Unknown");
-            errorDto.setLikeCount(0);
-            errorDto.setReplyCount(0);
-            errorDto.setLikedByCurrentUser(false);
-            errorDto.setTimeAgo("");
-            return errorDto;
-        }
+    // Same, with the author resolved by a UserSummaryLoader instead of the comment's user proxy
+    public static CommentDTO fromEntity(com.postgresql.MasChat.model.Comment comment, int likeCount, int replyCount,
+                                        boolean likedByCurrentUser, UserSummaryDTO author) {
+        CommentDTO dto = fromEntityShallow(comment, author);
+        dto.setLikeCount(likeCount);
+        dto.setReplyCount(replyCount);
+        dto.setLikedByCurrentUser(likedByCurrentUser);
+        return dto;
+    }
+
+    // Just the comment itself, without walking its replies or likes
+    public static CommentDTO fromEntityShallow(com.postgresql.MasChat.model.Comment comment) {
+        return fromEntityShallow(comment, UserSummaryDTO.fromEntity(comment.getUser()));
+    }
+
+    private static CommentDTO fromEntityShallow(com.postgresql.MasChat.model.Comment comment, UserSummaryDTO author) {
+        CommentDTO dto = new CommentDTO();
+        dto.setId(comment.getId());
+        dto.setPostId(comment.getPost() != null ? comment.getPost().getId() : null);
+        dto.setUserId(comment.getUser() != null ? comment.getUser().getId() : null);
+        dto.setUsername(author != null ? author.getUsername() : null);
+        dto.setProfilePicture(author != null ? author.getProfilePicture() : null);
+        dto.setContent(comment.getContent());
+        dto.setCreatedAt(comment.getCreatedAt());
+        dto.setParentCommentId(comment.getParentComment() != null ? comment.getParentComment().getId() : null);
+        dto.setTimeAgo(formatTimeAgo(comment.getCreatedAt()));
+        return dto;
     }
 
     private static String formatTimeAgo(LocalDateTime createdAt) {
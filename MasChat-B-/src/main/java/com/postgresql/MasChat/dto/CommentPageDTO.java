@@ -0,0 +1,26 @@
+package com.postgresql.MasChat.dto;
+
+import java.util.List;
+
+public class CommentPageDTO {
+    private List<CommentDTO> comments;
+    // Pass back as the cursor ("before" for top-level comments, "after" for replies) for the next page
+    private Long nextCursor;
+    private boolean hasMore;
+
+    public CommentPageDTO(List<CommentDTO> comments, Long nextCursor, boolean hasMore) {
+        this.comments = comments;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    // Getters and setters
+    public List<CommentDTO> getComments() { return comments; }
+    public void setComments(List<CommentDTO> comments) { this.comments = comments; }
+
+    public Long getNextCursor() { return nextCursor; }
+    public void setNextCursor(Long nextCursor) { this.nextCursor = nextCursor; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
@@ -0,0 +1,43 @@
+package com.postgresql.MasChat.dto;
+
+import java.time.LocalDateTime;
+
+// Progress of a background conversation delete, polled via /api/messages/conversation/deletions/{jobId}
+public class ConversationDeletionDTO {
+    private String jobId;
+    private Long chatId;
+    private String status;
+    private long deletedCount;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+
+    public ConversationDeletionDTO() {}
+
+    public ConversationDeletionDTO(String jobId, Long chatId, String status, long deletedCount,
+                                   LocalDateTime startedAt, LocalDateTime finishedAt, String error) {
+        this.jobId = jobId;
+        this.chatId = chatId;
+        this.status = status;
+        this.deletedCount = deletedCount;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.error = error;
+    }
+
+    // Getters and setters
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+    public Long getChatId() { return chatId; }
+    public void setChatId(Long chatId) { this.chatId = chatId; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public long getDeletedCount() { return deletedCount; }
+    public void setDeletedCount(long deletedCount) { this.deletedCount = deletedCount; }
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
@@ -0,0 +1,38 @@
+package com.postgresql.MasChat.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// One entry of a ranked feed page: a post or a reel, with the score it was ranked by
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FeedItemDTO {
+    private String type;
+    private float score;
+    private PostDTO post;
+    private ReelDTO reel;
+
+    public static FeedItemDTO ofPost(PostDTO post, float score) {
+        FeedItemDTO item = new FeedItemDTO();
+        item.setType("post");
+        item.setScore(score);
+        item.setPost(post);
+        return item;
+    }
+
+    public static FeedItemDTO ofReel(ReelDTO reel, float score) {
+        FeedItemDTO item = new FeedItemDTO();
+        item.setType("reel");
+        item.setScore(score);
+        item.setReel(reel);
+        return item;
+    }
+
+    // Getters and setters
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    public float getScore() { return score; }
+    public void setScore(float score) { this.score = score; }
+    public PostDTO getPost() { return post; }
+    public void setPost(PostDTO post) { this.post = post; }
+    public ReelDTO getReel() { return reel; }
+    public void setReel(ReelDTO reel) { this.reel = reel; }
+}
@@ -0,0 +1,26 @@
+package com.postgresql.MasChat.dto;
+
+import java.util.List;
+
+public class FeedPageDTO {
+    private List<PostDTO> posts;
+    // Pass back as "before" to load the next (older) page
+    private Long nextCursor;
+    private boolean hasMore;
+
+    public FeedPageDTO(List<PostDTO> posts, Long nextCursor, boolean hasMore) {
+        this.posts = posts;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    // Getters and setters
+    public List<PostDTO> getPosts() { return posts; }
+    public void setPosts(List<PostDTO> posts) { this.posts = posts; }
+
+    public Long getNextCursor() { return nextCursor; }
+    public void setNextCursor(Long nextCursor) { this.nextCursor = nextCursor; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
@@ -0,0 +1,48 @@
+package com.postgresql.MasChat.dto;
+
+// A suggested friend with the reasons it was ranked: friends in common, groups in common and
+// whether both list the same current city
+public class FriendSuggestionDTO {
+    private Long id;
+    private String username;
+    private String fullName;
+    private String profilePicture;
+    private Boolean verified;
+    private int mutualFriends;
+    private int sharedGroups;
+    private boolean sameCity;
+    private String friendshipStatus;
+
+    public static FriendSuggestionDTO of(UserSummaryDTO user, int mutualFriends, int sharedGroups, boolean sameCity) {
+        FriendSuggestionDTO dto = new FriendSuggestionDTO();
+        dto.setId(user.getId());
+        dto.setUsername(user.getUsername());
+        dto.setFullName(user.getFullName());
+        dto.setProfilePicture(user.getProfilePicture());
+        dto.setVerified(user.getVerified());
+        dto.setMutualFriends(mutualFriends);
+        dto.setSharedGroups(sharedGroups);
+        dto.setSameCity(sameCity);
+        return dto;
+    }
+
+    // Getters and setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+    public String getFullName() { return fullName; }
+    public void setFullName(String fullName) { this.fullName = fullName; }
+    public String getProfilePicture() { return profilePicture; }
+    public void setProfilePicture(String profilePicture) { this.profilePicture = profilePicture; }
+    public Boolean getVerified() { return verified; }
+    public void setVerified(Boolean verified) { this.verified = verified; }
+    public int getMutualFriends() { return mutualFriends; }
+    public void setMutualFriends(int mutualFriends) { this.mutualFriends = mutualFriends; }
+    public int getSharedGroups() { return sharedGroups; }
+    public void setSharedGroups(int sharedGroups) { this.sharedGroups = sharedGroups; }
+    public boolean isSameCity() { return sameCity; }
+    public void setSameCity(boolean sameCity) { this.sameCity = sameCity; }
+    public String getFriendshipStatus() { return friendshipStatus; }
+    public void setFriendshipStatus(String friendshipStatus) { this.friendshipStatus = friendshipStatus; }
+}
@@ -176,13 +176,18 @@ public class MassCoinDTO {
         public TransactionInfo() {}
 
         public TransactionInfo(MassCoinTransaction transaction) {
+            this(transaction, UserSummaryDTO.fromEntity(transaction.getSender()), UserSummaryDTO.fromEntity(transaction.getRecipient()));
+        }
+
+        // Sender and recipient resolved by a UserSummaryLoader; a null sender is a system mint
+        public TransactionInfo(MassCoinTransaction transaction, UserSummaryDTO sender, UserSummaryDTO recipient) {
             this.id = transaction.getId();
             this.senderId = transaction.getSender() != null ? transaction.getSender().getId() : null;
-            this.senderName = transaction.getSender() != null ? transaction.getSender().getFullName() : "System";
-            this.senderAvatar = transaction.getSender() != null ? transaction.getSender().getProfilePicture() : null;
+            this.senderName = sender != null ? sender.getFullName() : "System";
+            this.senderAvatar = sender != null ? sender.getProfilePicture() : null;
             this.recipientId = transaction.getRecipient().getId();
-            this.recipientName = transaction.getRecipient().getFullName();
-            this.recipientAvatar = transaction.getRecipient().getProfilePicture();
+            this.recipientName = recipient != null ? recipient.getFullName() : null;
+            this.recipientAvatar = recipient != null ? recipient.getProfilePicture() : null;
             this.amount = transaction.getAmount();
             this.transactionHash = transaction.getTransactionHash();
             this.transactionType = transaction.getTransactionType();
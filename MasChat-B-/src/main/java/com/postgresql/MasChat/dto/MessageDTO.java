@@ -0,0 +1,60 @@
+package com.postgresql.MasChat.dto;
+
+import java.time.LocalDateTime;
+
+import com.postgresql.MasChat.model.Message;
+
+// Wire form of a chat message; only reads ids from associations, so it is safe on unloaded references
+public class MessageDTO {
+    private Long id;
+    private Long chatId;
+    private Participant sender;
+    private Participant recipient;
+    private String content;
+    private String image;
+    private LocalDateTime sentAt;
+    private boolean read;
+
+    public static class Participant {
+        private Long id;
+
+        public Participant() {}
+
+        public Participant(Long id) { this.id = id; }
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+    }
+
+    public static MessageDTO fromEntity(Message message) {
+        if (message == null) return null;
+        MessageDTO dto = new MessageDTO();
+        dto.setId(message.getId());
+        dto.setChatId(message.getChat() != null ? message.getChat().getId() : null);
+        dto.setSender(message.getSender() != null ? new Participant(message.getSender().getId()) : null);
+        dto.setRecipient(message.getRecipient() != null ? new Participant(message.getRecipient().getId()) : null);
+        dto.setContent(message.getContent());
+        dto.setImage(message.getImage());
+        dto.setSentAt(message.getSentAt());
+        dto.setRead(message.isRead());
+        return dto;
+    }
+
+    // Getters and setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Long getChatId() { return chatId; }
+    public void setChatId(Long chatId) { this.chatId = chatId; }
+    public Participant getSender() { return sender; }
+    public void setSender(Participant sender) { this.sender = sender; }
+    public Participant getRecipient() { return recipient; }
+    public void setRecipient(Participant recipient) { this.recipient = recipient; }
+    public String getContent() { return content; }
+    public void setContent(String content) { this.content = content; }
+    public String getImage() { return image; }
+    public void setImage(String image) { this.image = image; }
+    public LocalDateTime getSentAt() { return sentAt; }
+    public void setSentAt(LocalDateTime sentAt) { this.sentAt = sentAt; }
+    public boolean isRead() { return read; }
+    public void setRead(boolean read) { this.read = read; }
+}
@@ -0,0 +1,32 @@
+package com.postgresql.MasChat.dto;
+
+import java.util.List;
+
+import com.postgresql.MasChat.model.Message;
+
+public class MessagePageDTO {
+    private List<Message> messages;
+    // Opaque cursor to pass back as "before" to load the next (older) page
+    private String nextCursor;
+    private boolean hasMore;
+
+    public MessagePageDTO(List<Message> messages, String nextCursor, boolean hasMore) {
+        this.messages = messages;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    public static MessagePageDTO empty() {
+        return new MessagePageDTO(List.of(), null, false);
+    }
+
+    // Getters and setters
+    public List<Message> getMessages() { return messages; }
+    public void setMessages(List<Message> messages) { this.messages = messages; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
@@ -0,0 +1,77 @@
+package com.postgresql.MasChat.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.postgresql.MasChat.model.Notification;
+
+// Wire form of the events pushed on /user/queue/notifications; unset fields are left out
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class NotificationEventDTO {
+    private String type;
+    private Long id;
+    private String title;
+    private String message;
+    private Boolean read;
+    private LocalDateTime createdAt;
+    private LocalDateTime readAt;
+    private String relatedId;
+    private String relatedType;
+    private Long senderId;
+    private String senderName;
+    private String senderAvatar;
+    private Long userId;
+    private List<Long> notificationIds;
+
+    public NotificationEventDTO() {}
+
+    public NotificationEventDTO(String type) {
+        this.type = type;
+    }
+
+    public static NotificationEventDTO created(Notification notification) {
+        NotificationEventDTO dto = new NotificationEventDTO("NEW_NOTIFICATION");
+        dto.setId(notification.getId());
+        dto.setTitle(notification.getTitle());
+        dto.setMessage(notification.getMessage());
+        dto.setRead(notification.isRead());
+        dto.setCreatedAt(notification.getCreatedAt());
+        dto.setRelatedId(notification.getRelatedId());
+        dto.setRelatedType(notification.getRelatedType());
+        dto.setSenderId(notification.getSenderId());
+        dto.setSenderName(notification.getSenderName());
+        dto.setSenderAvatar(notification.getSenderAvatar());
+        return dto;
+    }
+
+    // Getters and setters
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+    public Boolean getRead() { return read; }
+    public void setRead(Boolean read) { this.read = read; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public LocalDateTime getReadAt() { return readAt; }
+    public void setReadAt(LocalDateTime readAt) { this.readAt = readAt; }
+    public String getRelatedId() { return relatedId; }
+    public void setRelatedId(String relatedId) { this.relatedId = relatedId; }
+    public String getRelatedType() { return relatedType; }
+    public void setRelatedType(String relatedType) { this.relatedType = relatedType; }
+    public Long getSenderId() { return senderId; }
+    public void setSenderId(Long senderId) { this.senderId = senderId; }
+    public String getSenderName() { return senderName; }
+    public void setSenderName(String senderName) { this.senderName = senderName; }
+    public String getSenderAvatar() { return senderAvatar; }
+    public void setSenderAvatar(String senderAvatar) { this.senderAvatar = senderAvatar; }
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public List<Long> getNotificationIds() { return notificationIds; }
+    public void setNotificationIds(List<Long> notificationIds) { this.notificationIds = notificationIds; }
+}
@@ -2,7 +2,6 @@ package com.postgresql.MasChat.dto;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class PostDTO {
     private String id;
@@ -15,6 +14,9 @@ public class PostDTO {
     private int likeCount;
     private int commentCount;
     private int shareCount;
+    private boolean likedByCurrentUser;
+    // Uploaded media with thumbnail variants; filled in by list mappers
+    private List<AttachmentDTO> media;
 
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
@@ -36,8 +38,26 @@ public class PostDTO {
     public void setCommentCount(int commentCount) { this.commentCount = commentCount; }
     public int getShareCount() { return shareCount; }
     public void setShareCount(int shareCount) { this.shareCount = shareCount; }
+    public boolean isLikedByCurrentUser() { return likedByCurrentUser; }
+    public void setLikedByCurrentUser(boolean likedByCurrentUser) { this.likedByCurrentUser = likedByCurrentUser; }
+    public List<AttachmentDTO> getMedia() { return media; }
+    public void setMedia(List<AttachmentDTO> media) { this.media = media; }
 
     public static PostDTO fromEntity(com.postgresql.MasChat.model.Post post) {
+        return fromEntity(post, null, false);
+    }
+
+    // Counts come from the post's counter columns; whether the viewer liked it is looked up by the
+    // caller for a whole page at once, so the likes and comments collections are never loaded
+    public static PostDTO fromEntity(com.postgresql.MasChat.model.Post post, Long currentUserId, boolean likedByCurrentUser) {
+        if (post == null) return null;
+        PostDTO dto = fromEntity(post, currentUserId, likedByCurrentUser, (UserSummaryDTO) null);
+        dto.setUser(UserDTO.fromEntity(post.getUser()));
+        return dto;
+    }
+
+    // List form: the author is a summary from a UserSummaryLoader rather than the full user
+    public static PostDTO fromEntity(com.postgresql.MasChat.model.Post post, Long currentUserId, boolean likedByCurrentUser, UserSummaryDTO author) {
         if (post == null) return null;
         PostDTO dto = new PostDTO();
         dto.setId(post.getId().toString());
@@ -45,25 +65,13 @@ public class PostDTO {
         dto.setImageUrl(post.getImageUrl());
         dto.setVideoUrl(post.getVideoUrl());
         dto.setCreatedAt(post.getCreatedAt());
-        dto.setUser(UserDTO.fromEntity(post.getUser()));
-        
-        // Convert likedBy Set<User> to List<String>
-        if (post.getLikedBy() != null) {
-            dto.setLikedBy(post.getLikedBy().stream()
-                .map(user -> user.getId().toString())
-                .collect(Collectors.toList()));
-            dto.setLikeCount(post.getLikedBy().size());
-        } else {
-            dto.setLikedBy(List.of());
-            dto.setLikeCount(0);
-        }
+        dto.setUser(UserDTO.fromSummary(author));
         
-        // Set comment count
-        if (post.getComments() != null) {
-            dto.setCommentCount(post.getComments().size());
-        } else {
-            dto.setCommentCount(0);
-        }
+        dto.setLikeCount(post.getLikeCount());
+        dto.setCommentCount(post.getCommentCount());
+        dto.setLikedByCurrentUser(likedByCurrentUser);
+        // likedBy only ever carries the viewer, so existing likedBy.includes(userId) checks keep working
+        dto.setLikedBy(likedByCurrentUser && currentUserId != null ? List.of(currentUserId.toString()) : List.of());
         
         // Set share count (default to 0 for now)
         dto.setShareCount(0);
@@ -1,9 +1,13 @@
 package com.postgresql.MasChat.dto;
 
+import java.util.List;
+
 public class PostRequestDto {
     private String content;
     private String imageUrl;
     private String videoUrl;
+    // Ids returned by POST /api/media/upload
+    private List<Long> attachmentIds;
 
     public String getContent() { return content; }
     public void setContent(String content) { this.content = content; }
@@ -11,4 +15,6 @@ public class PostRequestDto {
     public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
     public String getVideoUrl() { return videoUrl; }
     public void setVideoUrl(String videoUrl) { this.videoUrl = videoUrl; }
+    public List<Long> getAttachmentIds() { return attachmentIds; }
+    public void setAttachmentIds(List<Long> attachmentIds) { this.attachmentIds = attachmentIds; }
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.postgresql.MasChat.dto;
+
+import java.time.LocalDateTime;
+
+// Published on /topic/presence/{userId} when a user comes online or goes offline
+public class PresenceDTO {
+    private Long userId;
+    private boolean online;
+    private LocalDateTime lastSeen;
+
+    public PresenceDTO() {}
+
+    public PresenceDTO(Long userId, boolean online, LocalDateTime lastSeen) {
+        this.userId = userId;
+        this.online = online;
+        this.lastSeen = lastSeen;
+    }
+
+    // Getters and setters
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public boolean isOnline() { return online; }
+    public void setOnline(boolean online) { this.online = online; }
+    public LocalDateTime getLastSeen() { return lastSeen; }
+    public void setLastSeen(LocalDateTime lastSeen) { this.lastSeen = lastSeen; }
+}
@@ -0,0 +1,26 @@
+package com.postgresql.MasChat.dto;
+
+import java.util.List;
+
+public class RankedFeedPageDTO {
+    private List<FeedItemDTO> items;
+    private int page;
+    // Whether page + 1 has items; ranking is recomputed per request, so later pages may shift
+    private boolean hasMore;
+
+    public RankedFeedPageDTO(List<FeedItemDTO> items, int page, boolean hasMore) {
+        this.items = items;
+        this.page = page;
+        this.hasMore = hasMore;
+    }
+
+    // Getters and setters
+    public List<FeedItemDTO> getItems() { return items; }
+    public void setItems(List<FeedItemDTO> items) { this.items = items; }
+
+    public int getPage() { return page; }
+    public void setPage(int page) { this.page = page; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
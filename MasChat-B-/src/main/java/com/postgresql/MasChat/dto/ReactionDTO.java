@@ -0,0 +1,33 @@
+package com.postgresql.MasChat.dto;
+
+// Result of a like/unlike: the viewer's state and the target's like count after the change
+public class ReactionDTO {
+    private Long targetId;
+    private Long userId;
+    private boolean liked;
+    private int likeCount;
+    // False when the request was a repeat (already liked / not liked) and nothing was written
+    private boolean changed;
+
+    public ReactionDTO() {}
+
+    public ReactionDTO(Long targetId, Long userId, boolean liked, int likeCount, boolean changed) {
+        this.targetId = targetId;
+        this.userId = userId;
+        this.liked = liked;
+        this.likeCount = likeCount;
+        this.changed = changed;
+    }
+
+    // Getters and setters
+    public Long getTargetId() { return targetId; }
+    public void setTargetId(Long targetId) { this.targetId = targetId; }
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public boolean isLiked() { return liked; }
+    public void setLiked(boolean liked) { this.liked = liked; }
+    public int getLikeCount() { return likeCount; }
+    public void setLikeCount(int likeCount) { this.likeCount = likeCount; }
+    public boolean isChanged() { return changed; }
+    public void setChanged(boolean changed) { this.changed = changed; }
+}
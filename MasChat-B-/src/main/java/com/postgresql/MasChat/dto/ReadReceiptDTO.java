@@ -0,0 +1,35 @@
+package com.postgresql.MasChat.dto;
+
+import java.time.LocalDateTime;
+
+// Pushed on /user/queue/messages when a participant advances their read watermark
+public class ReadReceiptDTO {
+    public static final String TYPE = "READ_RECEIPT";
+
+    private String type = TYPE;
+    private Long chatId;
+    private Long readerId;
+    private Long lastReadMessageId;
+    private LocalDateTime readAt;
+
+    public ReadReceiptDTO() {}
+
+    public ReadReceiptDTO(Long chatId, Long readerId, Long lastReadMessageId, LocalDateTime readAt) {
+        this.chatId = chatId;
+        this.readerId = readerId;
+        this.lastReadMessageId = lastReadMessageId;
+        this.readAt = readAt;
+    }
+
+    // Getters and setters
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    public Long getChatId() { return chatId; }
+    public void setChatId(Long chatId) { this.chatId = chatId; }
+    public Long getReaderId() { return readerId; }
+    public void setReaderId(Long readerId) { this.readerId = readerId; }
+    public Long getLastReadMessageId() { return lastReadMessageId; }
+    public void setLastReadMessageId(Long lastReadMessageId) { this.lastReadMessageId = lastReadMessageId; }
+    public LocalDateTime getReadAt() { return readAt; }
+    public void setReadAt(LocalDateTime readAt) { this.readAt = readAt; }
+}
@@ -2,7 +2,6 @@ package com.postgresql.MasChat.dto;
 
 import com.postgresql.MasChat.model.Reel;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class ReelDTO {
     private String id;
@@ -17,13 +16,23 @@ public class ReelDTO {
     private int likeCount;
     private int commentCount;
     private int shareCount;
+    private boolean likedByCurrentUser;
 
     public static ReelDTO fromEntity(Reel reel) {
+        return fromEntity(reel, null, false);
+    }
+
+    public static ReelDTO fromEntity(Reel reel, Long currentUserId, boolean likedByCurrentUser) {
+        return fromEntity(reel, currentUserId, likedByCurrentUser, UserSummaryDTO.fromEntity(reel.getUser()));
+    }
+
+    // The author comes from a UserSummaryLoader, so the reel's user proxy is never initialized
+    public static ReelDTO fromEntity(Reel reel, Long currentUserId, boolean likedByCurrentUser, UserSummaryDTO author) {
         ReelDTO dto = new ReelDTO();
         dto.setId(String.valueOf(reel.getId()));
         dto.setUserId(reel.getUser().getId().toString());
-        dto.setUsername(reel.getUser().getUsername());
-        dto.setProfilePicture(reel.getUser().getProfilePicture());
+        dto.setUsername(author != null ? author.getUsername() : null);
+        dto.setProfilePicture(author != null ? author.getProfilePicture() : null);
         
         // Set media URL - this is the main field for media content
         String mediaUrl = reel.getMediaUrl();
@@ -38,23 +47,11 @@ public class ReelDTO {
         
         System.out.println("ReelDTO created - ID: " + dto.getId() + ", Media URL: " + mediaUrl);
         
-        // Convert likedBy Set<User> to List<String>
-        if (reel.getLikedBy() != null) {
-            dto.setLikedBy(reel.getLikedBy().stream()
-                .map(user -> user.getId().toString())
-                .collect(Collectors.toList()));
-            dto.setLikeCount(reel.getLikedBy().size());
-        } else {
-            dto.setLikedBy(List.of());
-            dto.setLikeCount(0);
-        }
-        
-        // Set comment count
-        if (reel.getComments() != null) {
-            dto.setCommentCount(reel.getComments().size());
-        } else {
-            dto.setCommentCount(0);
-        }
+        // Counts come from the counter columns; likedBy only ever carries the viewer
+        dto.setLikeCount(reel.getLikeCount());
+        dto.setCommentCount(reel.getCommentCount());
+        dto.setLikedByCurrentUser(likedByCurrentUser);
+        dto.setLikedBy(likedByCurrentUser && currentUserId != null ? List.of(currentUserId.toString()) : List.of());
         
         // Set share count
         dto.setShareCount(reel.getShareCount());
@@ -86,4 +83,6 @@ public class ReelDTO {
     public void setCommentCount(int commentCount) { this.commentCount = commentCount; }
     public int getShareCount() { return shareCount; }
     public void setShareCount(int shareCount) { this.shareCount = shareCount; }
+    public boolean isLikedByCurrentUser() { return likedByCurrentUser; }
+    public void setLikedByCurrentUser(boolean likedByCurrentUser) { this.likedByCurrentUser = likedByCurrentUser; }
 } 
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.postgresql.MasChat.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.postgresql.MasChat.model.MarketplaceItem;
+
+// Response of /api/search: one ranked page per requested type; types not asked for are left out
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SearchResultsDTO {
+    private String query;
+    private int page;
+    private int size;
+    private List<PostDTO> posts;
+    private List<ReelDTO> reels;
+    private List<CommentDTO> comments;
+    private List<UserDTO> users;
+    private List<GroupDTO> groups;
+    private List<MarketplaceItem> items;
+
+    // Getters and setters
+    public String getQuery() { return query; }
+    public void setQuery(String query) { this.query = query; }
+    public int getPage() { return page; }
+    public void setPage(int page) { this.page = page; }
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+    public List<PostDTO> getPosts() { return posts; }
+    public void setPosts(List<PostDTO> posts) { this.posts = posts; }
+    public List<ReelDTO> getReels() { return reels; }
+    public void setReels(List<ReelDTO> reels) { this.reels = reels; }
+    public List<CommentDTO> getComments() { return comments; }
+    public void setComments(List<CommentDTO> comments) { this.comments = comments; }
+    public List<UserDTO> getUsers() { return users; }
+    public void setUsers(List<UserDTO> users) { this.users = users; }
+    public List<GroupDTO> getGroups() { return groups; }
+    public void setGroups(List<GroupDTO> groups) { this.groups = groups; }
+    public List<MarketplaceItem> getItems() { return items; }
+    public void setItems(List<MarketplaceItem> items) { this.items = items; }
+}
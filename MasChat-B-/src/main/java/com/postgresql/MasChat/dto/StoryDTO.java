@@ -1,10 +1,8 @@
 package com.postgresql.MasChat.dto;
 
 import com.postgresql.MasChat.model.Story;
-import com.postgresql.MasChat.model.User;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class StoryDTO {
     private Long id;
@@ -15,17 +13,30 @@ public class StoryDTO {
     private String caption;
     private String createdAt;
     private List<Long> likedBy;
+    private int likeCount;
+    private boolean likedByCurrentUser;
 
     public static StoryDTO fromEntity(Story story) {
+        return fromEntity(story, null, false);
+    }
+
+    public static StoryDTO fromEntity(Story story, Long currentUserId, boolean likedByCurrentUser) {
+        return fromEntity(story, currentUserId, likedByCurrentUser, UserSummaryDTO.fromEntity(story.getUser()));
+    }
+
+    // The author comes from a UserSummaryLoader, so the story's user proxy is never initialized
+    public static StoryDTO fromEntity(Story story, Long currentUserId, boolean likedByCurrentUser, UserSummaryDTO author) {
         StoryDTO dto = new StoryDTO();
         dto.setId(story.getId());
         dto.setUserId(story.getUser().getId());
-        dto.setUsername(story.getUser().getUsername());
-        dto.setProfilePicture(story.getUser().getProfilePicture());
+        dto.setUsername(author != null ? author.getUsername() : null);
+        dto.setProfilePicture(author != null ? author.getProfilePicture() : null);
         dto.setMediaUrl(story.getMediaUrl());
         dto.setCaption(story.getCaption());
         dto.setCreatedAt(story.getCreatedAt().toString());
-        dto.setLikedBy(story.getLikedBy().stream().map(User::getId).collect(Collectors.toList()));
+        dto.setLikeCount(story.getLikeCount());
+        dto.setLikedByCurrentUser(likedByCurrentUser);
+        dto.setLikedBy(likedByCurrentUser && currentUserId != null ? List.of(currentUserId) : List.of());
         return dto;
     }
 
@@ -45,4 +56,8 @@ public class StoryDTO {
     public void setCreatedAt(String createdAt) { this.createdAt = createdAt; }
     public List<Long> getLikedBy() { return likedBy; }
     public void setLikedBy(List<Long> likedBy) { this.likedBy = likedBy; }
+    public int getLikeCount() { return likeCount; }
+    public void setLikeCount(int likeCount) { this.likeCount = likeCount; }
+    public boolean isLikedByCurrentUser() { return likedByCurrentUser; }
+    public void setLikedByCurrentUser(boolean likedByCurrentUser) { this.likedByCurrentUser = likedByCurrentUser; }
 } 
\ No newline at end of file
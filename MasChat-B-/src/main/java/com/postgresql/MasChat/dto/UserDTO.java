@@ -1,5 +1,7 @@
 package com.postgresql.MasChat.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 public class UserDTO {
     private String id;
     private String username;
@@ -9,7 +11,11 @@ public class UserDTO {
     private String coverPhoto;
     private String bio;
     private Boolean verified;
+    private Boolean online;
     private UserDetailsDTO details;
+    // Viewer's FriendshipStatusService status towards this user, set on search results
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String friendshipStatus;
 
     // Getters and setters
     public String getId() { return id; }
@@ -28,8 +34,24 @@ public class UserDTO {
     public void setBio(String bio) { this.bio = bio; }
     public Boolean getVerified() { return verified; }
     public void setVerified(Boolean verified) { this.verified = verified; }
+    public Boolean getOnline() { return online; }
+    public void setOnline(Boolean online) { this.online = online; }
     public UserDetailsDTO getDetails() { return details; }
     public void setDetails(UserDetailsDTO details) { this.details = details; }
+    public String getFriendshipStatus() { return friendshipStatus; }
+    public void setFriendshipStatus(String friendshipStatus) { this.friendshipStatus = friendshipStatus; }
+
+    // Just the columns of a UserSummaryDTO; email, bio and details stay unset
+    public static UserDTO fromSummary(UserSummaryDTO summary) {
+        if (summary == null) return null;
+        UserDTO dto = new UserDTO();
+        dto.setId(summary.getId().toString());
+        dto.setUsername(summary.getUsername());
+        dto.setFullName(summary.getFullName());
+        dto.setProfilePicture(summary.getProfilePicture());
+        dto.setVerified(summary.getVerified());
+        return dto;
+    }
 
     // Mapping from entity
     public static UserDTO fromEntity(com.postgresql.MasChat.model.User user) {
@@ -61,4 +83,13 @@ public class UserDTO {
         }
         return dto;
     }
+
+    // Live presence comes from PresenceService, not the persisted users.online column
+    public static UserDTO fromEntity(com.postgresql.MasChat.model.User user, boolean online) {
+        UserDTO dto = fromEntity(user);
+        if (dto != null) {
+            dto.setOnline(online);
+        }
+        return dto;
+    }
 } 
\ No newline at end of file
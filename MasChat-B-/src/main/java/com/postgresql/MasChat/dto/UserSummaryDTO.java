@@ -0,0 +1,39 @@
+package com.postgresql.MasChat.dto;
+
+import com.postgresql.MasChat.model.User;
+
+// The few user columns list views show next to content; loaded in bulk by UserSummaryService
+public class UserSummaryDTO {
+    private Long id;
+    private String username;
+    private String fullName;
+    private String profilePicture;
+    private Boolean verified;
+
+    public UserSummaryDTO() {}
+
+    public UserSummaryDTO(Long id, String username, String fullName, String profilePicture, Boolean verified) {
+        this.id = id;
+        this.username = username;
+        this.fullName = fullName;
+        this.profilePicture = profilePicture;
+        this.verified = verified;
+    }
+
+    public static UserSummaryDTO fromEntity(User user) {
+        if (user == null) return null;
+        return new UserSummaryDTO(user.getId(), user.getUsername(), user.getFullName(), user.getProfilePicture(), user.getVerified());
+    }
+
+    // Getters and setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+    public String getFullName() { return fullName; }
+    public void setFullName(String fullName) { this.fullName = fullName; }
+    public String getProfilePicture() { return profilePicture; }
+    public void setProfilePicture(String profilePicture) { this.profilePicture = profilePicture; }
+    public Boolean getVerified() { return verified; }
+    public void setVerified(Boolean verified) { this.verified = verified; }
+}
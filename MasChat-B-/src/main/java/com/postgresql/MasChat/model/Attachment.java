@@ -4,10 +4,13 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
+// An uploaded file under uploads/. Images are resized into thumbnail and medium variants with a
+// blurhash placeholder by MediaProcessingService; status tracks how far that has got.
 @Entity
-@SuppressWarnings("unused")
-@Table(name = "attachments")
+@Table(name = "attachments", indexes = @Index(name = "idx_attachments_post_id", columnList = "post_id"))
 public class Attachment {
+    public enum Status { PENDING, PROCESSING, READY, FAILED }
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -18,17 +21,69 @@ public class Attachment {
 
     private String url;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "post_id")
     @JsonBackReference
     private Post post;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "message_id")
     @JsonBackReference
     private Message message;
 
+    // Uploader; only they can attach the file to a post
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status = Status.PENDING;
+
+    private Integer width;
+
+    private Integer height;
+
+    @Column(length = 64)
+    private String blurhash;
+
+    @Column(name = "thumbnail_url", columnDefinition = "TEXT")
+    private String thumbnailUrl;
+
+    @Column(name = "medium_url", columnDefinition = "TEXT")
+    private String mediumUrl;
+
     private LocalDateTime uploadedAt = LocalDateTime.now();
 
-    // Getters and setters...
+    private LocalDateTime processedAt;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+    public String getFileType() { return fileType; }
+    public void setFileType(String fileType) { this.fileType = fileType; }
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+    public Post getPost() { return post; }
+    public void setPost(Post post) { this.post = post; }
+    public Message getMessage() { return message; }
+    public void setMessage(Message message) { this.message = message; }
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+    public Integer getWidth() { return width; }
+    public void setWidth(Integer width) { this.width = width; }
+    public Integer getHeight() { return height; }
+    public void setHeight(Integer height) { this.height = height; }
+    public String getBlurhash() { return blurhash; }
+    public void setBlurhash(String blurhash) { this.blurhash = blurhash; }
+    public String getThumbnailUrl() { return thumbnailUrl; }
+    public void setThumbnailUrl(String thumbnailUrl) { this.thumbnailUrl = thumbnailUrl; }
+    public String getMediumUrl() { return mediumUrl; }
+    public void setMediumUrl(String mediumUrl) { this.mediumUrl = mediumUrl; }
+    public LocalDateTime getUploadedAt() { return uploadedAt; }
+    public void setUploadedAt(LocalDateTime uploadedAt) { this.uploadedAt = uploadedAt; }
+    public LocalDateTime getProcessedAt() { return processedAt; }
+    public void setProcessedAt(LocalDateTime processedAt) { this.processedAt = processedAt; }
 }
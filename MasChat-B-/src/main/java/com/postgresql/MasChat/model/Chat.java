@@ -17,6 +17,18 @@ public class Chat {
     @JoinColumn(name = "user2_id", nullable = false)
     private User user2;
 
+    // Keep the pair canonical (user1 < user2) so each pair of users maps to a single row
+    @PrePersist
+    @PreUpdate
+    protected void canonicalizePair() {
+        if (user1 != null && user2 != null && user1.getId() != null && user2.getId() != null
+                && user1.getId() > user2.getId()) {
+            User lower = user2;
+            user2 = user1;
+            user1 = lower;
+        }
+    }
+
     public Long getId() { return id; }
     public User getUser1() { return user1; }
     public void setUser1(User user1) { this.user1 = user1; }
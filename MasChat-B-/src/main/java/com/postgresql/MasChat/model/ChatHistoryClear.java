@@ -0,0 +1,37 @@
+package com.postgresql.MasChat.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Per-participant "clear chat": messages up to clearedUpToMessageId are hidden from this user only
+@Entity
+@Table(name = "chat_history_clears", uniqueConstraints = @UniqueConstraint(columnNames = {"chat_id", "user_id"}))
+public class ChatHistoryClear {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "chat_id", nullable = false)
+    private Chat chat;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "cleared_up_to_message_id", nullable = false)
+    private Long clearedUpToMessageId;
+
+    @Column(name = "cleared_at", nullable = false)
+    private LocalDateTime clearedAt;
+
+    public Long getId() { return id; }
+    public Chat getChat() { return chat; }
+    public void setChat(Chat chat) { this.chat = chat; }
+    public User getUser() { return user; }
+    public void setUser(User user) { this.user = user; }
+    public Long getClearedUpToMessageId() { return clearedUpToMessageId; }
+    public void setClearedUpToMessageId(Long clearedUpToMessageId) { this.clearedUpToMessageId = clearedUpToMessageId; }
+    public LocalDateTime getClearedAt() { return clearedAt; }
+    public void setClearedAt(LocalDateTime clearedAt) { this.clearedAt = clearedAt; }
+}
@@ -0,0 +1,37 @@
+package com.postgresql.MasChat.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Read watermark of one participant in a chat: every message up to lastReadMessageId has been seen
+@Entity
+@Table(name = "chat_read_receipts", uniqueConstraints = @UniqueConstraint(columnNames = {"chat_id", "user_id"}))
+public class ChatReadReceipt {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "chat_id", nullable = false)
+    private Chat chat;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "last_read_message_id", nullable = false)
+    private Long lastReadMessageId;
+
+    @Column(name = "read_at", nullable = false)
+    private LocalDateTime readAt;
+
+    public Long getId() { return id; }
+    public Chat getChat() { return chat; }
+    public void setChat(Chat chat) { this.chat = chat; }
+    public User getUser() { return user; }
+    public void setUser(User user) { this.user = user; }
+    public Long getLastReadMessageId() { return lastReadMessageId; }
+    public void setLastReadMessageId(Long lastReadMessageId) { this.lastReadMessageId = lastReadMessageId; }
+    public LocalDateTime getReadAt() { return readAt; }
+    public void setReadAt(LocalDateTime readAt) { this.readAt = readAt; }
+}
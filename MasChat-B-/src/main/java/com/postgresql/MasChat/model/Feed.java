@@ -6,8 +6,9 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import java.util.List;
 
+// One home feed per user; feed_posts holds the post ids fanned out to it on write
 @Entity
-@Table(name = "feeds")
+@Table(name = "feeds", uniqueConstraints = @UniqueConstraint(columnNames = "user_id"))
 public class Feed {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -29,5 +30,13 @@ public class Feed {
 
     private LocalDateTime updatedAt = LocalDateTime.now();
 
-    // Getters and setters...
+    // Getters and setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public User getUser() { return user; }
+    public void setUser(User user) { this.user = user; }
+    public List<Post> getPosts() { return posts; }
+    public void setPosts(List<Post> posts) { this.posts = posts; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
 }
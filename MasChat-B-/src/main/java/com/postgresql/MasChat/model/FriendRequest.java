@@ -11,9 +11,11 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 
 @Entity
-@Table(name = "friend_requests")
+@Table(name = "friend_requests",
+    uniqueConstraints = @UniqueConstraint(name = "friend_requests_sender_id_receiver_id_key", columnNames = {"sender_id", "receiver_id"}))
 public class FriendRequest {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -26,7 +26,7 @@ public class Group {
     @Column(nullable = false)
     private String imageUrl = "https://i.imgur.com/default-group.png";
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "created_by", nullable = false)
     private User createdBy;
 
@@ -16,7 +16,7 @@ public class GroupMember {
     @JsonIgnore
     private Group group;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
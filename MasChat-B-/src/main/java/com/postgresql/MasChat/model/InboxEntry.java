@@ -0,0 +1,61 @@
+package com.postgresql.MasChat.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// One row per (owner, partner) conversation, maintained by InboxService on every message write
+@Entity
+@Table(name = "inbox_entries",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "partner_id"}),
+    indexes = @Index(name = "idx_inbox_entries_user_last_message_at", columnList = "user_id, last_message_at DESC"))
+public class InboxEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "partner_id", nullable = false)
+    private User partner;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "chat_id", nullable = false)
+    private Chat chat;
+
+    @Column(name = "last_message_id")
+    private Long lastMessageId;
+
+    @Column(name = "last_message_preview", length = 255)
+    private String lastMessagePreview;
+
+    @Column(name = "last_message_at", nullable = false)
+    private LocalDateTime lastMessageAt;
+
+    @Column(name = "unread_count", nullable = false)
+    private long unreadCount = 0;
+
+    // Messages sent either way in this conversation
+    @Column(name = "message_count", nullable = false)
+    private long messageCount = 0;
+
+    public Long getId() { return id; }
+    public User getUser() { return user; }
+    public void setUser(User user) { this.user = user; }
+    public User getPartner() { return partner; }
+    public void setPartner(User partner) { this.partner = partner; }
+    public Chat getChat() { return chat; }
+    public void setChat(Chat chat) { this.chat = chat; }
+    public Long getLastMessageId() { return lastMessageId; }
+    public void setLastMessageId(Long lastMessageId) { this.lastMessageId = lastMessageId; }
+    public String getLastMessagePreview() { return lastMessagePreview; }
+    public void setLastMessagePreview(String lastMessagePreview) { this.lastMessagePreview = lastMessagePreview; }
+    public LocalDateTime getLastMessageAt() { return lastMessageAt; }
+    public void setLastMessageAt(LocalDateTime lastMessageAt) { this.lastMessageAt = lastMessageAt; }
+    public long getUnreadCount() { return unreadCount; }
+    public void setUnreadCount(long unreadCount) { this.unreadCount = unreadCount; }
+    public long getMessageCount() { return messageCount; }
+    public void setMessageCount(long messageCount) { this.messageCount = messageCount; }
+}
@@ -9,7 +9,9 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
-@Table(name = "posts")
+@Table(name = "posts", indexes = {
+    @Index(name = "idx_posts_user_id_id", columnList = "user_id, id")
+})
 public class Post {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -44,6 +46,26 @@ public class Post {
     private String imageUrl;
     private String videoUrl;
 
+    // Set when the author was over the fan-out threshold: readers merge these posts in at read time
+    @Column(name = "fanout_on_read", nullable = false)
+    @JsonIgnore
+    private boolean fanoutOnRead = false;
+
+    // Maintained by PostRepository's counter updates only; never written back from the entity
+    @Column(name = "like_count", nullable = false, updatable = false)
+    private int likeCount = 0;
+
+    @Column(name = "comment_count", nullable = false, updatable = false)
+    private int commentCount = 0;
+
+    public boolean isFanoutOnRead() { return fanoutOnRead; }
+    public void setFanoutOnRead(boolean fanoutOnRead) { this.fanoutOnRead = fanoutOnRead; }
+
+    public int getLikeCount() { return likeCount; }
+    public void setLikeCount(int likeCount) { this.likeCount = likeCount; }
+    public int getCommentCount() { return commentCount; }
+    public void setCommentCount(int commentCount) { this.commentCount = commentCount; }
+
     public String getImageUrl() { return imageUrl; }
     public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
     public String getVideoUrl() { return videoUrl; }
@@ -39,6 +39,13 @@ public class Reel {
 
     private int shareCount = 0;
 
+    // Maintained by ReelRepository's counter updates only; never written back from the entity
+    @Column(name = "like_count", nullable = false, updatable = false)
+    private int likeCount = 0;
+
+    @Column(name = "comment_count", nullable = false, updatable = false)
+    private int commentCount = 0;
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
@@ -62,4 +69,10 @@ public class Reel {
 
     public int getShareCount() { return shareCount; }
     public void setShareCount(int shareCount) { this.shareCount = shareCount; }
+
+    public int getLikeCount() { return likeCount; }
+    public void setLikeCount(int likeCount) { this.likeCount = likeCount; }
+
+    public int getCommentCount() { return commentCount; }
+    public void setCommentCount(int commentCount) { this.commentCount = commentCount; }
 } 
\ No newline at end of file
@@ -28,6 +28,10 @@ public class Story {
     )
     private Set<User> likedBy = new HashSet<>();
 
+    // Maintained by StoryRepository's counter updates only; never written back from the entity
+    @Column(name = "like_count", nullable = false, updatable = false)
+    private int likeCount = 0;
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
@@ -45,4 +49,7 @@ public class Story {
 
     public Set<User> getLikedBy() { return likedBy; }
     public void setLikedBy(Set<User> likedBy) { this.likedBy = likedBy; }
+
+    public int getLikeCount() { return likeCount; }
+    public void setLikeCount(int likeCount) { this.likeCount = likeCount; }
 } 
\ No newline at end of file
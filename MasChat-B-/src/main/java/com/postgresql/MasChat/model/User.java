@@ -70,6 +70,9 @@ public class User {
     @Column(name = "online")
     private Boolean online = false; // Used for WebSocket online status
 
+    @Column(name = "last_seen")
+    private LocalDateTime lastSeen; // Written in batches by PresenceService
+
     @ManyToMany
     @JoinTable(
         name = "user_friends",
@@ -228,6 +231,14 @@ public class User {
         this.online = online;
     }
 
+    public LocalDateTime getLastSeen() {
+        return lastSeen;
+    }
+
+    public void setLastSeen(LocalDateTime lastSeen) {
+        this.lastSeen = lastSeen;
+    }
+
     public List<User> getFriends() {
         return friends;
     }
@@ -0,0 +1,51 @@
+package com.postgresql.MasChat.repository;
+
+import com.postgresql.MasChat.model.Attachment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AttachmentRepository extends JpaRepository<Attachment, Long> {
+
+    // Media of a page of posts in upload order, served by idx_attachments_post_id
+    @Query("SELECT a FROM Attachment a WHERE a.post.id IN :postIds ORDER BY a.id")
+    List<Attachment> findByPostIdIn(@Param("postIds") Collection<Long> postIds);
+
+    // The uploader's own attachments that are not yet on a post
+    @Query("SELECT a FROM Attachment a WHERE a.id IN :ids AND a.userId = :userId AND a.post IS NULL ORDER BY a.id")
+    List<Attachment> findUnattached(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
+
+    // Null until the upload is linked to a post
+    @Query("SELECT a.post.id FROM Attachment a WHERE a.id = :id")
+    Long findPostId(@Param("id") Long id);
+
+    @Query("SELECT a.id FROM Attachment a WHERE a.status IN :statuses AND a.uploadedAt < :before ORDER BY a.id")
+    List<Long> findIdsByStatusBefore(@Param("statuses") Collection<Attachment.Status> statuses, @Param("before") LocalDateTime before);
+
+    // Claims a pending attachment for a worker; 0 when another worker or node already has it
+    @Transactional
+    @Modifying
+    @Query("UPDATE Attachment a SET a.status = :to WHERE a.id = :id AND a.status = :from")
+    int updateStatus(@Param("id") Long id, @Param("from") Attachment.Status from, @Param("to") Attachment.Status to);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Attachment a SET a.status = :status, a.width = :width, a.height = :height, a.blurhash = :blurhash, " +
+           "a.thumbnailUrl = :thumbnailUrl, a.mediumUrl = :mediumUrl, a.processedAt = :processedAt WHERE a.id = :id")
+    int markProcessed(@Param("id") Long id,
+                      @Param("status") Attachment.Status status,
+                      @Param("width") Integer width,
+                      @Param("height") Integer height,
+                      @Param("blurhash") String blurhash,
+                      @Param("thumbnailUrl") String thumbnailUrl,
+                      @Param("mediumUrl") String mediumUrl,
+                      @Param("processedAt") LocalDateTime processedAt);
+}
@@ -0,0 +1,34 @@
+package com.postgresql.MasChat.repository;
+
+import com.postgresql.MasChat.model.ChatHistoryClear;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface ChatHistoryClearRepository extends JpaRepository<ChatHistoryClear, Long> {
+
+    @Query("SELECT c.clearedUpToMessageId FROM ChatHistoryClear c WHERE c.chat.id = :chatId AND c.user.id = :userId")
+    Optional<Long> findClearedUpTo(@Param("chatId") Long chatId, @Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = "INSERT INTO chat_history_clears (chat_id, user_id, cleared_up_to_message_id, cleared_at) " +
+                   "VALUES (:chatId, :userId, :messageId, :clearedAt) " +
+                   "ON CONFLICT (chat_id, user_id) DO UPDATE SET " +
+                   "cleared_up_to_message_id = GREATEST(chat_history_clears.cleared_up_to_message_id, EXCLUDED.cleared_up_to_message_id), " +
+                   "cleared_at = EXCLUDED.cleared_at",
+           nativeQuery = true)
+    void advanceClear(@Param("chatId") Long chatId,
+                      @Param("userId") Long userId,
+                      @Param("messageId") Long messageId,
+                      @Param("clearedAt") LocalDateTime clearedAt);
+
+    @Modifying
+    @Query("DELETE FROM ChatHistoryClear c WHERE c.chat.id = :chatId")
+    int deleteByChatId(@Param("chatId") Long chatId);
+}
@@ -0,0 +1,35 @@
+package com.postgresql.MasChat.repository;
+
+import com.postgresql.MasChat.model.ChatReadReceipt;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface ChatReadReceiptRepository extends JpaRepository<ChatReadReceipt, Long> {
+
+    @Query("SELECT r.lastReadMessageId FROM ChatReadReceipt r WHERE r.chat.id = :chatId AND r.user.id = :userId")
+    Optional<Long> findWatermark(@Param("chatId") Long chatId, @Param("userId") Long userId);
+
+    // Watermarks only move forward, so out-of-order receipts from several devices are harmless
+    @Modifying
+    @Query(value = "INSERT INTO chat_read_receipts (chat_id, user_id, last_read_message_id, read_at) " +
+                   "VALUES (:chatId, :userId, :messageId, :readAt) " +
+                   "ON CONFLICT (chat_id, user_id) DO UPDATE SET " +
+                   "last_read_message_id = GREATEST(chat_read_receipts.last_read_message_id, EXCLUDED.last_read_message_id), " +
+                   "read_at = EXCLUDED.read_at",
+           nativeQuery = true)
+    void advanceWatermark(@Param("chatId") Long chatId,
+                          @Param("userId") Long userId,
+                          @Param("messageId") Long messageId,
+                          @Param("readAt") LocalDateTime readAt);
+
+    @Modifying
+    @Query("DELETE FROM ChatReadReceipt r WHERE r.chat.id = :chatId")
+    int deleteByChatId(@Param("chatId") Long chatId);
+}
@@ -3,9 +3,24 @@ package com.postgresql.MasChat.repository;
 import com.postgresql.MasChat.model.Chat;
 import com.postgresql.MasChat.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.Optional;
 
 public interface ChatRepository extends JpaRepository<Chat, Long> {
     Optional<Chat> findByUser1AndUser2(User user1, User user2);
-    Optional<Chat> findByUser1AndUser2OrUser2AndUser1(User user1, User user2, User user2b, User user1b);
+
+    // Expects the canonical pair (user1Id < user2Id)
+    @Query("SELECT c.id FROM Chat c WHERE c.user1.id = :user1Id AND c.user2.id = :user2Id")
+    Optional<Long> findIdByCanonicalPair(@Param("user1Id") Long user1Id, @Param("user2Id") Long user2Id);
+
+    // Insert-or-fetch on the canonical pair (user1Id < user2Id). The no-op update makes
+    // RETURNING yield the existing id when another transaction created the chat first.
+    @Transactional
+    @Query(value = "INSERT INTO chats (user1_id, user2_id) VALUES (:user1Id, :user2Id) " +
+                   "ON CONFLICT (user1_id, user2_id) DO UPDATE SET user1_id = EXCLUDED.user1_id " +
+                   "RETURNING id",
+           nativeQuery = true)
+    Long upsertChatId(@Param("user1Id") Long user1Id, @Param("user2Id") Long user2Id);
 } 
\ No newline at end of file
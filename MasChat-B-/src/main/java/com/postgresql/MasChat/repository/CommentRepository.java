@@ -1,5 +1,6 @@
 package com.postgresql.MasChat.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -11,17 +12,38 @@ import java.util.List;
 public interface CommentRepository extends JpaRepository<Comment, Long> {
     List<Comment> findByPost(Post post);
     
-    // Get only top-level comments (no parent)
-    @Query("SELECT c FROM Comment c WHERE c.post = :post AND c.parentComment IS NULL ORDER BY c.createdAt DESC")
-    List<Comment> findTopLevelCommentsByPost(@Param("post") Post post);
-    
-    // Get replies for a specific comment
-    @Query("SELECT c FROM Comment c WHERE c.parentComment.id = :parentCommentId ORDER BY c.createdAt ASC")
-    List<Comment> findRepliesByParentCommentId(@Param("parentCommentId") Long parentCommentId);
+    // One page of a post's top-level comments, newest first, keyset-paged by id
+    @Query("SELECT c FROM Comment c WHERE c.post.id = :postId AND c.parentComment IS NULL AND c.id < :before ORDER BY c.id DESC")
+    List<Comment> findTopLevelPage(@Param("postId") Long postId, @Param("before") Long before, Pageable pageable);
+
+    // One page of a comment's replies, oldest first, keyset-paged by id
+    @Query("SELECT c FROM Comment c WHERE c.parentComment.id = :parentId AND c.id > :after ORDER BY c.id ASC")
+    List<Comment> findRepliesAfter(@Param("parentId") Long parentId, @Param("after") Long after, Pageable pageable);
+
+    // The first :perParent replies of every parent in one pass
+    @Query(value = "SELECT r.id FROM (" +
+                   "SELECT c.id, ROW_NUMBER() OVER (PARTITION BY c.parent_comment_id ORDER BY c.id) AS rn " +
+                   "FROM comments c WHERE c.parent_comment_id IN (:parentIds)) r " +
+                   "WHERE r.rn <= :perParent",
+           nativeQuery = true)
+    List<Long> findFirstReplyIds(@Param("parentIds") List<Long> parentIds, @Param("perParent") int perParent);
+
+    // [parentId, replyCount] for each parent that has replies
+    @Query("SELECT c.parentComment.id, COUNT(c) FROM Comment c WHERE c.parentComment.id IN :parentIds GROUP BY c.parentComment.id")
+    List<Object[]> countRepliesByParentIds(@Param("parentIds") List<Long> parentIds);
     
-    // Search comments by content
-    @Query("SELECT c FROM Comment c WHERE c.post = :post AND LOWER(c.content) LIKE LOWER(CONCAT('%', :searchTerm, '%')) ORDER BY c.createdAt DESC")
-    List<Comment> searchCommentsByContent(@Param("post") Post post, @Param("searchTerm") String searchTerm);
+    // Ranked full-text matches, across all posts or within one
+    @Query(value = "SELECT c.id FROM comments c, search_tsquery(:query) q " +
+                   "WHERE c.search_vector @@ q ORDER BY ts_rank_cd(c.search_vector, q) DESC, c.id DESC " +
+                   "LIMIT :limit OFFSET :offset",
+           nativeQuery = true)
+    List<Long> searchIds(@Param("query") String query, @Param("limit") int limit, @Param("offset") int offset);
+
+    @Query(value = "SELECT c.id FROM comments c, search_tsquery(:query) q " +
+                   "WHERE c.search_vector @@ q AND c.post_id = :postId ORDER BY ts_rank_cd(c.search_vector, q) DESC, c.id DESC " +
+                   "LIMIT :limit OFFSET :offset",
+           nativeQuery = true)
+    List<Long> searchIdsInPost(@Param("postId") Long postId, @Param("query") String query, @Param("limit") int limit, @Param("offset") int offset);
     
     // Get comments by user
     @Query("SELECT c FROM Comment c WHERE c.user.id = :userId ORDER BY c.createdAt DESC")
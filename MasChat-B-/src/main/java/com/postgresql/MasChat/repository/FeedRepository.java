@@ -0,0 +1,38 @@
+package com.postgresql.MasChat.repository;
+
+import com.postgresql.MasChat.model.Feed;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface FeedRepository extends JpaRepository<Feed, Long> {
+
+    // Make sure the author and each of their friends has a feed row to fan out into
+    @Modifying
+    @Query(value = "INSERT INTO feeds (user_id, updated_at) " +
+                   "SELECT :authorId, NOW() " +
+                   "UNION SELECT uf.friend_id, NOW() FROM user_friends uf WHERE uf.user_id = :authorId " +
+                   "ON CONFLICT (user_id) DO NOTHING",
+           nativeQuery = true)
+    int ensureFeeds(@Param("authorId") Long authorId);
+
+    @Modifying
+    @Query(value = "INSERT INTO feed_posts (feed_id, post_id) " +
+                   "SELECT f.id, :postId FROM feeds f " +
+                   "WHERE f.user_id = :authorId OR f.user_id IN (SELECT uf.friend_id FROM user_friends uf WHERE uf.user_id = :authorId) " +
+                   "ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int fanOut(@Param("authorId") Long authorId, @Param("postId") Long postId);
+
+    // Page of a user's feed, newest first; a backward scan of the (feed_id, post_id) primary key
+    @Query(value = "SELECT fp.post_id FROM feed_posts fp JOIN feeds f ON f.id = fp.feed_id " +
+                   "WHERE f.user_id = :userId AND fp.post_id < :before " +
+                   "ORDER BY fp.post_id DESC LIMIT :limit",
+           nativeQuery = true)
+    List<Long> findPostIds(@Param("userId") Long userId, @Param("before") Long before, @Param("limit") int limit);
+}
@@ -1,9 +1,12 @@
 package com.postgresql.MasChat.repository;
 
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import com.postgresql.MasChat.model.FriendRequest;
 import com.postgresql.MasChat.model.User;
 
@@ -17,4 +20,19 @@ public interface FriendRequestRepository extends JpaRepository<FriendRequest, Lo
     // Find requests between specific sender and receiver
     @Query("SELECT fr FROM FriendRequest fr WHERE fr.sender.id = :senderId AND fr.receiver.id = :receiverId")
     List<FriendRequest> findBySenderIdAndReceiverId(@Param("senderId") Long senderId, @Param("receiverId") Long receiverId);
-}
\ No newline at end of file
+
+    // Which of otherIds the user has a pending request out to, served by the (sender_id, receiver_id) unique constraint
+    @Query("SELECT fr.receiver.id FROM FriendRequest fr WHERE fr.sender.id = :userId AND fr.receiver.id IN :otherIds AND fr.status = 'PENDING'")
+    List<Long> findPendingReceiverIds(@Param("userId") Long userId, @Param("otherIds") Collection<Long> otherIds);
+
+    // Which of otherIds have a pending request out to the user, served by idx_friend_requests_receiver_sender
+    @Query("SELECT fr.sender.id FROM FriendRequest fr WHERE fr.receiver.id = :userId AND fr.sender.id IN :otherIds AND fr.status = 'PENDING'")
+    List<Long> findPendingSenderIds(@Param("userId") Long userId, @Param("otherIds") Collection<Long> otherIds);
+
+    // Requests either way between two users, so they can ask again after unfriending
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM FriendRequest fr WHERE (fr.sender.id = :userId AND fr.receiver.id = :otherId) " +
+           "OR (fr.sender.id = :otherId AND fr.receiver.id = :userId)")
+    int deleteBetween(@Param("userId") Long userId, @Param("otherId") Long otherId);
+}
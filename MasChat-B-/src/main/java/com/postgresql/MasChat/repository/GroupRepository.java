@@ -17,8 +17,12 @@ public interface GroupRepository extends JpaRepository<Group, Long> {
     @Query("SELECT g FROM Group g WHERE g.isPrivate = false")
     List<Group> findPublicGroups();
     
-    @Query("SELECT g FROM Group g WHERE g.name LIKE %:searchTerm% OR g.description LIKE %:searchTerm%")
-    List<Group> searchGroups(@Param("searchTerm") String searchTerm);
+    // Ranked full-text matches on name (weight A) and description (weight B)
+    @Query(value = "SELECT g.id FROM groups g, search_tsquery(:query) q " +
+                   "WHERE g.search_vector @@ q ORDER BY ts_rank_cd(g.search_vector, q) DESC, g.id DESC " +
+                   "LIMIT :limit OFFSET :offset",
+           nativeQuery = true)
+    List<Long> searchIds(@Param("query") String query, @Param("limit") int limit, @Param("offset") int offset);
     
     @Query("SELECT COUNT(g) FROM Group g JOIN g.groupMembers gm WHERE gm.user.id = :userId")
     Long countByMemberId(@Param("userId") Long userId);
@@ -0,0 +1,75 @@
+package com.postgresql.MasChat.repository;
+
+import com.postgresql.MasChat.model.InboxEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface InboxEntryRepository extends JpaRepository<InboxEntry, Long> {
+
+    // Inbox page for a user, served by idx_inbox_entries_user_last_message_at; partners are
+    // resolved through UserSummaryService rather than joined
+    @Query("SELECT e FROM InboxEntry e WHERE e.user.id = :userId ORDER BY e.lastMessageAt DESC")
+    List<InboxEntry> findInboxByUserId(@Param("userId") Long userId);
+
+    // Insert or refresh the conversation row, adding unreadIncrement and messageIncrement to its counters
+    @Modifying
+    @Query(value = "INSERT INTO inbox_entries (user_id, partner_id, chat_id, last_message_id, last_message_preview, last_message_at, unread_count, message_count) " +
+                   "VALUES (:userId, :partnerId, :chatId, :messageId, :preview, :sentAt, :unreadIncrement, :messageIncrement) " +
+                   "ON CONFLICT (user_id, partner_id) DO UPDATE SET " +
+                   "chat_id = EXCLUDED.chat_id, " +
+                   "last_message_id = EXCLUDED.last_message_id, " +
+                   "last_message_preview = EXCLUDED.last_message_preview, " +
+                   "last_message_at = EXCLUDED.last_message_at, " +
+                   "unread_count = inbox_entries.unread_count + EXCLUDED.unread_count, " +
+                   "message_count = inbox_entries.message_count + EXCLUDED.message_count",
+           nativeQuery = true)
+    void upsertLastMessage(@Param("userId") Long userId,
+                           @Param("partnerId") Long partnerId,
+                           @Param("chatId") Long chatId,
+                           @Param("messageId") Long messageId,
+                           @Param("preview") String preview,
+                           @Param("sentAt") LocalDateTime sentAt,
+                           @Param("unreadIncrement") long unreadIncrement,
+                           @Param("messageIncrement") long messageIncrement);
+
+    @Modifying
+    @Query("UPDATE InboxEntry e SET e.lastMessageId = :messageId, e.lastMessagePreview = :preview, e.lastMessageAt = :sentAt " +
+           "WHERE e.chat.id = :chatId AND e.lastMessageId = :replacedMessageId")
+    int replaceLastMessage(@Param("chatId") Long chatId,
+                           @Param("replacedMessageId") Long replacedMessageId,
+                           @Param("messageId") Long messageId,
+                           @Param("preview") String preview,
+                           @Param("sentAt") LocalDateTime sentAt);
+
+    // Row lock held until commit; a concurrent message upsert for this side waits behind it
+    @Query(value = "SELECT id FROM inbox_entries WHERE user_id = :userId AND partner_id = :partnerId FOR UPDATE", nativeQuery = true)
+    List<Long> lockEntry(@Param("userId") Long userId, @Param("partnerId") Long partnerId);
+
+    @Modifying
+    @Query("UPDATE InboxEntry e SET e.unreadCount = :unreadCount WHERE e.user.id = :userId AND e.partner.id = :partnerId")
+    int setUnread(@Param("userId") Long userId, @Param("partnerId") Long partnerId, @Param("unreadCount") long unreadCount);
+
+    @Modifying
+    @Query("UPDATE InboxEntry e SET e.unreadCount = e.unreadCount - 1 WHERE e.user.id = :userId AND e.partner.id = :partnerId AND e.unreadCount > 0")
+    int decrementUnread(@Param("userId") Long userId, @Param("partnerId") Long partnerId);
+
+    @Modifying
+    @Query("DELETE FROM InboxEntry e WHERE e.chat.id = :chatId")
+    int deleteByChatId(@Param("chatId") Long chatId);
+
+    @Modifying
+    @Query("DELETE FROM InboxEntry e WHERE e.user.id = :userId AND e.partner.id = :partnerId")
+    int deleteByUserIdAndPartnerId(@Param("userId") Long userId, @Param("partnerId") Long partnerId);
+
+    // Everyone the user has a conversation with, most messages first: (partner id, message count)
+    @Query("SELECT e.partner.id, e.messageCount FROM InboxEntry e WHERE e.user.id = :userId " +
+           "ORDER BY e.messageCount DESC, e.lastMessageAt DESC")
+    List<Object[]> findPartnerMessageCounts(@Param("userId") Long userId);
+}
@@ -25,6 +25,13 @@ public interface LikeRepository extends JpaRepository<Like, Long> {
     @Query("SELECT COUNT(l) FROM Like l WHERE l.post.user.id = :postUserId")
     long countByPostUserId(@Param("postUserId") Long postUserId);
     
+    // [commentId, likeCount] for each comment that has likes
+    @Query("SELECT l.comment.id, COUNT(l) FROM Like l WHERE l.comment.id IN :commentIds GROUP BY l.comment.id")
+    List<Object[]> countByCommentIds(@Param("commentIds") List<Long> commentIds);
+
+    @Query("SELECT l.comment.id FROM Like l WHERE l.user.id = :userId AND l.comment.id IN :commentIds")
+    List<Long> findLikedCommentIds(@Param("userId") Long userId, @Param("commentIds") List<Long> commentIds);
+
     // Find like by comment and user
     @Query("SELECT l FROM Like l WHERE l.comment = :comment AND l.user = :user")
     Like findByCommentAndUser(@Param("comment") Comment comment, @Param("user") User user);
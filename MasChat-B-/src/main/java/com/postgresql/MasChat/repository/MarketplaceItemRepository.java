@@ -24,6 +24,13 @@ public interface MarketplaceItemRepository extends JpaRepository<MarketplaceItem
     @Query("SELECT mi FROM MarketplaceItem mi LEFT JOIN FETCH mi.seller WHERE mi.status = :status")
     List<MarketplaceItem> findByStatusWithSeller(@Param("status") String status);
     
-    @Query("SELECT mi FROM MarketplaceItem mi LEFT JOIN FETCH mi.seller WHERE LOWER(mi.title) LIKE LOWER(CONCAT('%', :keyword, '%'))")
-    List<MarketplaceItem> findByTitleContainingIgnoreCaseWithSeller(@Param("keyword") String keyword);
+    // Ranked full-text matches on title (weight A) and description (weight B)
+    @Query(value = "SELECT mi.id FROM marketplace_items mi, search_tsquery(:query) q " +
+                   "WHERE mi.search_vector @@ q ORDER BY ts_rank_cd(mi.search_vector, q) DESC, mi.id DESC " +
+                   "LIMIT :limit OFFSET :offset",
+           nativeQuery = true)
+    List<Long> searchIds(@Param("query") String query, @Param("limit") int limit, @Param("offset") int offset);
+
+    @Query("SELECT mi FROM MarketplaceItem mi LEFT JOIN FETCH mi.seller WHERE mi.id IN :ids")
+    List<MarketplaceItem> findWithSellerByIdIn(@Param("ids") List<Long> ids);
 } 
\ No newline at end of file
@@ -1,26 +1,43 @@
 package com.postgresql.MasChat.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import com.postgresql.MasChat.model.Message;
-import com.postgresql.MasChat.model.User;
 
 public interface MessageRepository extends JpaRepository<Message, Long> {
-    List<Message> findBySenderAndRecipientOrSenderAndRecipientOrderBySentAt(
-        User sender1, User recipient1, User sender2, User recipient2
-    );
-    
-    // Get all messages for a user (sent or received)
-    @Query("SELECT m FROM Message m WHERE m.sender.id = :userId OR m.recipient.id = :userId ORDER BY m.sentAt DESC")
-    List<Message> findBySenderIdOrRecipientIdOrderBySentAtDesc(@Param("userId") Long userId);
-    
-    // Get messages between two users
-    @Query("SELECT m FROM Message m WHERE (m.sender.id = :userId1 AND m.recipient.id = :userId2) OR (m.sender.id = :userId2 AND m.recipient.id = :userId1) ORDER BY m.sentAt DESC")
-    List<Message> findConversationBetweenUsers(@Param("userId1") Long userId1, @Param("userId2") Long userId2);
+    // Newest page of a chat, served by idx_messages_chat_sent_at_id. Messages with an id up to
+    // clearedUpTo were cleared by the viewer and are skipped (pass 0 when nothing was cleared).
+    @Query("SELECT m FROM Message m WHERE m.chat.id = :chatId AND m.id > :clearedUpTo ORDER BY m.sentAt DESC, m.id DESC")
+    List<Message> findLatestByChatId(@Param("chatId") Long chatId, @Param("clearedUpTo") Long clearedUpTo, Pageable pageable);
+
+    // Keyset page of a chat strictly older than the (sentAt, id) cursor
+    @Query("SELECT m FROM Message m WHERE m.chat.id = :chatId AND m.id > :clearedUpTo AND (m.sentAt < :sentAt OR (m.sentAt = :sentAt AND m.id < :id)) ORDER BY m.sentAt DESC, m.id DESC")
+    List<Message> findByChatIdBefore(@Param("chatId") Long chatId, @Param("clearedUpTo") Long clearedUpTo, @Param("sentAt") LocalDateTime sentAt, @Param("id") Long id, Pageable pageable);
     
-    // Get unread messages from a specific sender to a recipient
-    @Query("SELECT m FROM Message m WHERE m.recipient.id = :recipientId AND m.sender.id = :senderId AND m.read = false")
-    List<Message> findByRecipientIdAndSenderIdAndReadFalse(@Param("recipientId") Long recipientId, @Param("senderId") Long senderId);
+    @Query("SELECT m.id FROM Message m WHERE m.chat.id = :chatId ORDER BY m.sentAt DESC, m.id DESC")
+    List<Long> findLatestIdByChatId(@Param("chatId") Long chatId, Pageable pageable);
+
+    // Flip everything up to the read watermark in one statement, served by idx_messages_unread
+    @Modifying
+    @Query("UPDATE Message m SET m.read = true WHERE m.chat.id = :chatId AND m.recipient.id = :recipientId AND m.read = false AND m.id <= :upToId")
+    int markReadUpTo(@Param("chatId") Long chatId, @Param("recipientId") Long recipientId, @Param("upToId") Long upToId);
+
+    // Unread means newer than the reader's watermark
+    @Query("SELECT COUNT(m) FROM Message m WHERE m.chat.id = :chatId AND m.recipient.id = :recipientId AND m.id > :watermark")
+    long countAfterWatermark(@Param("chatId") Long chatId, @Param("recipientId") Long recipientId, @Param("watermark") Long watermark);
+
+    @Query("SELECT MAX(m.id) FROM Message m WHERE m.chat.id = :chatId")
+    Long findMaxIdByChatId(@Param("chatId") Long chatId);
+
+    // One bounded chunk of a conversation delete; attachments go with it via ON DELETE CASCADE
+    @Modifying
+    @Query(value = "DELETE FROM messages WHERE id IN (" +
+                   "SELECT id FROM messages WHERE chat_id = :chatId AND id <= :upToId LIMIT :chunkSize)",
+           nativeQuery = true)
+    int deleteChunkByChatId(@Param("chatId") Long chatId, @Param("upToId") Long upToId, @Param("chunkSize") int chunkSize);
 }
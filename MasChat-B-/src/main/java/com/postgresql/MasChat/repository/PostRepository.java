@@ -1,6 +1,8 @@
 package com.postgresql.MasChat.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import com.postgresql.MasChat.model.Post;
@@ -9,8 +11,10 @@ import java.time.LocalDateTime;
 
 public interface PostRepository extends JpaRepository<Post, Long> {
     List<Post> findByUserId(Long userId);
-    List<Post> findByContentContainingIgnoreCase(String content);
     
+    @Query("SELECT p.user.id FROM Post p WHERE p.id = :postId")
+    Long findAuthorId(@Param("postId") Long postId);
+
     @Query("SELECT COUNT(p) FROM Post p WHERE p.user.id = :userId")
     long countByUserId(@Param("userId") Long userId);
     
@@ -28,4 +32,62 @@ public interface PostRepository extends JpaRepository<Post, Long> {
     
     @Query("SELECT p FROM Post p WHERE p.user.id = :userId AND DAYOFYEAR(p.createdAt) = :dayOfYear")
     List<Post> findByUserIdAndDayOfYear(@Param("userId") Long userId, @Param("dayOfYear") int dayOfYear);
-}
\ No newline at end of file
+
+    // Newest posts across the system, keyset-paged by id
+    @Query("SELECT p FROM Post p WHERE p.id < :before ORDER BY p.id DESC")
+    List<Post> findLatestBefore(@Param("before") Long before, Pageable pageable);
+
+    // Posts of the reader's high-fan-out friends, or the reader's own when they are one, which
+    // were never pushed into feed_posts
+    @Query(value = "SELECT p.id FROM posts p " +
+                   "WHERE p.fanout_on_read = TRUE AND p.id < :before " +
+                   "AND (p.user_id = :readerId " +
+                   "OR p.user_id IN (SELECT uf.friend_id FROM user_friends uf WHERE uf.user_id = :readerId)) " +
+                   "ORDER BY p.id DESC LIMIT :limit",
+           nativeQuery = true)
+    List<Long> findFanoutOnReadIds(@Param("readerId") Long readerId, @Param("before") Long before, @Param("limit") int limit);
+
+    // Ranking candidates: the newest pushed and fan-out-on-read posts of the reader's feed as
+    // (id, user_id, created_at, like_count, comment_count, media type 0 text / 1 image / 2 video)
+    @Query(value = "SELECT p.id, p.user_id, p.created_at, p.like_count, p.comment_count, " +
+                   "CASE WHEN p.video_url IS NOT NULL THEN 2 WHEN p.image_url IS NOT NULL THEN 1 ELSE 0 END " +
+                   "FROM posts p WHERE p.id IN (" +
+                   "  (SELECT fp.post_id FROM feed_posts fp JOIN feeds f ON f.id = fp.feed_id " +
+                   "   WHERE f.user_id = :readerId ORDER BY fp.post_id DESC LIMIT :limit) " +
+                   "  UNION ALL " +
+                   "  (SELECT fo.id FROM posts fo WHERE fo.fanout_on_read = TRUE " +
+                   "   AND (fo.user_id = :readerId " +
+                   "   OR fo.user_id IN (SELECT uf.friend_id FROM user_friends uf WHERE uf.user_id = :readerId)) " +
+                   "   ORDER BY fo.id DESC LIMIT :limit)) " +
+                   "ORDER BY p.id DESC LIMIT :limit",
+           nativeQuery = true)
+    List<Object[]> findFeedCandidates(@Param("readerId") Long readerId, @Param("limit") int limit);
+
+    // Like and unlike touch only post_likes; returns 1 when the state changed, 0 for a repeat
+    // request. like_count is moved by ReactionCounterBuffer, so hot posts don't lock their row.
+    @Modifying
+    @Query(value = "INSERT INTO post_likes (post_id, user_id) VALUES (:postId, :userId) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertLike(@Param("postId") Long postId, @Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = "DELETE FROM post_likes WHERE post_id = :postId AND user_id = :userId", nativeQuery = true)
+    int deleteLike(@Param("postId") Long postId, @Param("userId") Long userId);
+
+    @Query("SELECT p.likeCount FROM Post p WHERE p.id = :postId")
+    Integer findLikeCount(@Param("postId") Long postId);
+
+    @Modifying
+    @Query("UPDATE Post p SET p.commentCount = p.commentCount + 1 WHERE p.id = :postId")
+    int incrementCommentCount(@Param("postId") Long postId);
+
+    // Ranked full-text matches on search_vector (GIN); query is FullTextSearch.normalize input
+    @Query(value = "SELECT p.id FROM posts p, search_tsquery(:query) q " +
+                   "WHERE p.search_vector @@ q ORDER BY ts_rank_cd(p.search_vector, q) DESC, p.id DESC " +
+                   "LIMIT :limit OFFSET :offset",
+           nativeQuery = true)
+    List<Long> searchIds(@Param("query") String query, @Param("limit") int limit, @Param("offset") int offset);
+
+    // Which posts of a page the viewer has liked, in one round trip on the post_likes primary key
+    @Query(value = "SELECT post_id FROM post_likes WHERE user_id = :userId AND post_id IN (:postIds)", nativeQuery = true)
+    List<Long> findLikedPostIds(@Param("userId") Long userId, @Param("postIds") List<Long> postIds);
+}
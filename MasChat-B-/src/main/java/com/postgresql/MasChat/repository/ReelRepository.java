@@ -3,6 +3,7 @@ package com.postgresql.MasChat.repository;
 import com.postgresql.MasChat.model.Reel;
 import com.postgresql.MasChat.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import java.util.List;
@@ -11,7 +12,6 @@ import java.time.LocalDateTime;
 public interface ReelRepository extends JpaRepository<Reel, Long> {
     List<Reel> findByUser(User user);
     List<Reel> findByCreatedAtAfter(java.time.LocalDateTime since);
-    List<Reel> findByCaptionContainingIgnoreCase(String caption);
     
     @Query("SELECT COUNT(r) FROM Reel r WHERE r.user.id = :userId")
     long countByUserId(@Param("userId") Long userId);
@@ -27,4 +27,42 @@ public interface ReelRepository extends JpaRepository<Reel, Long> {
     
     @Query("SELECT r FROM Reel r WHERE r.user.id = :userId AND DAYOFYEAR(r.createdAt) = :dayOfYear")
     List<Reel> findByUserIdAndDayOfYear(@Param("userId") Long userId, @Param("dayOfYear") int dayOfYear);
+
+    @Modifying
+    @Query(value = "WITH ins AS (" +
+                   "INSERT INTO reel_likes (reel_id, user_id) VALUES (:reelId, :userId) ON CONFLICT DO NOTHING RETURNING reel_id) " +
+                   "UPDATE reels SET like_count = like_count + 1 WHERE id IN (SELECT reel_id FROM ins)",
+           nativeQuery = true)
+    int insertLike(@Param("reelId") Long reelId, @Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = "WITH del AS (" +
+                   "DELETE FROM reel_likes WHERE reel_id = :reelId AND user_id = :userId RETURNING reel_id) " +
+                   "UPDATE reels SET like_count = GREATEST(like_count - 1, 0) WHERE id IN (SELECT reel_id FROM del)",
+           nativeQuery = true)
+    int deleteLike(@Param("reelId") Long reelId, @Param("userId") Long userId);
+
+    @Query("SELECT r.likeCount FROM Reel r WHERE r.id = :reelId")
+    Integer findLikeCount(@Param("reelId") Long reelId);
+
+    @Modifying
+    @Query("UPDATE Reel r SET r.commentCount = r.commentCount + 1 WHERE r.id = :reelId")
+    int incrementCommentCount(@Param("reelId") Long reelId);
+
+    @Query(value = "SELECT r.id FROM reels r, search_tsquery(:query) q " +
+                   "WHERE r.search_vector @@ q ORDER BY ts_rank_cd(r.search_vector, q) DESC, r.id DESC " +
+                   "LIMIT :limit OFFSET :offset",
+           nativeQuery = true)
+    List<Long> searchIds(@Param("query") String query, @Param("limit") int limit, @Param("offset") int offset);
+
+    // Ranking candidates: recent reels of the reader and their friends as
+    // (id, user_id, created_at, like_count, comment_count)
+    @Query(value = "SELECT r.id, r.user_id, r.created_at, r.like_count, r.comment_count FROM reels r " +
+                   "WHERE (r.user_id = :readerId OR r.user_id IN (SELECT uf.friend_id FROM user_friends uf WHERE uf.user_id = :readerId)) " +
+                   "AND r.created_at >= :since ORDER BY r.id DESC LIMIT :limit",
+           nativeQuery = true)
+    List<Object[]> findFeedCandidates(@Param("readerId") Long readerId, @Param("since") LocalDateTime since, @Param("limit") int limit);
+
+    @Query(value = "SELECT reel_id FROM reel_likes WHERE user_id = :userId AND reel_id IN (:reelIds)", nativeQuery = true)
+    List<Long> findLikedReelIds(@Param("userId") Long userId, @Param("reelIds") List<Long> reelIds);
 } 
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.postgresql.MasChat.repository;
 import com.postgresql.MasChat.model.Story;
 import com.postgresql.MasChat.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import java.util.List;
@@ -12,6 +13,9 @@ public interface StoryRepository extends JpaRepository<Story, Long> {
     List<Story> findByUser(User user);
     List<Story> findByCreatedAtAfter(java.time.LocalDateTime since);
     
+    @Query("SELECT s.user.id FROM Story s WHERE s.id = :storyId")
+    Long findOwnerId(@Param("storyId") Long storyId);
+
     @Query("SELECT COUNT(s) FROM Story s WHERE s.user.id = :userId")
     long countByUserId(@Param("userId") Long userId);
     
@@ -26,4 +30,24 @@ public interface StoryRepository extends JpaRepository<Story, Long> {
     
     @Query("SELECT s FROM Story s WHERE s.user.id = :userId AND DAYOFYEAR(s.createdAt) = :dayOfYear")
     List<Story> findByUserIdAndDayOfYear(@Param("userId") Long userId, @Param("dayOfYear") int dayOfYear);
+
+    @Modifying
+    @Query(value = "WITH ins AS (" +
+                   "INSERT INTO story_likes (story_id, user_id) VALUES (:storyId, :userId) ON CONFLICT DO NOTHING RETURNING story_id) " +
+                   "UPDATE stories SET like_count = like_count + 1 WHERE id IN (SELECT story_id FROM ins)",
+           nativeQuery = true)
+    int insertLike(@Param("storyId") Long storyId, @Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = "WITH del AS (" +
+                   "DELETE FROM story_likes WHERE story_id = :storyId AND user_id = :userId RETURNING story_id) " +
+                   "UPDATE stories SET like_count = GREATEST(like_count - 1, 0) WHERE id IN (SELECT story_id FROM del)",
+           nativeQuery = true)
+    int deleteLike(@Param("storyId") Long storyId, @Param("userId") Long userId);
+
+    @Query("SELECT s.likeCount FROM Story s WHERE s.id = :storyId")
+    Integer findLikeCount(@Param("storyId") Long storyId);
+
+    @Query(value = "SELECT story_id FROM story_likes WHERE user_id = :userId AND story_id IN (:storyIds)", nativeQuery = true)
+    List<Long> findLikedStoryIds(@Param("userId") Long userId, @Param("storyIds") List<Long> storyIds);
 } 
\ No newline at end of file
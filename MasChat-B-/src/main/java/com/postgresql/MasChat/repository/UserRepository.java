@@ -1,5 +1,6 @@
 package com.postgresql.MasChat.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -7,6 +8,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import com.postgresql.MasChat.dto.UserSummaryDTO;
 import com.postgresql.MasChat.model.User;
 
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -19,7 +21,58 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // Search users by username or fullname
     @Query("SELECT u FROM User u WHERE LOWER(u.username) LIKE LOWER(CONCAT('%', :query, '%')) OR LOWER(u.fullName) LIKE LOWER(CONCAT('%', :query, '%'))")
     List<User> findByUsernameContainingIgnoreCaseOrFullNameContainingIgnoreCase(@Param("query") String query, @Param("query") String query2);
-    
-    // findById is inherited from JpaRepository and used for online status updates in WebSocketEventListener
-}
 
+    // Ranked full-text matches on username (weight A) and full name (weight B)
+    @Query(value = "SELECT u.id FROM users u, search_tsquery(:query) q " +
+                   "WHERE u.search_vector @@ q ORDER BY ts_rank_cd(u.search_vector, q) DESC, u.id DESC " +
+                   "LIMIT :limit OFFSET :offset",
+           nativeQuery = true)
+    List<Long> searchIds(@Param("query") String query, @Param("limit") int limit, @Param("offset") int offset);
+
+    // Summary columns only, for UserSummaryService
+    @Query("SELECT new com.postgresql.MasChat.dto.UserSummaryDTO(u.id, u.username, u.fullName, u.profilePicture, u.verified) " +
+           "FROM User u WHERE u.id IN :ids")
+    List<UserSummaryDTO> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Friend suggestion candidates for a user: friends of friends (one row per mutual friend),
+    // members of the user's groups (one per shared group) and, for users with neither, the newest
+    // accounts. Each hop reads at most :fanout rows per friend or group. Friends and anyone with a
+    // friend request either way are left out. Columns: id, mutual_count, shared_groups, same_city.
+    @Query(value = "WITH my_friends AS (" +
+                   "    SELECT friend_id AS id FROM user_friends WHERE user_id = :userId LIMIT :fanout" +
+                   "), my_groups AS (" +
+                   "    SELECT group_id FROM group_members WHERE user_id = :userId AND is_active = TRUE LIMIT :fanout" +
+                   "), reached AS (" +
+                   "    SELECT fof.friend_id AS id, 1 AS mutual, 0 AS shared FROM my_friends f " +
+                   "    CROSS JOIN LATERAL (SELECT friend_id FROM user_friends WHERE user_id = f.id LIMIT :fanout) fof " +
+                   "    UNION ALL " +
+                   "    SELECT gm.user_id, 0, 1 FROM my_groups g " +
+                   "    CROSS JOIN LATERAL (SELECT user_id FROM group_members WHERE group_id = g.group_id AND is_active = TRUE LIMIT :fanout) gm " +
+                   "    UNION ALL " +
+                   "    SELECT id, 0, 0 FROM (SELECT id FROM users ORDER BY id DESC LIMIT :newestLimit) newest" +
+                   "), candidates AS (" +
+                   "    SELECT id, SUM(mutual) AS mutual_count, SUM(shared) AS shared_groups FROM reached GROUP BY id" +
+                   "), scored AS (" +
+                   "    SELECT c.id, c.mutual_count, c.shared_groups, " +
+                   "           CASE WHEN NULLIF(me.current_city, '') IS NOT NULL AND LOWER(d.current_city) = LOWER(me.current_city) THEN 1 ELSE 0 END AS same_city " +
+                   "    FROM candidates c " +
+                   "    JOIN users u ON u.id = c.id " +
+                   "    LEFT JOIN user_details d ON d.id = u.details_id " +
+                   "    LEFT JOIN (SELECT ud.current_city FROM users mu JOIN user_details ud ON ud.id = mu.details_id WHERE mu.id = :userId) me ON TRUE " +
+                   "    WHERE c.id <> :userId " +
+                   "      AND NOT EXISTS (SELECT 1 FROM user_friends x WHERE x.user_id = :userId AND x.friend_id = c.id) " +
+                   "      AND NOT EXISTS (SELECT 1 FROM friend_requests fr WHERE fr.sender_id = :userId AND fr.receiver_id = c.id) " +
+                   "      AND NOT EXISTS (SELECT 1 FROM friend_requests fr WHERE fr.sender_id = c.id AND fr.receiver_id = :userId)" +
+                   ") " +
+                   "SELECT id, mutual_count, shared_groups, same_city FROM scored " +
+                   "ORDER BY mutual_count * :mutualWeight + shared_groups * :groupWeight + same_city * :cityWeight DESC, id DESC " +
+                   "LIMIT :limit",
+           nativeQuery = true)
+    List<Object[]> findFriendSuggestions(@Param("userId") Long userId,
+                                         @Param("fanout") int fanout,
+                                         @Param("newestLimit") int newestLimit,
+                                         @Param("mutualWeight") double mutualWeight,
+                                         @Param("groupWeight") double groupWeight,
+                                         @Param("cityWeight") double cityWeight,
+                                         @Param("limit") int limit);
+}
@@ -37,7 +37,7 @@ public class SecurityConfig {
                 .requestMatchers("/api/health/**").permitAll()
                 .requestMatchers("/api/auth/**", "/api/auth/test", "/api/auth/test-token").permitAll()
                 .requestMatchers("/api/test/**").permitAll()
-                .requestMatchers("/ws-chat/**").permitAll()
+                .requestMatchers("/ws-chat/**", "/ws-chat-native").permitAll()
                 .requestMatchers("/uploads/**").permitAll()
                 .requestMatchers("/api/users/*/avatar", "/api/users/*/avatar/picture", "/api/users/*/profile/picture", "/api/users/*/cover/photo").permitAll()
                 .requestMatchers("/api/marketplace/upload-image").permitAll()
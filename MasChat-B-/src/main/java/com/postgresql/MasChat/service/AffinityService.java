@@ -0,0 +1,252 @@
+package com.postgresql.MasChat.service;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+
+// Decayed interaction scores of a user towards the people they message, like, comment on, tip
+// and whose stories they view. An event adds its weight times 2^(time since EPOCH / half-life),
+// so stored scores never have to be decayed in place: one user's scores keep their order as time
+// passes, and dividing by the same factor for now gives current values in event units. Events
+// are summed in memory per pair and added to user_affinities every affinity.flush-interval-ms in
+// one upsert; a crash loses at most the unflushed interval.
+@Service
+public class AffinityService {
+    private static final Logger logger = LoggerFactory.getLogger(AffinityService.class);
+
+    // Both are baked into the stored scores and the V17 backfill
+    private static final long EPOCH_MILLIS = 1_735_689_600_000L; // 2025-01-01T00:00:00Z
+    private static final double HALF_LIFE_MILLIS = 14 * 24 * 3_600_000.0;
+
+    public enum Interaction {
+        MESSAGE_SENT(1.0),
+        MESSAGE_RECEIVED(0.5),
+        LIKE(1.0),
+        COMMENT(2.0),
+        TIP(3.0),
+        STORY_VIEW(0.5);
+
+        private final double weight;
+
+        Interaction(double weight) {
+            this.weight = weight;
+        }
+
+        public double weight() {
+            return weight;
+        }
+    }
+
+    // Pairs whose users were deleted meanwhile are skipped by the joins
+    private static final String FLUSH_SQL =
+        "INSERT INTO user_affinities (user_id, target_id, score, updated_at) " +
+        "SELECT d.user_id, d.target_id, d.score, NOW() " +
+        "FROM unnest(?::bigint[], ?::bigint[], ?::float8[]) AS d(user_id, target_id, score) " +
+        "JOIN users u ON u.id = d.user_id JOIN users t ON t.id = d.target_id " +
+        "ON CONFLICT (user_id, target_id) DO UPDATE SET " +
+        "score = user_affinities.score + EXCLUDED.score, updated_at = EXCLUDED.updated_at";
+    private static final String TOP_SQL =
+        "SELECT target_id, score FROM user_affinities WHERE user_id = ? ORDER BY score DESC LIMIT ?";
+    private static final String SCORES_SQL =
+        "SELECT target_id, score FROM user_affinities WHERE user_id = ? AND target_id = ANY(?)";
+    private static final String PRUNE_SQL = "DELETE FROM user_affinities WHERE score < ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${affinity.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+    @Value("${affinity.prune-below:0.01}")
+    private double pruneBelow;
+
+    // user id -> target id -> scaled score not yet written. Generations rotate as in
+    // ReactionCounterBuffer so an add racing the swap still lands before its adder is read.
+    private volatile Map<Long, Map<Long, DoubleAdder>> current = new ConcurrentHashMap<>();
+    private volatile Map<Long, Map<Long, DoubleAdder>> sealed = new ConcurrentHashMap<>();
+    private volatile Map<Long, Map<Long, DoubleAdder>> writing = Map.of();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "affinity-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (pruneBelow > 0) {
+            try {
+                int pruned = jdbcTemplate.update(PRUNE_SQL, pruneBelow * growth(System.currentTimeMillis()));
+                if (pruned > 0) {
+                    logger.info("Pruned {} decayed affinity scores", pruned);
+                }
+            } catch (Exception e) {
+                logger.warn("Affinity pruning failed: {}", e.getMessage());
+            }
+        }
+        flusher.scheduleWithFixedDelay(this::flushSafely, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    // userId did something towards targetId; self-interactions are ignored. Inside a transaction
+    // the event only counts once it commits, so a rolled-back like, comment, tip or message never
+    // moves the ranking.
+    public void record(Long userId, Long targetId, Interaction interaction) {
+        if (userId == null || targetId == null || userId.equals(targetId)) {
+            return;
+        }
+        TxCallbacks.afterCommit(() -> add(current, userId, targetId, interaction.weight() * growth(System.currentTimeMillis())));
+    }
+
+    public void recordMessage(Long senderId, Long recipientId) {
+        record(senderId, recipientId, Interaction.MESSAGE_SENT);
+        record(recipientId, senderId, Interaction.MESSAGE_RECEIVED);
+    }
+
+    // Current scores of the user's strongest pairs, highest first
+    public Map<Long, Double> topScores(Long userId, int limit) {
+        Map<Long, Double> scaled = new HashMap<>();
+        jdbcTemplate.query(TOP_SQL, (RowCallbackHandler) rs -> scaled.put(rs.getLong(1), rs.getDouble(2)), userId, limit);
+        addPending(userId, scaled);
+        double now = growth(System.currentTimeMillis());
+        Map<Long, Double> top = new LinkedHashMap<>();
+        scaled.entrySet().stream()
+            .sorted(Map.Entry.<Long, Double>comparingByValue().reversed())
+            .limit(limit)
+            .forEach(e -> top.put(e.getKey(), e.getValue() / now));
+        return top;
+    }
+
+    // Current scores towards the given targets; targets without any interaction are left out
+    public Map<Long, Double> scores(Long userId, Collection<Long> targetIds) {
+        Map<Long, Double> scaled = new HashMap<>();
+        if (targetIds.isEmpty()) {
+            return scaled;
+        }
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SCORES_SQL);
+            Array ids = con.createArrayOf("bigint", targetIds.toArray());
+            ps.setLong(1, userId);
+            ps.setArray(2, ids);
+            return ps;
+        }, (RowCallbackHandler) rs -> scaled.put(rs.getLong(1), rs.getDouble(2)));
+        Map<Long, Double> pending = new HashMap<>();
+        addPending(userId, pending);
+        pending.forEach((targetId, value) -> {
+            if (targetIds.contains(targetId)) {
+                scaled.merge(targetId, value, Double::sum);
+            }
+        });
+        double now = growth(System.currentTimeMillis());
+        scaled.replaceAll((targetId, value) -> value / now);
+        return scaled;
+    }
+
+    private void addPending(Long userId, Map<Long, Double> into) {
+        for (Map<Long, Map<Long, DoubleAdder>> generation : List.of(current, sealed, writing)) {
+            Map<Long, DoubleAdder> targets = generation.get(userId);
+            if (targets != null) {
+                targets.forEach((targetId, adder) -> into.merge(targetId, adder.sum(), Double::sum));
+            }
+        }
+    }
+
+    private static double growth(long millis) {
+        return Math.pow(2, (millis - EPOCH_MILLIS) / HALF_LIFE_MILLIS);
+    }
+
+    private static void add(Map<Long, Map<Long, DoubleAdder>> deltas, Long userId, Long targetId, double value) {
+        Map<Long, DoubleAdder> targets = deltas.get(userId);
+        if (targets == null) {
+            targets = deltas.computeIfAbsent(userId, id -> new ConcurrentHashMap<>());
+        }
+        DoubleAdder adder = targets.get(targetId);
+        if (adder == null) {
+            adder = targets.computeIfAbsent(targetId, id -> new DoubleAdder());
+        }
+        adder.add(value);
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.warn("Affinity flush failed: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void flush() {
+        Map<Long, Map<Long, DoubleAdder>> deltas = sealed;
+        writing = deltas;
+        sealed = current;
+        current = new ConcurrentHashMap<>();
+        try {
+            write(deltas);
+        } finally {
+            writing = Map.of();
+        }
+    }
+
+    private void write(Map<Long, Map<Long, DoubleAdder>> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Long> userIds = new ArrayList<>();
+        List<Long> targetIds = new ArrayList<>();
+        List<Double> values = new ArrayList<>();
+        deltas.forEach((userId, targets) -> targets.forEach((targetId, adder) -> {
+            userIds.add(userId);
+            targetIds.add(targetId);
+            values.add(adder.sum());
+        }));
+        try {
+            jdbcTemplate.update(FLUSH_SQL, ps -> {
+                ps.setArray(1, ps.getConnection().createArrayOf("bigint", userIds.toArray()));
+                ps.setArray(2, ps.getConnection().createArrayOf("bigint", targetIds.toArray()));
+                ps.setArray(3, ps.getConnection().createArrayOf("float8", values.toArray()));
+            });
+        } catch (RuntimeException e) {
+            // Carry the scores over to the next flush rather than dropping them
+            for (int i = 0; i < userIds.size(); i++) {
+                add(current, userIds.get(i), targetIds.get(i), values.get(i));
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Two flushes write out both the sealed and the current generation
+        try {
+            flush();
+            flush();
+        } catch (Exception e) {
+            logger.warn("Final affinity flush failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.postgresql.MasChat.service;
+
+import java.awt.image.BufferedImage;
+
+// BlurHash encoder (https://blurha.sh): a few DCT components of an image packed into a short
+// base83 string that clients decode into a blurred placeholder. Feed it a small image; the cost
+// is pixels * components.
+public final class Blurhash {
+    private static final String BASE83 =
+        "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+
+    private Blurhash() {}
+
+    public static String encode(BufferedImage image, int componentsX, int componentsY) {
+        if (componentsX < 1 || componentsX > 9 || componentsY < 1 || componentsY > 9) {
+            throw new IllegalArgumentException("Blurhash components must be between 1 and 9");
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] rgb = image.getRGB(0, 0, width, height, null, 0, width);
+        float[] linearR = new float[rgb.length];
+        float[] linearG = new float[rgb.length];
+        float[] linearB = new float[rgb.length];
+        for (int p = 0; p < rgb.length; p++) {
+            linearR[p] = srgbToLinear((rgb[p] >> 16) & 0xff);
+            linearG[p] = srgbToLinear((rgb[p] >> 8) & 0xff);
+            linearB[p] = srgbToLinear(rgb[p] & 0xff);
+        }
+
+        float[][] factors = new float[componentsX * componentsY][3];
+        float[] cosX = new float[width];
+        float[] cosY = new float[height];
+        for (int j = 0; j < componentsY; j++) {
+            for (int y = 0; y < height; y++) {
+                cosY[y] = (float) Math.cos(Math.PI * j * y / height);
+            }
+            for (int i = 0; i < componentsX; i++) {
+                for (int x = 0; x < width; x++) {
+                    cosX[x] = (float) Math.cos(Math.PI * i * x / width);
+                }
+                float r = 0, g = 0, b = 0;
+                for (int y = 0; y < height; y++) {
+                    int row = y * width;
+                    for (int x = 0; x < width; x++) {
+                        float basis = cosX[x] * cosY[y];
+                        r += basis * linearR[row + x];
+                        g += basis * linearG[row + x];
+                        b += basis * linearB[row + x];
+                    }
+                }
+                float scale = (i == 0 && j == 0 ? 1f : 2f) / (width * height);
+                float[] factor = factors[j * componentsX + i];
+                factor[0] = r * scale;
+                factor[1] = g * scale;
+                factor[2] = b * scale;
+            }
+        }
+
+        StringBuilder hash = new StringBuilder(4 + 2 * factors.length);
+        encode83(hash, (componentsX - 1) + (componentsY - 1) * 9, 1);
+        float maximumValue = 1f;
+        if (factors.length > 1) {
+            float actualMaximum = 0f;
+            for (int k = 1; k < factors.length; k++) {
+                for (float component : factors[k]) {
+                    actualMaximum = Math.max(actualMaximum, Math.abs(component));
+                }
+            }
+            int quantisedMaximum = (int) Math.max(0, Math.min(82, Math.floor(actualMaximum * 166 - 0.5)));
+            maximumValue = (quantisedMaximum + 1) / 166f;
+            encode83(hash, quantisedMaximum, 1);
+        } else {
+            encode83(hash, 0, 1);
+        }
+        float[] dc = factors[0];
+        encode83(hash, (linearToSrgb(dc[0]) << 16) + (linearToSrgb(dc[1]) << 8) + linearToSrgb(dc[2]), 4);
+        for (int k = 1; k < factors.length; k++) {
+            float[] ac = factors[k];
+            encode83(hash, quantiseAc(ac[0], maximumValue) * 19 * 19
+                + quantiseAc(ac[1], maximumValue) * 19
+                + quantiseAc(ac[2], maximumValue), 2);
+        }
+        return hash.toString();
+    }
+
+    private static int quantiseAc(float value, float maximumValue) {
+        double v = value / maximumValue;
+        double signPow = Math.copySign(Math.pow(Math.abs(v), 0.5), v);
+        return (int) Math.max(0, Math.min(18, Math.floor(signPow * 9 + 9.5)));
+    }
+
+    private static float srgbToLinear(int value) {
+        float v = value / 255f;
+        return v <= 0.04045f ? v / 12.92f : (float) Math.pow((v + 0.055f) / 1.055f, 2.4f);
+    }
+
+    private static int linearToSrgb(float value) {
+        float v = Math.max(0f, Math.min(1f, value));
+        return v <= 0.0031308f
+            ? (int) (v * 12.92f * 255 + 0.5f)
+            : (int) ((1.055f * Math.pow(v, 1 / 2.4f) - 0.055f) * 255 + 0.5f);
+    }
+
+    private static void encode83(StringBuilder out, int value, int length) {
+        for (int i = 1; i <= length; i++) {
+            int digit = (int) (value / (long) Math.pow(83, length - i) % 83);
+            out.append(BASE83.charAt(digit));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.postgresql.MasChat.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.postgresql.MasChat.repository.ChatRepository;
+
+// Resolves the chat for a pair of users. Chats are stored canonically (user1 < user2),
+// so the pair maps to exactly one row and a hot pair costs no database reads.
+@Service
+public class ChatLookupService {
+    @Autowired
+    private ChatRepository chatRepository;
+
+    private final Map<PairKey, Long> chatIds;
+
+    public ChatLookupService(@Value("${chat.lookup-cache.max-size:10000}") int maxSize) {
+        this.chatIds = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PairKey, Long> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    @Transactional
+    public Long resolveChatId(Long userIdA, Long userIdB) {
+        PairKey key = PairKey.of(userIdA, userIdB);
+        Long cached;
+        synchronized (chatIds) {
+            cached = chatIds.get(key);
+        }
+        if (cached != null) {
+            return cached;
+        }
+
+        // Insert-or-fetch in one statement; concurrent first contacts converge on the same row
+        Long chatId = chatRepository.upsertChatId(key.low(), key.high());
+        cacheAfterCommit(key, chatId);
+        return chatId;
+    }
+
+    // Lookup without creating the chat, for read paths
+    public Optional<Long> findChatId(Long userIdA, Long userIdB) {
+        PairKey key = PairKey.of(userIdA, userIdB);
+        Long cached;
+        synchronized (chatIds) {
+            cached = chatIds.get(key);
+        }
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Optional<Long> chatId = chatRepository.findIdByCanonicalPair(key.low(), key.high());
+        chatId.ifPresent(id -> {
+            synchronized (chatIds) {
+                chatIds.put(key, id);
+            }
+        });
+        return chatId;
+    }
+
+    public void evict(Long userIdA, Long userIdB) {
+        synchronized (chatIds) {
+            chatIds.remove(PairKey.of(userIdA, userIdB));
+        }
+    }
+
+    public void clear() {
+        synchronized (chatIds) {
+            chatIds.clear();
+        }
+    }
+
+    // A chat created by a transaction that later rolls back must not be served from the cache
+    private void cacheAfterCommit(PairKey key, Long chatId) {
+        TxCallbacks.afterCommit(() -> {
+            synchronized (chatIds) {
+                chatIds.put(key, chatId);
+            }
+        });
+    }
+
+    private record PairKey(long low, long high) {
+        static PairKey of(Long a, Long b) {
+            return a <= b ? new PairKey(a, b) : new PairKey(b, a);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.postgresql.MasChat.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import com.postgresql.MasChat.dto.ChatSignal;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Typing / recording / seen signals. Nothing here touches the database: signals are rate-limited
+// per session, then throttled per (sender, recipient, lane) so the recipient gets the first signal
+// at once and after that at most one per chat.signal.interval-ms. Typing, stopped-typing and
+// recording share a lane where the latest state wins; SEEN has its own lane where the highest
+// message id wins, so activity never hides a read position and vice versa.
+@Service
+public class ChatSignalService {
+    private static final Logger logger = LoggerFactory.getLogger(ChatSignalService.class);
+    private static final String SIGNAL_QUEUE = "/queue/signals";
+
+    @Autowired
+    private RealtimeEventPublisher realtimeEventPublisher;
+
+    @Value("${chat.signal.interval-ms:300}")
+    private long intervalMs;
+    @Value("${chat.signal.rate-per-second:10}")
+    private double ratePerSecond;
+    @Value("${chat.signal.burst:20}")
+    private double burst;
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, Slot> slots = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "chat-signal");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::evictIdleSlots, 1, 1, TimeUnit.MINUTES);
+    }
+
+    // Returns false when the session is over its rate limit and the signal was dropped
+    public boolean submit(String sessionId, ChatSignal signal) {
+        if (sessionId != null && !buckets.computeIfAbsent(sessionId, id -> new TokenBucket(burst)).tryTake(ratePerSecond, burst)) {
+            return false;
+        }
+        signal.setSentAt(System.currentTimeMillis());
+        boolean seen = signal.getType() == ChatSignal.Type.SEEN;
+        Slot slot = slots.computeIfAbsent(signal.getSenderId() + "\n" + signal.getRecipientId() + (seen ? "\nseen" : "\nactivity"),
+            key -> new Slot());
+        long now = System.currentTimeMillis();
+        synchronized (slot) {
+            if (!slot.scheduled && now >= slot.nextAllowedAt) {
+                slot.nextAllowedAt = now + intervalMs;
+                deliver(signal);
+                return true;
+            }
+            // A newer state replaces whatever is still waiting; a SEEN never moves back
+            if (!seen || slot.latest == null || isAfter(signal.getMessageId(), slot.latest.getMessageId())) {
+                slot.latest = signal;
+            }
+            if (!slot.scheduled) {
+                slot.scheduled = true;
+                scheduler.schedule(() -> flush(slot), slot.nextAllowedAt - now, TimeUnit.MILLISECONDS);
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAfter(Long messageId, Long pendingId) {
+        return pendingId == null || (messageId != null && messageId > pendingId);
+    }
+
+    private void flush(Slot slot) {
+        ChatSignal signal;
+        synchronized (slot) {
+            signal = slot.latest;
+            slot.latest = null;
+            slot.scheduled = false;
+            slot.nextAllowedAt = System.currentTimeMillis() + intervalMs;
+        }
+        if (signal != null) {
+            deliver(signal);
+        }
+    }
+
+    private void deliver(ChatSignal signal) {
+        try {
+            realtimeEventPublisher.sendToUsers(SIGNAL_QUEUE, signal, Long.valueOf(signal.getRecipientId()));
+        } catch (Exception e) {
+            // Signals are best effort
+            logger.warn("Failed to deliver chat signal: {}", e.getMessage());
+        }
+    }
+
+    @EventListener
+    public void handleSessionDisconnect(SessionDisconnectEvent event) {
+        buckets.remove(event.getSessionId());
+    }
+
+    private void evictIdleSlots() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(1);
+        slots.entrySet().removeIf(entry -> {
+            Slot slot = entry.getValue();
+            synchronized (slot) {
+                return !slot.scheduled && slot.nextAllowedAt < cutoff;
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private static class Slot {
+        private ChatSignal latest;
+        private boolean scheduled;
+        private long nextAllowedAt;
+    }
+
+    private static class TokenBucket {
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+
+        TokenBucket(double tokens) {
+            this.tokens = tokens;
+        }
+
+        synchronized boolean tryTake(double ratePerSecond, double capacity) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - refilledAt) / 1_000_000_000.0 * ratePerSecond);
+            refilledAt = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+    }
+}
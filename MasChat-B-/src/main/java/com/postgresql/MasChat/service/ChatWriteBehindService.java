@@ -0,0 +1,303 @@
+package com.postgresql.MasChat.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.postgresql.MasChat.dto.MessageDTO;
+
+import jakarta.annotation.PreDestroy;
+
+// Opt-in write-behind for STOMP chat messages (chat.write-behind.enabled). Messages take their id
+// from the messages sequence when submitted, so ids keep the send order that read watermarks and
+// history clears rely on, are delivered right away and persisted by a single writer thread in
+// JDBC batches. Whatever is still queued at shutdown and cannot be
+// written is appended to a local spill file, which is replayed on the next start.
+@Service
+public class ChatWriteBehindService {
+    private static final Logger logger = LoggerFactory.getLogger(ChatWriteBehindService.class);
+
+    private static final String INSERT_SQL =
+        "INSERT INTO messages (id, sender_id, recipient_id, chat_id, content, image, sent_at, read, created_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, FALSE, ?) ON CONFLICT (id) DO NOTHING";
+    private static final String NEXT_ID_SQL = "SELECT nextval(pg_get_serial_sequence('messages', 'id'))";
+    private static final long RETRY_DELAY_MS = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ChatLookupService chatLookupService;
+    @Autowired
+    private AffinityService affinityService;
+    @Autowired
+    private InboxService inboxService;
+
+    @Value("${chat.write-behind.enabled:false}")
+    private boolean enabled;
+    @Value("${chat.write-behind.batch-size:200}")
+    private int batchSize;
+    @Value("${chat.write-behind.flush-interval-ms:50}")
+    private long flushIntervalMs;
+    @Value("${chat.write-behind.offer-timeout-ms:100}")
+    private long offerTimeoutMs;
+    @Value("${chat.write-behind.spill-file:data/chat-write-behind.spill}")
+    private String spillFile;
+
+    private final BlockingQueue<MessageDTO> queue;
+    private volatile boolean running;
+    private Thread writer;
+
+    public ChatWriteBehindService(@Value("${chat.write-behind.queue-capacity:10000}") int queueCapacity) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        // Replay even when the mode has since been switched off, so spilled messages are not lost
+        replaySpillFile();
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::runWriter, "chat-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+        logger.info("Chat write-behind enabled: batch size {}, flush interval {} ms, queue capacity {}",
+            batchSize, flushIntervalMs, queue.remainingCapacity());
+    }
+
+    // Builds the message and queues it for persistence. Blocks up to offer-timeout-ms when the
+    // queue is full, then returns null so the caller can persist the message synchronously.
+    public MessageDTO submit(Long senderId, Long recipientId, String content) {
+        if (!running) {
+            throw new IllegalStateException("Chat write-behind is not running");
+        }
+        MessageDTO message = new MessageDTO();
+        message.setId(allocateId());
+        message.setChatId(chatLookupService.resolveChatId(senderId, recipientId));
+        message.setSender(new MessageDTO.Participant(senderId));
+        message.setRecipient(new MessageDTO.Participant(recipientId));
+        message.setContent(content);
+        message.setSentAt(LocalDateTime.now());
+
+        try {
+            if (!queue.offer(message, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing chat message");
+        }
+        affinityService.recordMessage(senderId, recipientId);
+        return message;
+    }
+
+    // One nextval per message, shared with the synchronous paths and other nodes: an id taken
+    // from a block reserved earlier would sort below messages sent after it
+    private long allocateId() {
+        return jdbcTemplate.queryForObject(NEXT_ID_SQL, Long.class);
+    }
+
+    private void runWriter() {
+        List<MessageDTO> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                MessageDTO first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    MessageDTO next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (!batch.isEmpty()) {
+                flushWithRetry(batch);
+                batch.clear();
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+        }
+    }
+
+    private void flushWithRetry(List<MessageDTO> batch) {
+        while (true) {
+            try {
+                flush(batch);
+                return;
+            } catch (DataIntegrityViolationException e) {
+                // One bad row (e.g. an unknown user id) must not hold back the rest of the batch
+                flushIndividually(batch);
+                return;
+            } catch (Exception e) {
+                if (!running) {
+                    logger.error("Chat write-behind flush failed during shutdown, spilling {} messages", batch.size(), e);
+                    spill(batch);
+                    return;
+                }
+                logger.warn("Chat write-behind flush of {} messages failed, retrying: {}", batch.size(), e.getMessage());
+                try {
+                    Thread.sleep(RETRY_DELAY_MS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    spill(batch);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void flushIndividually(List<MessageDTO> batch) {
+        for (MessageDTO message : batch) {
+            try {
+                flush(List.of(message));
+            } catch (DataIntegrityViolationException e) {
+                logger.error("Dropping chat message {} that cannot be persisted: {}", message.getId(), e.getMessage());
+            } catch (Exception e) {
+                logger.error("Chat write-behind flush of message {} failed, spilling", message.getId(), e);
+                spill(List.of(message));
+            }
+        }
+    }
+
+    private void flush(List<MessageDTO> batch) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            int[][] counts = jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, message) -> {
+                Timestamp sentAt = Timestamp.valueOf(message.getSentAt());
+                ps.setLong(1, message.getId());
+                ps.setLong(2, message.getSender().getId());
+                ps.setLong(3, message.getRecipient().getId());
+                ps.setLong(4, message.getChatId());
+                ps.setString(5, message.getContent());
+                ps.setString(6, message.getImage());
+                ps.setTimestamp(7, sentAt);
+                ps.setTimestamp(8, sentAt);
+            });
+            // Only rows this flush inserted reach the inbox counters; a replayed message that is
+            // already stored reports 0 and is skipped
+            List<MessageDTO> inserted = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                if (counts[0][i] != 0) {
+                    inserted.add(batch.get(i));
+                }
+            }
+            if (!inserted.isEmpty()) {
+                inboxService.recordMessages(inserted);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            writer.interrupt();
+        }
+
+        List<MessageDTO> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            logger.warn("Spilling {} unwritten chat messages to {}", remaining.size(), spillFile);
+            spill(remaining);
+        }
+    }
+
+    private synchronized void spill(List<MessageDTO> messages) {
+        Path path = Paths.get(spillFile);
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+                 BufferedWriter out = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8))) {
+                for (MessageDTO message : messages) {
+                    out.write(objectMapper.writeValueAsString(message));
+                    out.newLine();
+                }
+                out.flush();
+                channel.force(true);
+            }
+        } catch (IOException e) {
+            logger.error("Failed to spill {} chat messages to {}", messages.size(), spillFile, e);
+        }
+    }
+
+    private void replaySpillFile() {
+        Path path = Paths.get(spillFile);
+        if (!Files.exists(path)) {
+            return;
+        }
+        try {
+            List<MessageDTO> spilled = new ArrayList<>();
+            for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                if (!line.isBlank()) {
+                    spilled.add(objectMapper.readValue(line, MessageDTO.class));
+                }
+            }
+            // Inserts and inbox updates are idempotent on id, so a replay interrupted half-way can
+            // simply run again
+            for (int from = 0; from < spilled.size(); from += batchSize) {
+                flush(spilled.subList(from, Math.min(from + batchSize, spilled.size())));
+            }
+            Files.delete(path);
+            logger.info("Replayed {} spilled chat messages from {}", spilled.size(), spillFile);
+        } catch (Exception e) {
+            logger.error("Failed to replay chat spill file {}; it will be retried on next start", spillFile, e);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.postgresql.MasChat.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.postgresql.MasChat.dto.CommentDTO;
+import com.postgresql.MasChat.dto.CommentPageDTO;
+import com.postgresql.MasChat.model.Comment;
+import com.postgresql.MasChat.repository.CommentRepository;
+import com.postgresql.MasChat.repository.LikeRepository;
+
+// Comment trees served a page at a time. A page of top-level comments comes with reply counts and
+// the first few replies of each, all loaded with a fixed number of queries however many comments
+// the post has; deeper replies are fetched per parent with keyset paging.
+@Service
+public class CommentThreadService {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 50;
+    private static final int DEFAULT_REPLY_PREVIEW = 3;
+    private static final int MAX_REPLY_PREVIEW = 10;
+
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private LikeRepository likeRepository;
+    @Autowired
+    private UserSummaryService userSummaryService;
+
+    @Transactional(readOnly = true)
+    public CommentPageDTO getComments(Long postId, Long currentUserId, Long before, Integer limit, Integer replyPreview) {
+        int pageSize = pageSize(limit);
+        int previewSize = replyPreview == null ? DEFAULT_REPLY_PREVIEW : Math.max(0, Math.min(replyPreview, MAX_REPLY_PREVIEW));
+
+        List<Comment> topLevel = commentRepository.findTopLevelPage(
+            postId, before == null ? Long.MAX_VALUE : before, PageRequest.of(0, pageSize + 1));
+        boolean hasMore = topLevel.size() > pageSize;
+        if (hasMore) {
+            topLevel = topLevel.subList(0, pageSize);
+        }
+        if (topLevel.isEmpty()) {
+            return new CommentPageDTO(List.of(), null, false);
+        }
+
+        List<Long> topLevelIds = topLevel.stream().map(Comment::getId).toList();
+        List<Comment> replies = List.of();
+        if (previewSize > 0) {
+            List<Long> replyIds = commentRepository.findFirstReplyIds(topLevelIds, previewSize);
+            if (!replyIds.isEmpty()) {
+                replies = commentRepository.findAllById(replyIds);
+            }
+        }
+
+        List<Comment> all = new ArrayList<>(topLevel);
+        all.addAll(replies);
+        Stats stats = loadStats(all, currentUserId);
+
+        Map<Long, List<CommentDTO>> repliesByParent = new HashMap<>();
+        replies.stream()
+            .sorted((a, b) -> Long.compare(a.getId(), b.getId()))
+            .forEach(reply -> repliesByParent
+                .computeIfAbsent(reply.getParentComment().getId(), id -> new ArrayList<>())
+                .add(stats.toDTO(reply)));
+
+        List<CommentDTO> page = new ArrayList<>(topLevel.size());
+        for (Comment comment : topLevel) {
+            CommentDTO dto = stats.toDTO(comment);
+            dto.setReplies(repliesByParent.getOrDefault(comment.getId(), List.of()));
+            page.add(dto);
+        }
+        return new CommentPageDTO(page, hasMore ? topLevel.get(topLevel.size() - 1).getId() : null, hasMore);
+    }
+
+    // Replies of one comment, oldest first; pass nextCursor back as "after"
+    @Transactional(readOnly = true)
+    public CommentPageDTO getReplies(Long commentId, Long currentUserId, Long after, Integer limit) {
+        int pageSize = pageSize(limit);
+        List<Comment> replies = commentRepository.findRepliesAfter(
+            commentId, after == null ? 0L : after, PageRequest.of(0, pageSize + 1));
+        boolean hasMore = replies.size() > pageSize;
+        if (hasMore) {
+            replies = replies.subList(0, pageSize);
+        }
+        if (replies.isEmpty()) {
+            return new CommentPageDTO(List.of(), null, false);
+        }
+        Stats stats = loadStats(replies, currentUserId);
+        List<CommentDTO> page = replies.stream().map(stats::toDTO).toList();
+        return new CommentPageDTO(page, hasMore ? replies.get(replies.size() - 1).getId() : null, hasMore);
+    }
+
+    // Flat list of comments (e.g. search hits) with counts, without expanding replies
+    @Transactional(readOnly = true)
+    public List<CommentDTO> toDTOs(List<Comment> comments, Long currentUserId) {
+        if (comments.isEmpty()) {
+            return List.of();
+        }
+        Stats stats = loadStats(comments, currentUserId);
+        return comments.stream().map(stats::toDTO).toList();
+    }
+
+    private int pageSize(Integer limit) {
+        return limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    private Stats loadStats(List<Comment> comments, Long currentUserId) {
+        List<Long> ids = comments.stream().map(Comment::getId).toList();
+        Stats stats = new Stats(userSummaryService.loader());
+        comments.forEach(comment -> stats.authors.register(comment.getUser() != null ? comment.getUser().getId() : null));
+        for (Object[] row : commentRepository.countRepliesByParentIds(ids)) {
+            stats.replyCounts.put((Long) row[0], ((Number) row[1]).intValue());
+        }
+        for (Object[] row : likeRepository.countByCommentIds(ids)) {
+            stats.likeCounts.put((Long) row[0], ((Number) row[1]).intValue());
+        }
+        if (currentUserId != null) {
+            stats.likedByViewer.addAll(likeRepository.findLikedCommentIds(currentUserId, ids));
+        }
+        return stats;
+    }
+
+    private static class Stats {
+        final Map<Long, Integer> replyCounts = new HashMap<>();
+        final Map<Long, Integer> likeCounts = new HashMap<>();
+        final Set<Long> likedByViewer = new HashSet<>();
+        final UserSummaryLoader authors;
+
+        Stats(UserSummaryLoader authors) {
+            this.authors = authors;
+        }
+
+        CommentDTO toDTO(Comment comment) {
+            Long id = comment.getId();
+            return CommentDTO.fromEntity(comment, likeCounts.getOrDefault(id, 0), replyCounts.getOrDefault(id, 0),
+                likedByViewer.contains(id), authors.get(comment.getUser() != null ? comment.getUser().getId() : null));
+        }
+    }
+}
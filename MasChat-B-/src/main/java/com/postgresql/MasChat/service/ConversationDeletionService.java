@@ -0,0 +1,155 @@
+package com.postgresql.MasChat.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.postgresql.MasChat.dto.ConversationDeletionDTO;
+import com.postgresql.MasChat.repository.ChatHistoryClearRepository;
+import com.postgresql.MasChat.repository.ChatReadReceiptRepository;
+import com.postgresql.MasChat.repository.MessageRepository;
+
+import jakarta.annotation.PreDestroy;
+
+// Deletes whole conversations in the background: set-based deletes keyed by chat_id, each chunk
+// in its own short transaction, so a large chat never holds one long transaction or loads rows.
+@Service
+public class ConversationDeletionService {
+    private static final Logger logger = LoggerFactory.getLogger(ConversationDeletionService.class);
+    private static final Duration FINISHED_JOB_RETENTION = Duration.ofHours(1);
+
+    @Autowired
+    private MessageRepository messageRepository;
+    @Autowired
+    private ChatReadReceiptRepository chatReadReceiptRepository;
+    @Autowired
+    private ChatHistoryClearRepository chatHistoryClearRepository;
+    @Autowired
+    private InboxService inboxService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${chat.delete.chunk-size:1000}")
+    private int chunkSize;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "conversation-delete");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    // Returns the running job if this chat is already being deleted. Joins the caller's
+    // transaction; the job is registered and started only once that commits, so it never deletes
+    // rows ahead of the caller's commit or after a rollback.
+    public synchronized ConversationDeletionDTO submit(Long chatId) {
+        evictFinishedJobs();
+        for (Job job : jobs.values()) {
+            if (job.chatId.equals(chatId) && !job.isFinished()) {
+                return job.toDTO();
+            }
+        }
+
+        // Only messages that exist now are deleted; anything sent meanwhile starts a fresh history
+        Long upToId = messageRepository.findMaxIdByChatId(chatId);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            inboxService.clearChat(chatId);
+            chatReadReceiptRepository.deleteByChatId(chatId);
+            chatHistoryClearRepository.deleteByChatId(chatId);
+        });
+
+        Job job = new Job(UUID.randomUUID().toString(), chatId);
+        if (upToId == null) {
+            job.finish("COMPLETED", null);
+        }
+        TxCallbacks.afterCommit(() -> start(job, upToId));
+        return job.toDTO();
+    }
+
+    private synchronized void start(Job job, Long upToId) {
+        jobs.put(job.id, job);
+        if (upToId != null) {
+            executor.submit(() -> run(job, upToId));
+        }
+    }
+
+    public Optional<ConversationDeletionDTO> getStatus(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(Job::toDTO);
+    }
+
+    private void run(Job job, Long upToId) {
+        job.status = "RUNNING";
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        try {
+            int deleted;
+            do {
+                deleted = tx.execute(status -> messageRepository.deleteChunkByChatId(job.chatId, upToId, chunkSize));
+                job.deletedCount.addAndGet(deleted);
+            } while (deleted == chunkSize);
+            job.finish("COMPLETED", null);
+        } catch (Exception e) {
+            logger.error("Deleting conversation {} failed after {} messages", job.chatId, job.deletedCount.get(), e);
+            job.finish("FAILED", e.getMessage());
+        }
+    }
+
+    private void evictFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(FINISHED_JOB_RETENTION);
+        jobs.values().removeIf(job -> job.isFinished() && job.finishedAt.isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class Job {
+        private final String id;
+        private final Long chatId;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicLong deletedCount = new AtomicLong();
+        private volatile String status = "PENDING";
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+
+        Job(String id, Long chatId) {
+            this.id = id;
+            this.chatId = chatId;
+        }
+
+        void finish(String status, String error) {
+            this.error = error;
+            this.finishedAt = LocalDateTime.now();
+            this.status = status;
+        }
+
+        boolean isFinished() {
+            return finishedAt != null;
+        }
+
+        ConversationDeletionDTO toDTO() {
+            return new ConversationDeletionDTO(id, chatId, status, deletedCount.get(), startedAt, finishedAt, error);
+        }
+    }
+}
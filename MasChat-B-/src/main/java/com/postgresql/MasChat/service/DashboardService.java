@@ -73,7 +73,7 @@ public class DashboardService {
             activity.setId(post.getId().toString());
             activity.setType("post");
             activity.setTitle("New Post Created");
-            activity.setDescription("Your post \"" + post.getContent().substring(0, Math.min(50, post.getContent().length())) + "...\" received " + post.getLikedBy().size() + " likes");
+            activity.setDescription("Your post \"" + post.getContent().substring(0, Math.min(50, post.getContent().length())) + "...\" received " + post.getLikeCount() + " likes");
             activity.setTimestamp(formatTimestamp(post.getCreatedAt()));
             activity.setIcon("document-text");
             activity.setColor("#4361EE");
@@ -0,0 +1,60 @@
+package com.postgresql.MasChat.service;
+
+// Column-wise buffer of feed ranking candidates: one slot per candidate in each primitive array,
+// so scoring a thousand of them touches no maps and allocates nothing per candidate.
+public final class FeedCandidates {
+    public static final byte KIND_POST = 0;
+    public static final byte KIND_REEL = 1;
+
+    public static final byte MEDIA_TEXT = 0;
+    public static final byte MEDIA_IMAGE = 1;
+    public static final byte MEDIA_VIDEO = 2;
+
+    final byte[] kinds;
+    final long[] ids;
+    final long[] authorIds;
+    final long[] createdAtMillis;
+    final int[] likeCounts;
+    final int[] commentCounts;
+    final byte[] mediaTypes;
+    // Viewer-to-author affinity in [0, 1], filled in by the caller after the candidates are known
+    final float[] affinities;
+    private int size;
+
+    public FeedCandidates(int capacity) {
+        kinds = new byte[capacity];
+        ids = new long[capacity];
+        authorIds = new long[capacity];
+        createdAtMillis = new long[capacity];
+        likeCounts = new int[capacity];
+        commentCounts = new int[capacity];
+        mediaTypes = new byte[capacity];
+        affinities = new float[capacity];
+    }
+
+    // Returns the candidate's slot, or -1 once the buffer is full
+    public int add(byte kind, long id, long authorId, long createdAtMillis, int likeCount, int commentCount, byte mediaType) {
+        if (size == ids.length) {
+            return -1;
+        }
+        int i = size++;
+        kinds[i] = kind;
+        ids[i] = id;
+        authorIds[i] = authorId;
+        this.createdAtMillis[i] = createdAtMillis;
+        likeCounts[i] = likeCount;
+        commentCounts[i] = commentCount;
+        mediaTypes[i] = mediaType;
+        affinities[i] = 0f;
+        return i;
+    }
+
+    public void setAffinity(int i, float affinity) {
+        affinities[i] = affinity;
+    }
+
+    public int size() { return size; }
+    public byte kind(int i) { return kinds[i]; }
+    public long id(int i) { return ids[i]; }
+    public long authorId(int i) { return authorIds[i]; }
+}
@@ -0,0 +1,176 @@
+package com.postgresql.MasChat.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.postgresql.MasChat.dto.FeedItemDTO;
+import com.postgresql.MasChat.dto.PostDTO;
+import com.postgresql.MasChat.dto.RankedFeedPageDTO;
+import com.postgresql.MasChat.dto.ReelDTO;
+import com.postgresql.MasChat.repository.PostRepository;
+import com.postgresql.MasChat.repository.ReelRepository;
+
+import jakarta.annotation.PostConstruct;
+
+// Ranked home feed. Candidates are the newest posts of the reader's feed plus recent reels of
+// their friends, read as plain columns; they are scored by FeedScorer on author affinity (see
+// AffinityService), engagement velocity, recency and media type, and only the requested page is
+// loaded as entities.
+@Service
+public class FeedRankingService {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 50;
+
+    @Autowired
+    private PostRepository postRepository;
+    @Autowired
+    private ReelRepository reelRepository;
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private ReelService reelService;
+    @Autowired
+    private ReactionCounterBuffer reactionCounterBuffer;
+    @Autowired
+    private AffinityService affinityService;
+
+    @Value("${feed.ranking.max-candidates:1000}")
+    private int maxCandidates;
+    @Value("${feed.ranking.reel-window-days:7}")
+    private int reelWindowDays;
+    @Value("${feed.ranking.affinity-scale:5}")
+    private float affinityScale;
+    @Value("${feed.ranking.recency-half-life-hours:24}")
+    private float recencyHalfLifeHours;
+    @Value("${feed.ranking.velocity-half-rate:5}")
+    private float velocityHalfRate;
+    @Value("${feed.ranking.weight.affinity:3.0}")
+    private float affinityWeight;
+    @Value("${feed.ranking.weight.velocity:2.0}")
+    private float velocityWeight;
+    @Value("${feed.ranking.weight.recency:2.0}")
+    private float recencyWeight;
+    @Value("${feed.ranking.weight.media:0.5}")
+    private float mediaWeight;
+
+    private FeedScorer scorer;
+
+    @PostConstruct
+    public void init() {
+        scorer = new FeedScorer()
+            .with(FeedSignal.affinity(), affinityWeight)
+            .with(FeedSignal.velocity(velocityHalfRate), velocityWeight)
+            .with(FeedSignal.recency(recencyHalfLifeHours), recencyWeight)
+            .with(FeedSignal.media(0f, 0.6f, 1f), mediaWeight);
+    }
+
+    // Page numbers index into a ranking that is recomputed on every request
+    @Transactional(readOnly = true)
+    public RankedFeedPageDTO getRankedFeed(Long userId, int page, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        LocalDateTime now = LocalDateTime.now();
+
+        FeedCandidates candidates = loadCandidates(userId, now);
+        int n = candidates.size();
+        int from = Math.max(0, page) * pageSize;
+        if (from >= n) {
+            return new RankedFeedPageDTO(List.of(), page, false);
+        }
+        applyAffinities(userId, candidates);
+
+        float[] scores = new float[n];
+        int[] order = scorer.rank(candidates, toMillis(now), scores);
+        int to = Math.min(n, from + pageSize);
+
+        List<Long> postIds = new ArrayList<>();
+        List<Long> reelIds = new ArrayList<>();
+        for (int r = from; r < to; r++) {
+            int i = order[r];
+            (candidates.kind(i) == FeedCandidates.KIND_POST ? postIds : reelIds).add(candidates.id(i));
+        }
+        Map<Long, PostDTO> posts = postIds.isEmpty() ? Map.of()
+            : postService.toDTOs(postRepository.findAllById(postIds), userId).stream()
+                .collect(Collectors.toMap(dto -> Long.valueOf(dto.getId()), Function.identity()));
+        Map<Long, ReelDTO> reels = reelIds.isEmpty() ? Map.of()
+            : reelService.toDTOs(reelRepository.findAllById(reelIds), userId).stream()
+                .collect(Collectors.toMap(dto -> Long.valueOf(dto.getId()), Function.identity()));
+
+        List<FeedItemDTO> items = new ArrayList<>(to - from);
+        for (int r = from; r < to; r++) {
+            int i = order[r];
+            if (candidates.kind(i) == FeedCandidates.KIND_POST) {
+                PostDTO post = posts.get(candidates.id(i));
+                if (post != null) {
+                    items.add(FeedItemDTO.ofPost(post, scores[i]));
+                }
+            } else {
+                ReelDTO reel = reels.get(candidates.id(i));
+                if (reel != null) {
+                    items.add(FeedItemDTO.ofReel(reel, scores[i]));
+                }
+            }
+        }
+        return new RankedFeedPageDTO(items, page, to < n);
+    }
+
+    private FeedCandidates loadCandidates(Long userId, LocalDateTime now) {
+        int reelLimit = maxCandidates / 4;
+        FeedCandidates candidates = new FeedCandidates(maxCandidates);
+        for (Object[] row : postRepository.findFeedCandidates(userId, maxCandidates - reelLimit)) {
+            long postId = ((Number) row[0]).longValue();
+            int likes = (int) Math.max(0, ((Number) row[3]).intValue() + reactionCounterBuffer.pending(postId));
+            candidates.add(FeedCandidates.KIND_POST, postId, ((Number) row[1]).longValue(), toMillis(row[2]),
+                likes, ((Number) row[4]).intValue(), ((Number) row[5]).byteValue());
+        }
+        if (reelLimit > 0) {
+            for (Object[] row : reelRepository.findFeedCandidates(userId, now.minusDays(reelWindowDays), reelLimit)) {
+                candidates.add(FeedCandidates.KIND_REEL, ((Number) row[0]).longValue(), ((Number) row[1]).longValue(),
+                    toMillis(row[2]), ((Number) row[3]).intValue(), ((Number) row[4]).intValue(), FeedCandidates.MEDIA_VIDEO);
+            }
+        }
+        return candidates;
+    }
+
+    // Decayed affinity of the reader towards each author, saturating towards 1 at affinityScale
+    private void applyAffinities(Long userId, FeedCandidates candidates) {
+        Set<Long> authorIds = new HashSet<>();
+        for (int i = 0, n = candidates.size(); i < n; i++) {
+            authorIds.add(candidates.authorId(i));
+        }
+        authorIds.remove(userId);
+        Map<Long, Double> scores = affinityService.scores(userId, authorIds);
+        if (scores.isEmpty()) {
+            return;
+        }
+        for (int i = 0, n = candidates.size(); i < n; i++) {
+            Double score = scores.get(candidates.authorId(i));
+            if (score != null) {
+                candidates.setAffinity(i, 1f - (float) Math.exp(-score / affinityScale));
+            }
+        }
+    }
+
+    private static long toMillis(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.getTime();
+        }
+        return toMillis((LocalDateTime) value);
+    }
+
+    private static long toMillis(LocalDateTime value) {
+        return value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
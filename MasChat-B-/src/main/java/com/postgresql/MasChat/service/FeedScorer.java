@@ -0,0 +1,59 @@
+package com.postgresql.MasChat.service;
+
+import java.util.Arrays;
+
+// Weighted sum of FeedSignals over a FeedCandidates buffer. Immutable once built and safe to
+// share between requests; a ranking allocates only its sort keys and the resulting order.
+public final class FeedScorer {
+    private final FeedSignal[] signals;
+    private final float[] weights;
+
+    public FeedScorer() {
+        this(new FeedSignal[0], new float[0]);
+    }
+
+    private FeedScorer(FeedSignal[] signals, float[] weights) {
+        this.signals = signals;
+        this.weights = weights;
+    }
+
+    // A copy of this scorer with one more signal; a weight of zero leaves the signal out
+    public FeedScorer with(FeedSignal signal, float weight) {
+        if (weight == 0f) {
+            return this;
+        }
+        FeedSignal[] moreSignals = Arrays.copyOf(signals, signals.length + 1);
+        float[] moreWeights = Arrays.copyOf(weights, weights.length + 1);
+        moreSignals[signals.length] = signal;
+        moreWeights[weights.length] = weight;
+        return new FeedScorer(moreSignals, moreWeights);
+    }
+
+    public void score(FeedCandidates candidates, long nowMillis, float[] scores) {
+        Arrays.fill(scores, 0, candidates.size(), 0f);
+        for (int s = 0; s < signals.length; s++) {
+            signals[s].accumulate(candidates, nowMillis, weights[s], scores);
+        }
+    }
+
+    // Candidate slots ordered best first; equal scores keep candidate order. Leaves each
+    // candidate's score in scores, which must hold at least candidates.size() entries.
+    public int[] rank(FeedCandidates candidates, long nowMillis, float[] scores) {
+        int n = candidates.size();
+        score(candidates, nowMillis, scores);
+
+        // Score bits in the high half, inverted slot in the low half: one primitive sort, no boxing.
+        // Scores are clamped to >= 0, where float bit patterns order like the floats themselves.
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            float score = scores[i] > 0f ? scores[i] : 0f;
+            keys[i] = ((long) Float.floatToIntBits(score) << 32) | (Integer.MAX_VALUE - i);
+        }
+        Arrays.sort(keys);
+        int[] order = new int[n];
+        for (int r = 0; r < n; r++) {
+            order[r] = Integer.MAX_VALUE - (int) keys[n - 1 - r];
+        }
+        return order;
+    }
+}
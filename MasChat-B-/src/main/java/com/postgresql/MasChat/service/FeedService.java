@@ -0,0 +1,116 @@
+package com.postgresql.MasChat.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.postgresql.MasChat.dto.AttachmentDTO;
+import com.postgresql.MasChat.dto.FeedPageDTO;
+import com.postgresql.MasChat.dto.PostDTO;
+import com.postgresql.MasChat.model.Post;
+import com.postgresql.MasChat.repository.FeedRepository;
+import com.postgresql.MasChat.repository.PostRepository;
+
+// Home feeds. A new post's id is pushed into the feed_posts of the author and their friends
+// (fan-out on write). Authors with more than feed.fanout-threshold friends are not pushed; their
+// posts are flagged and merged into each reader's page, their own included, at read time instead
+// (fan-out on read).
+@Service
+public class FeedService {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 50;
+
+    @Autowired
+    private FeedRepository feedRepository;
+    @Autowired
+    private PostRepository postRepository;
+    @Autowired
+    private ReactionCounterBuffer reactionCounterBuffer;
+    @Autowired
+    private UserSummaryService userSummaryService;
+    @Autowired
+    private MediaService mediaService;
+    @Autowired
+    private SocialGraphService socialGraphService;
+
+    @Value("${feed.fanout-threshold:5000}")
+    private long fanoutThreshold;
+
+    // Call after the post has been saved; joins the caller's transaction
+    @Transactional
+    public void fanOut(Post post) {
+        Long authorId = post.getUser().getId();
+        if (socialGraphService.degree(authorId) > fanoutThreshold) {
+            post.setFanoutOnRead(true);
+            postRepository.save(post);
+            return;
+        }
+        feedRepository.ensureFeeds(authorId);
+        feedRepository.fanOut(authorId, post.getId());
+    }
+
+    @Transactional(readOnly = true)
+    public FeedPageDTO getHomeFeed(Long userId, Long before, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long cursor = before == null ? Long.MAX_VALUE : before;
+
+        // Both sources are newest-first; fetch one extra row from each to learn whether more exist
+        List<Long> pushed = feedRepository.findPostIds(userId, cursor, pageSize + 1);
+        List<Long> pulled = postRepository.findFanoutOnReadIds(userId, cursor, pageSize + 1);
+        List<Long> ids = mergeDescending(pushed, pulled, pageSize + 1);
+
+        boolean hasMore = ids.size() > pageSize;
+        if (hasMore) {
+            ids = ids.subList(0, pageSize);
+        }
+        if (ids.isEmpty()) {
+            return new FeedPageDTO(List.of(), null, false);
+        }
+
+        Map<Long, Post> posts = postRepository.findAllById(ids).stream()
+            .collect(Collectors.toMap(Post::getId, Function.identity()));
+        Set<Long> liked = new HashSet<>(postRepository.findLikedPostIds(userId, ids));
+        UserSummaryLoader authors = userSummaryService.loader()
+            .registerAll(posts.values().stream().map(post -> post.getUser().getId()).toList());
+        Map<Long, List<AttachmentDTO>> media = mediaService.getPostMedia(posts.keySet());
+        List<PostDTO> page = ids.stream()
+            .map(posts::get)
+            .filter(post -> post != null)
+            .map(post -> {
+                PostDTO dto = PostDTO.fromEntity(post, userId, liked.contains(post.getId()), authors.get(post.getUser().getId()));
+                dto.setLikeCount((int) Math.max(0, post.getLikeCount() + reactionCounterBuffer.pending(post.getId())));
+                dto.setMedia(media.getOrDefault(post.getId(), List.of()));
+                return dto;
+            })
+            .toList();
+        return new FeedPageDTO(page, hasMore ? ids.get(ids.size() - 1) : null, hasMore);
+    }
+
+    private List<Long> mergeDescending(List<Long> a, List<Long> b, int limit) {
+        List<Long> merged = new ArrayList<>(Math.min(limit, a.size() + b.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < a.size() || j < b.size())) {
+            Long next;
+            if (j >= b.size() || (i < a.size() && a.get(i) >= b.get(j))) {
+                next = a.get(i++);
+            } else {
+                next = b.get(j++);
+            }
+            // A post can be in both when the author crossed the threshold later
+            if (merged.isEmpty() || !merged.get(merged.size() - 1).equals(next)) {
+                merged.add(next);
+            }
+        }
+        return merged;
+    }
+}
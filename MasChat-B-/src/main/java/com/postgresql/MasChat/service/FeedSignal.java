@@ -0,0 +1,48 @@
+package com.postgresql.MasChat.service;
+
+// One ranking signal. Implementations add weight * value, with value roughly in [0, 1], to each
+// candidate's running score; they loop over the candidate arrays and must not allocate.
+@FunctionalInterface
+public interface FeedSignal {
+    void accumulate(FeedCandidates candidates, long nowMillis, float weight, float[] scores);
+
+    // Precomputed viewer-to-author affinity (see FeedCandidates.setAffinity)
+    static FeedSignal affinity() {
+        return (c, now, weight, scores) -> {
+            for (int i = 0, n = c.size(); i < n; i++) {
+                scores[i] += weight * c.affinities[i];
+            }
+        };
+    }
+
+    // Likes plus twice the comments per hour of age, saturating at half value for halfRate
+    static FeedSignal velocity(float halfRate) {
+        return (c, now, weight, scores) -> {
+            for (int i = 0, n = c.size(); i < n; i++) {
+                float ageHours = Math.max(0, now - c.createdAtMillis[i]) / 3_600_000f;
+                float rate = (c.likeCounts[i] + 2f * c.commentCounts[i]) / (ageHours + 2f);
+                scores[i] += weight * (rate / (rate + halfRate));
+            }
+        };
+    }
+
+    // Halves every halfLifeHours
+    static FeedSignal recency(float halfLifeHours) {
+        double lambda = Math.log(2) / (halfLifeHours * 3_600_000d);
+        return (c, now, weight, scores) -> {
+            for (int i = 0, n = c.size(); i < n; i++) {
+                scores[i] += weight * (float) Math.exp(-lambda * Math.max(0, now - c.createdAtMillis[i]));
+            }
+        };
+    }
+
+    // Fixed value per media type, indexed by FeedCandidates.MEDIA_*
+    static FeedSignal media(float text, float image, float video) {
+        float[] values = {text, image, video};
+        return (c, now, weight, scores) -> {
+            for (int i = 0, n = c.size(); i < n; i++) {
+                scores[i] += weight * values[c.mediaTypes[i]];
+            }
+        };
+    }
+}
@@ -1,141 +1,87 @@
 package com.postgresql.MasChat.service;
 
+import com.postgresql.MasChat.dto.FriendSuggestionDTO;
+import com.postgresql.MasChat.dto.UserSummaryDTO;
 import com.postgresql.MasChat.model.FriendRequest;
 import com.postgresql.MasChat.model.User;
 import com.postgresql.MasChat.repository.FriendRequestRepository;
 import com.postgresql.MasChat.repository.UserRepository;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 @Service
 public class FriendService {
+    private static final int MESSENGER_SUGGESTIONS = 10;
+
     private FriendRequestRepository friendRequestRepository;
     private UserRepository userRepository;
     private NotificationService notificationService;
+    private FriendSuggestionService friendSuggestionService;
+    private SocialGraphService socialGraphService;
+    private PresenceService presenceService;
+    private UserSummaryService userSummaryService;
+    private FriendshipStatusService friendshipStatusService;
+    private InboxService inboxService;
 
-    public FriendService(FriendRequestRepository friendRequestRepository, UserRepository userRepository, NotificationService notificationService) {
+    public FriendService(FriendRequestRepository friendRequestRepository, UserRepository userRepository, NotificationService notificationService,
+                         FriendSuggestionService friendSuggestionService, SocialGraphService socialGraphService,
+                         PresenceService presenceService, UserSummaryService userSummaryService,
+                         FriendshipStatusService friendshipStatusService, InboxService inboxService) {
         this.friendRequestRepository = friendRequestRepository;
         this.userRepository = userRepository;
         this.notificationService = notificationService;
+        this.friendSuggestionService = friendSuggestionService;
+        this.socialGraphService = socialGraphService;
+        this.presenceService = presenceService;
+        this.userSummaryService = userSummaryService;
+        this.friendshipStatusService = friendshipStatusService;
+        this.inboxService = inboxService;
     }
 
-    public List<User> getSuggestions(Long userId) {
-        try {
-            System.out.println("Getting suggestions for user: " + userId);
-            
-            User user = userRepository.findById(userId).orElse(null);
-            if (user == null) {
-                System.out.println("User not found: " + userId);
-                return List.of();
-            }
-            
-            // Get all users first
-            List<User> allUsers = userRepository.findAll();
-            System.out.println("Total users in database: " + allUsers.size());
-            
-            // Get friends, sent requests, and received requests
-            Set<Long> excludeIds = new HashSet<>();
-            excludeIds.add(userId); // Exclude self
-            
-            // Add friends
-            if (user.getFriends() != null) {
-                for (User friend : user.getFriends()) {
-                    excludeIds.add(friend.getId());
-                }
-            }
-            System.out.println("User's friends count: " + (user.getFriends() != null ? user.getFriends().size() : 0));
-            
-            // Add sent requests
-            try {
-                List<FriendRequest> sentRequests = friendRequestRepository.findBySenderId(userId);
-                for (FriendRequest request : sentRequests) {
-                    excludeIds.add(request.getReceiver().getId());
-                }
-            } catch (Exception e) {
-                System.err.println("Error getting sent requests: " + e.getMessage());
-            }
-            
-            // Add received requests
-            try {
-                List<FriendRequest> receivedRequests = friendRequestRepository.findByReceiverId(userId);
-                for (FriendRequest request : receivedRequests) {
-                    excludeIds.add(request.getSender().getId());
-                }
-            } catch (Exception e) {
-                System.err.println("Error getting received requests: " + e.getMessage());
-            }
-            
-            // Filter users to get suggestions
-            List<User> suggestions = allUsers.stream()
-                .filter(u -> !excludeIds.contains(u.getId()))
-                .limit(20) // Limit to 20 suggestions
-                .toList();
-            
-            System.out.println("Suggestions found: " + suggestions.size());
-            return suggestions;
-            
-        } catch (Exception e) {
-            System.err.println("Error getting suggestions for user " + userId + ": " + e.getMessage());
-            e.printStackTrace();
-            return List.of();
-        }
+    // Ranked people-you-may-know; see FriendSuggestionService
+    public List<FriendSuggestionDTO> getSuggestions(Long userId, Integer limit) {
+        return friendSuggestionService.getSuggestions(userId, limit);
     }
 
-    // New method for messenger suggestions - friends you haven't chatted with
+    // Friends the user has no conversation with yet, in friend-list order
     public List<User> getMessengerSuggestions(Long userId) {
-        try {
-            System.out.println("Getting messenger suggestions for user: " + userId);
-            
-            User user = userRepository.findById(userId).orElse(null);
-            if (user == null) {
-                System.out.println("User not found: " + userId);
-                return List.of();
-            }
-            
-            // Get user's friends
-            List<User> friends = user.getFriends();
-            if (friends == null || friends.isEmpty()) {
-                System.out.println("User has no friends");
-                return List.of();
-            }
-            
-            // Get users the current user has already chatted with
-            Set<Long> chattedUserIds = new HashSet<>();
-            try {
-                // Get sent messages
-                if (user.getSentMessages() != null) {
-                    for (var message : user.getSentMessages()) {
-                        chattedUserIds.add(message.getRecipient().getId());
-                    }
+        Map<Long, Long> chatPartners = inboxService.getChatPartners(userId);
+        List<Long> ids = new ArrayList<>();
+        for (long friendId : socialGraphService.friendIds(userId)) {
+            if (!chatPartners.containsKey(friendId)) {
+                ids.add(friendId);
+                if (ids.size() == MESSENGER_SUGGESTIONS) {
+                    break;
                 }
-                
-                // Get received messages
-                if (user.getReceivedMessages() != null) {
-                    for (var message : user.getReceivedMessages()) {
-                        chattedUserIds.add(message.getSender().getId());
-                    }
-                }
-            } catch (Exception e) {
-                System.err.println("Error getting chat history: " + e.getMessage());
             }
-            
-            // Filter friends to get those you haven't chatted with
-            List<User> messengerSuggestions = friends.stream()
-                .filter(friend -> !chattedUserIds.contains(friend.getId()))
-                .limit(10) // Limit to 10 suggestions
-                .toList();
-            
-            System.out.println("Messenger suggestions found: " + messengerSuggestions.size());
-            return messengerSuggestions;
-            
-        } catch (Exception e) {
-            System.err.println("Error getting messenger suggestions for user " + userId + ": " + e.getMessage());
-            e.printStackTrace();
+        }
+        if (ids.isEmpty()) {
             return List.of();
         }
+        Map<Long, User> users = userRepository.findAllById(ids).stream().collect(Collectors.toMap(User::getId, u -> u));
+        return ids.stream().map(users::get).filter(Objects::nonNull).toList();
+    }
+
+    // Friends both users have, from the in-memory graph
+    public List<UserSummaryDTO> getMutualFriends(Long userId, Long otherUserId) {
+        return summaries(socialGraphService.mutualFriendIds(userId, otherUserId));
+    }
+
+    public List<UserSummaryDTO> getOnlineFriends(Long userId) {
+        return summaries(presenceService.onlineFriendIds(userId));
+    }
+
+    private List<UserSummaryDTO> summaries(long[] userIds) {
+        List<Long> ids = Arrays.stream(userIds).boxed().toList();
+        UserSummaryLoader users = userSummaryService.loader().registerAll(ids);
+        return ids.stream().map(users::get).filter(Objects::nonNull).toList();
     }
 
     public List<FriendRequest> getFriendRequests(Long userId) {
@@ -159,7 +105,7 @@ public class FriendService {
             }
             
             // Check if they are already friends
-            if (sender.getFriends() != null && sender.getFriends().contains(receiver)) {
+            if (socialGraphService.areFriends(senderId, receiverId)) {
                 throw new IllegalStateException("Users are already friends");
             }
             
@@ -180,7 +126,13 @@ public class FriendService {
             request.setReceiver(receiver);
             request.setStatus("PENDING");
             request.setCreatedAt(LocalDateTime.now());
-            request = friendRequestRepository.save(request);
+            try {
+                request = friendRequestRepository.save(request);
+            } catch (DataIntegrityViolationException e) {
+                // A concurrent request for the same pair won UNIQUE(sender_id, receiver_id)
+                throw new IllegalStateException("Friend request already exists");
+            }
+            friendSuggestionService.invalidate(senderId, receiverId);
             
             // Notify receiver with related metadata (request id, sender info)
             try {
@@ -218,6 +170,8 @@ public class FriendService {
             receiver.getFriends().add(sender);
             userRepository.save(sender);
             userRepository.save(receiver);
+            socialGraphService.friendshipAdded(sender.getId(), receiver.getId());
+            friendSuggestionService.invalidate(sender.getId(), receiver.getId());
             
             // Notify sender that request was accepted
             notificationService.createFriendRequestAcceptedNotification(receiver, sender);
@@ -254,6 +208,9 @@ public class FriendService {
             
             userRepository.save(user);
             userRepository.save(friend);
+            friendRequestRepository.deleteBetween(userId, friendId);
+            socialGraphService.friendshipRemoved(userId, friendId);
+            friendSuggestionService.invalidate(userId, friendId);
         } catch (Exception e) {
             System.err.println("Error removing friend: " + e.getMessage());
             throw e;
@@ -261,33 +218,11 @@ public class FriendService {
     }
 
     public String getFriendRequestStatus(Long senderId, Long receiverId) {
-        try {
-            User sender = userRepository.findById(senderId).orElse(null);
-            User receiver = userRepository.findById(receiverId).orElse(null);
-            if (sender == null || receiver == null) return "NONE";
-            
-            // Check if they are already friends
-            if (sender.getFriends() != null && sender.getFriends().contains(receiver)) {
-                return "FRIENDS";
-            }
-            
-            // Check if request exists from sender to receiver
-            List<FriendRequest> requests = friendRequestRepository.findBySenderIdAndReceiverId(senderId, receiverId);
-            if (!requests.isEmpty()) {
-                return "SENT";
-            }
-            
-            // Check if request exists from receiver to sender
-            List<FriendRequest> reverseRequests = friendRequestRepository.findBySenderIdAndReceiverId(receiverId, senderId);
-            if (!reverseRequests.isEmpty()) {
-                return "RECEIVED";
-            }
-            
-            return "NONE";
-        } catch (Exception e) {
-            System.err.println("Error getting friend request status: " + e.getMessage());
-            return "NONE";
-        }
+        return friendshipStatusService.getStatus(senderId, receiverId);
+    }
+
+    public Map<Long, String> getFriendshipStatuses(Long userId, List<Long> otherUserIds) {
+        return friendshipStatusService.getStatuses(userId, otherUserIds);
     }
 
     public void deleteFriendRequest(Long requestId) {
@@ -304,6 +239,7 @@ public class FriendService {
             List<FriendRequest> requests = friendRequestRepository.findBySenderIdAndReceiverId(senderId, receiverId);
             if (!requests.isEmpty()) {
                 friendRequestRepository.deleteAll(requests);
+                friendSuggestionService.invalidate(senderId, receiverId);
             }
         } catch (Exception e) {
             System.err.println("Error cancelling friend request: " + e.getMessage());
@@ -325,6 +261,9 @@ public class FriendService {
             }
             userRepository.save(user);
             userRepository.save(friend);
+            friendRequestRepository.deleteBetween(userId, friendId);
+            socialGraphService.friendshipRemoved(userId, friendId);
+            friendSuggestionService.invalidate(userId, friendId);
         } catch (Exception e) {
             System.err.println("Error unfriending: " + e.getMessage());
             throw e;
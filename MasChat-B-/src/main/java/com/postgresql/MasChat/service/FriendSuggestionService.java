@@ -0,0 +1,96 @@
+package com.postgresql.MasChat.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.postgresql.MasChat.dto.FriendSuggestionDTO;
+import com.postgresql.MasChat.dto.UserSummaryDTO;
+import com.postgresql.MasChat.repository.UserRepository;
+
+// People you may know, ranked by mutual friends, shared groups and same city over a bounded
+// two-hop walk of user_friends (see UserRepository.findFriendSuggestions). Each user's ranking is
+// cached for friends.suggestions.ttl-seconds; FriendService invalidates both users when a
+// request, acceptance or unfriend changes who can be suggested to whom.
+@Service
+public class FriendSuggestionService {
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 50;
+
+    private record Candidate(Long userId, int mutualFriends, int sharedGroups, boolean sameCity) {}
+
+    private record Ranking(List<Candidate> candidates, long expiresAtMillis) {}
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserSummaryService userSummaryService;
+    @Autowired
+    private FriendshipStatusService friendshipStatusService;
+
+    @Value("${friends.suggestions.ttl-seconds:600}")
+    private long ttlSeconds;
+    @Value("${friends.suggestions.fanout:500}")
+    private int fanout;
+    @Value("${friends.suggestions.weight.mutual:1.0}")
+    private double mutualWeight;
+    @Value("${friends.suggestions.weight.shared-group:0.5}")
+    private double sharedGroupWeight;
+    @Value("${friends.suggestions.weight.same-city:0.3}")
+    private double sameCityWeight;
+
+    private final GenerationCache<Long, Ranking> cache;
+
+    public FriendSuggestionService(@Value("${friends.suggestions.cache-max-size:10000}") int maxSize) {
+        this.cache = new GenerationCache<>(maxSize);
+    }
+
+    public List<FriendSuggestionDTO> getSuggestions(Long userId, Integer limit) {
+        int size = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        List<Candidate> candidates = ranking(userId);
+        if (candidates.size() > size) {
+            candidates = candidates.subList(0, size);
+        }
+        List<Long> ids = candidates.stream().map(Candidate::userId).toList();
+        UserSummaryLoader users = userSummaryService.loader().registerAll(ids);
+        // A cached ranking can predate a friendship or request made on another node
+        Map<Long, String> statuses = ids.isEmpty() ? Map.of() : friendshipStatusService.getStatuses(userId, ids);
+        List<FriendSuggestionDTO> suggestions = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            UserSummaryDTO user = users.get(candidate.userId());
+            if (user != null) {
+                FriendSuggestionDTO dto = FriendSuggestionDTO.of(user, candidate.mutualFriends(), candidate.sharedGroups(), candidate.sameCity());
+                dto.setFriendshipStatus(statuses.get(candidate.userId()));
+                suggestions.add(dto);
+            }
+        }
+        return suggestions;
+    }
+
+    // Drops the cached rankings of these users now and again after commit
+    public void invalidate(Long... userIds) {
+        cache.invalidate(userIds);
+    }
+
+    private List<Candidate> ranking(Long userId) {
+        long now = System.currentTimeMillis();
+        Ranking cached = cache.get(userId);
+        if (cached != null && cached.expiresAtMillis() > now) {
+            return cached.candidates();
+        }
+        long generation = cache.generation();
+        List<Candidate> candidates = new ArrayList<>();
+        for (Object[] row : userRepository.findFriendSuggestions(userId, fanout, MAX_LIMIT * 2,
+                mutualWeight, sharedGroupWeight, sameCityWeight, MAX_LIMIT)) {
+            candidates.add(new Candidate(((Number) row[0]).longValue(), ((Number) row[1]).intValue(),
+                ((Number) row[2]).intValue(), ((Number) row[3]).intValue() == 1));
+        }
+        List<Candidate> ranked = List.copyOf(candidates);
+        cache.putIfCurrent(generation, userId, new Ranking(ranked, now + ttlSeconds * 1000));
+        return ranked;
+    }
+}
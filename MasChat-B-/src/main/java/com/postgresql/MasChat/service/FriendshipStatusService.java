@@ -0,0 +1,59 @@
+package com.postgresql.MasChat.service;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.postgresql.MasChat.repository.FriendRequestRepository;
+
+// Friendship status of one user towards many: FRIENDS from the in-memory SocialGraphService,
+// SENT/RECEIVED from one indexed query each over pending friend_requests, NONE otherwise.
+// Used by the batch status endpoint and to annotate user lists (search, suggestions).
+@Service
+public class FriendshipStatusService {
+    public static final String FRIENDS = "FRIENDS";
+    public static final String SENT = "SENT";
+    public static final String RECEIVED = "RECEIVED";
+    public static final String NONE = "NONE";
+    public static final int MAX_BATCH_SIZE = 500;
+
+    @Autowired
+    private SocialGraphService socialGraphService;
+    @Autowired
+    private FriendRequestRepository friendRequestRepository;
+
+    public String getStatus(Long userId, Long otherId) {
+        return getStatuses(userId, List.of(otherId)).get(otherId);
+    }
+
+    // One entry per distinct id, in the order given; the user's own id maps to NONE
+    public Map<Long, String> getStatuses(Long userId, Collection<Long> otherIds) {
+        Set<Long> ids = new LinkedHashSet<>(otherIds);
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " user ids per request");
+        }
+        Map<Long, String> statuses = new LinkedHashMap<>(ids.size() * 2);
+        Set<Long> unresolved = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (socialGraphService.areFriends(userId, id)) {
+                statuses.put(id, FRIENDS);
+            } else {
+                statuses.put(id, NONE);
+                if (!id.equals(userId)) {
+                    unresolved.add(id);
+                }
+            }
+        }
+        if (!unresolved.isEmpty()) {
+            friendRequestRepository.findPendingReceiverIds(userId, unresolved).forEach(id -> statuses.put(id, SENT));
+            friendRequestRepository.findPendingSenderIds(userId, unresolved).forEach(id -> statuses.replace(id, NONE, RECEIVED));
+        }
+        return statuses;
+    }
+}
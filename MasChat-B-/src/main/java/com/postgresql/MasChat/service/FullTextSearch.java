@@ -0,0 +1,57 @@
+package com.postgresql.MasChat.service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Helpers shared by the per-type searches over the search_vector columns (see V12). The queries
+// turn input into a tsquery with search_tsquery (V18), which tokenizes it the way the columns
+// were, so it can never be a syntax error.
+public final class FullTextSearch {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 50;
+    private static final int MAX_TERMS = 8;
+
+    // One ranked page of ids for normalized search input, e.g. PostRepository::searchIds
+    @FunctionalInterface
+    public interface IdSearch {
+        List<Long> search(String query, int limit, int offset);
+    }
+
+    private FullTextSearch() {}
+
+    // At most MAX_TERMS whitespace-separated words of the input, or null when there are none.
+    // Splitting into lexemes is left to Postgres, so "jane.doe" stays one term.
+    public static String normalize(String input) {
+        if (input == null) {
+            return null;
+        }
+        String[] words = input.strip().split("\\s+");
+        if (words[0].isEmpty()) {
+            return null;
+        }
+        return String.join(" ", Arrays.copyOf(words, Math.min(words.length, MAX_TERMS)));
+    }
+
+    public static int pageSize(Integer size) {
+        return size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    // Runs the ranked id query, loads the rows and returns them in rank order
+    public static <T> List<T> ranked(String query, int page, Integer size, IdSearch search,
+                                     Function<List<Long>, List<T>> loader, Function<T, Long> idOf) {
+        String normalized = normalize(query);
+        if (normalized == null) {
+            return List.of();
+        }
+        int pageSize = pageSize(size);
+        List<Long> ids = search.search(normalized, pageSize, Math.max(0, page) * pageSize);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, T> rows = loader.apply(ids).stream().collect(Collectors.toMap(idOf, Function.identity()));
+        return ids.stream().map(rows::get).filter(row -> row != null).toList();
+    }
+}
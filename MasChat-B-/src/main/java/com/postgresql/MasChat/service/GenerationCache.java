@@ -0,0 +1,77 @@
+package com.postgresql.MasChat.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Bounded LRU for values loaded from the database and invalidated by writes. Every invalidation
+// bumps a generation; a loader reads generation() before its query and stores the result only
+// if no invalidation happened since, so a load that read the old row cannot cache it.
+// Invalidation only reaches this node; with a TTL, entries are also reloaded once they are
+// ttlMillis old, which bounds how long another node's write goes unseen.
+public final class GenerationCache<K, V> {
+    private final Map<K, Entry<V>> entries;
+    private final long ttlMillis;
+    private long generation;
+
+    public GenerationCache(int maxSize) {
+        this(maxSize, 0);
+    }
+
+    // ttlMillis <= 0 keeps entries until they are evicted or invalidated
+    public GenerationCache(int maxSize, long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (ttlMillis > 0 && System.currentTimeMillis() - entry.storedAtMillis() >= ttlMillis) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value();
+    }
+
+    public synchronized long generation() {
+        return generation;
+    }
+
+    public synchronized void putIfCurrent(long loadedAt, K key, V value) {
+        if (generation == loadedAt) {
+            entries.put(key, new Entry<>(value, System.currentTimeMillis()));
+        }
+    }
+
+    public synchronized void putAllIfCurrent(long loadedAt, Map<K, V> values) {
+        if (generation == loadedAt) {
+            long now = System.currentTimeMillis();
+            values.forEach((key, value) -> entries.put(key, new Entry<>(value, now)));
+        }
+    }
+
+    // Evicts now and again once the surrounding transaction commits, so a concurrent load that
+    // still read the old rows cannot leave them cached
+    @SafeVarargs
+    public final void invalidate(K... keys) {
+        evict(keys);
+        TxCallbacks.afterCommit(() -> evict(keys));
+    }
+
+    @SafeVarargs
+    private synchronized void evict(K... keys) {
+        generation++;
+        for (K key : keys) {
+            entries.remove(key);
+        }
+    }
+
+    private record Entry<V>(V value, long storedAtMillis) {}
+}
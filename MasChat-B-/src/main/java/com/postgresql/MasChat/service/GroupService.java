@@ -2,6 +2,7 @@ package com.postgresql.MasChat.service;
 
 import com.postgresql.MasChat.dto.GroupDTO;
 import com.postgresql.MasChat.dto.GroupMemberDTO;
+import com.postgresql.MasChat.dto.UserSummaryDTO;
 import com.postgresql.MasChat.model.Group;
 import com.postgresql.MasChat.model.GroupMember;
 import com.postgresql.MasChat.model.User;
@@ -27,6 +28,8 @@ public class GroupService {
 
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private UserSummaryService userSummaryService;
 
     public List<GroupDTO> getUserGroups(Long userId) {
         List<Group> groups = groupRepository.findByMemberId(userId);
@@ -42,8 +45,8 @@ public class GroupService {
                 .collect(Collectors.toList());
     }
 
-    public List<GroupDTO> searchGroups(String searchTerm) {
-        List<Group> groups = groupRepository.searchGroups(searchTerm);
+    public List<GroupDTO> searchGroups(String searchTerm, int page, Integer size) {
+        List<Group> groups = FullTextSearch.ranked(searchTerm, page, size, groupRepository::searchIds, groupRepository::findAllById, Group::getId);
         return groups.stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
@@ -145,8 +148,10 @@ public class GroupService {
 
     public List<GroupMemberDTO> getGroupMembers(Long groupId) {
         List<GroupMember> members = groupMemberRepository.findByGroupId(groupId);
+        UserSummaryLoader users = userSummaryService.loader()
+                .registerAll(members.stream().map(member -> member.getUser().getId()).toList());
         return members.stream()
-                .map(this::convertMemberToDTO)
+                .map(member -> convertMemberToDTO(member, users.get(member.getUser().getId())))
                 .collect(Collectors.toList());
     }
 
@@ -188,12 +193,12 @@ public class GroupService {
         return dto;
     }
 
-    private GroupMemberDTO convertMemberToDTO(GroupMember member) {
+    private GroupMemberDTO convertMemberToDTO(GroupMember member, UserSummaryDTO user) {
         GroupMemberDTO dto = new GroupMemberDTO();
         dto.setId(member.getId());
         dto.setUserId(member.getUser().getId());
-        dto.setUserName(member.getUser().getFullName());
-        dto.setUserAvatar(member.getUser().getProfilePicture());
+        dto.setUserName(user != null ? user.getFullName() : null);
+        dto.setUserAvatar(user != null ? user.getProfilePicture() : null);
         dto.setRole(member.getRole().toString());
         dto.setJoinedAt(member.getJoinedAt());
         dto.setActive(member.isActive());
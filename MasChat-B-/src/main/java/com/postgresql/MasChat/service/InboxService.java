@@ -0,0 +1,164 @@
+package com.postgresql.MasChat.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.postgresql.MasChat.dto.MessageDTO;
+import com.postgresql.MasChat.dto.RecentChatDTO;
+import com.postgresql.MasChat.dto.UserSummaryDTO;
+import com.postgresql.MasChat.model.InboxEntry;
+import com.postgresql.MasChat.model.Message;
+import com.postgresql.MasChat.repository.InboxEntryRepository;
+import com.postgresql.MasChat.repository.MessageRepository;
+
+// Keeps inbox_entries in step with the messages table; writes join the caller's transaction
+@Service
+public class InboxService {
+    private static final int PREVIEW_LENGTH = 255;
+
+    @Autowired
+    private InboxEntryRepository inboxEntryRepository;
+    @Autowired
+    private MessageRepository messageRepository;
+    @Autowired
+    private PresenceService presenceService;
+    @Autowired
+    private UserSummaryService userSummaryService;
+
+    @Transactional(readOnly = true)
+    public List<RecentChatDTO> getInbox(Long userId) {
+        List<InboxEntry> entries = inboxEntryRepository.findInboxByUserId(userId);
+        UserSummaryLoader partners = userSummaryService.loader()
+            .registerAll(entries.stream().map(entry -> entry.getPartner().getId()).toList());
+        return entries.stream()
+            .map(entry -> toRecentChat(entry, partners.get(entry.getPartner().getId())))
+            .toList();
+    }
+
+    // Partner id -> messages exchanged, busiest conversation first. Reads the user's inbox rows
+    // only, never the messages table.
+    @Transactional(readOnly = true)
+    public Map<Long, Long> getChatPartners(Long userId) {
+        Map<Long, Long> partners = new LinkedHashMap<>();
+        for (Object[] row : inboxEntryRepository.findPartnerMessageCounts(userId)) {
+            partners.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+        return partners;
+    }
+
+    // Call after the message has been saved and has an id
+    @Transactional
+    public void recordMessage(Message message) {
+        Long senderId = message.getSender().getId();
+        Long recipientId = message.getRecipient().getId();
+        Long chatId = message.getChat().getId();
+        String preview = preview(message.getContent(), message.getImage());
+
+        inboxEntryRepository.upsertLastMessage(senderId, recipientId, chatId, message.getId(), preview, message.getSentAt(), 0, 1);
+        if (!senderId.equals(recipientId)) {
+            inboxEntryRepository.upsertLastMessage(recipientId, senderId, chatId, message.getId(), preview, message.getSentAt(), 1, 1);
+        }
+    }
+
+    // Batch form for the write-behind writer: one upsert per conversation side, however many
+    // messages the batch holds for it. Messages must be in send order.
+    @Transactional
+    public void recordMessages(List<MessageDTO> messages) {
+        Map<SideKey, SideUpdate> updates = new LinkedHashMap<>();
+        for (MessageDTO message : messages) {
+            Long senderId = message.getSender().getId();
+            Long recipientId = message.getRecipient().getId();
+            SideUpdate sent = updates.computeIfAbsent(new SideKey(senderId, recipientId), k -> new SideUpdate());
+            sent.last = message;
+            sent.messages++;
+            if (!senderId.equals(recipientId)) {
+                SideUpdate received = updates.computeIfAbsent(new SideKey(recipientId, senderId), k -> new SideUpdate());
+                received.last = message;
+                received.unread++;
+                received.messages++;
+            }
+        }
+        updates.forEach((side, update) -> inboxEntryRepository.upsertLastMessage(
+            side.userId(), side.partnerId(), update.last.getChatId(), update.last.getId(),
+            preview(update.last.getContent(), update.last.getImage()), update.last.getSentAt(), update.unread, update.messages));
+    }
+
+    // Call before reading the state remainingUnread is computed from, in the same transaction:
+    // messages sent meanwhile then either are counted or increment the badge after markRead
+    public void lockForRead(Long userId, Long partnerId) {
+        inboxEntryRepository.lockEntry(userId, partnerId);
+    }
+
+    // remainingUnread is derived from the reader's watermark: messages newer than it stay unread
+    @Transactional
+    public void markRead(Long userId, Long partnerId, long remainingUnread) {
+        inboxEntryRepository.setUnread(userId, partnerId, remainingUnread);
+    }
+
+    // Call after the message row has been deleted
+    @Transactional
+    public void recordDeletion(Message message) {
+        Long chatId = message.getChat().getId();
+        if (!message.isRead()) {
+            inboxEntryRepository.decrementUnread(message.getRecipient().getId(), message.getSender().getId());
+        }
+
+        List<Message> latest = messageRepository.findLatestByChatId(chatId, 0L, PageRequest.of(0, 1));
+        if (latest.isEmpty()) {
+            inboxEntryRepository.deleteByChatId(chatId);
+            return;
+        }
+        Message newLast = latest.get(0);
+        inboxEntryRepository.replaceLastMessage(chatId, message.getId(), newLast.getId(),
+            preview(newLast.getContent(), newLast.getImage()), newLast.getSentAt());
+    }
+
+    @Transactional
+    public void clearChat(Long chatId) {
+        inboxEntryRepository.deleteByChatId(chatId);
+    }
+
+    // One participant cleared their side; the row comes back with the next message
+    @Transactional
+    public void clearSide(Long userId, Long partnerId) {
+        inboxEntryRepository.deleteByUserIdAndPartnerId(userId, partnerId);
+    }
+
+    private RecentChatDTO toRecentChat(InboxEntry entry, UserSummaryDTO partner) {
+        Long partnerId = entry.getPartner().getId();
+        return new RecentChatDTO(
+            partnerId,
+            partner != null ? partner.getUsername() : null,
+            partner != null ? partner.getFullName() : null,
+            partner != null ? partner.getProfilePicture() : null,
+            entry.getLastMessagePreview(),
+            entry.getLastMessageAt(),
+            entry.getUnreadCount(),
+            presenceService.isOnline(partnerId)
+        );
+    }
+
+    private String preview(String content, String image) {
+        if ((content == null || content.isBlank()) && image != null) {
+            return "[Image]";
+        }
+        if (content == null) {
+            return "";
+        }
+        return content.length() > PREVIEW_LENGTH ? content.substring(0, PREVIEW_LENGTH) : content;
+    }
+
+    private record SideKey(Long userId, Long partnerId) {}
+
+    private static class SideUpdate {
+        MessageDTO last;
+        long unread;
+        long messages;
+    }
+}
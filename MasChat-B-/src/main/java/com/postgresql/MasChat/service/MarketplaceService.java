@@ -24,6 +24,8 @@ public class MarketplaceService {
     private MarketplaceOrderRepository orderRepository;
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private ResourceVersionService resourceVersionService;
 
     public List<MarketplaceItem> getAllItems() {
         try {
@@ -68,7 +70,9 @@ public class MarketplaceService {
         // Set the validated seller
         item.setSeller(seller);
         
-        return itemRepository.save(item);
+        MarketplaceItem saved = itemRepository.save(item);
+        resourceVersionService.bump(ResourceVersionService.MARKETPLACE);
+        return saved;
     }
 
     public MarketplaceItem updateItem(Long id, MarketplaceItem updated) {
@@ -84,16 +88,19 @@ public class MarketplaceService {
             item.setLocation(updated.getLocation());
             item.setStatus(updated.getStatus());
             item.setUpdatedAt(java.time.LocalDateTime.now());
-            return itemRepository.save(item);
+            MarketplaceItem saved = itemRepository.save(item);
+            resourceVersionService.bump(ResourceVersionService.MARKETPLACE);
+            return saved;
         }).orElseThrow();
     }
 
     public void deleteItem(Long id) {
         itemRepository.deleteById(id);
+        resourceVersionService.bump(ResourceVersionService.MARKETPLACE);
     }
 
-    public List<MarketplaceItem> searchItems(String keyword) {
-        return itemRepository.findByTitleContainingIgnoreCaseWithSeller(keyword);
+    public List<MarketplaceItem> searchItems(String keyword, int page, Integer size) {
+        return FullTextSearch.ranked(keyword, page, size, itemRepository::searchIds, itemRepository::findWithSellerByIdIn, MarketplaceItem::getId);
     }
 
     public List<MarketplaceItem> filterByCategory(Long categoryId) {
@@ -145,6 +152,7 @@ public class MarketplaceService {
             item.setStatus(status);
             item.setUpdatedAt(java.time.LocalDateTime.now());
             itemRepository.save(item);
+            resourceVersionService.bump(ResourceVersionService.MARKETPLACE);
         });
     }
 
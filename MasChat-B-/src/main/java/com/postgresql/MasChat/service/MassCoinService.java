@@ -1,6 +1,7 @@
 package com.postgresql.MasChat.service;
 
 import com.postgresql.MasChat.dto.MassCoinDTO;
+import com.postgresql.MasChat.dto.MessageDTO;
 import com.postgresql.MasChat.model.MassCoinTransaction;
 import com.postgresql.MasChat.model.MassCoinTransferRequest;
 import com.postgresql.MasChat.model.Notification;
@@ -21,7 +22,6 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -65,7 +65,18 @@ public class MassCoinService {
     private com.postgresql.MasChat.repository.MessageRepository messageRepository;
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private RealtimeEventPublisher realtimeEventPublisher;
+
+    @Autowired
+    private InboxService inboxService;
+
+    @Autowired
+    private AffinityService affinityService;
+
+    @Autowired
+    private ChatLookupService chatLookupService;
+    @Autowired
+    private UserSummaryService userSummaryService;
 
     // Initialize wallet with 1000 tokens for new users
     @Transactional
@@ -350,14 +361,7 @@ public class MassCoinService {
 
         // Create a chat message so both users see the tip in their chat history
         try {
-            com.postgresql.MasChat.model.Chat chat = chatRepository
-                .findByUser1AndUser2OrUser2AndUser1(sender, recipient, sender, recipient)
-                .orElseGet(() -> {
-                    com.postgresql.MasChat.model.Chat newChat = new com.postgresql.MasChat.model.Chat();
-                    newChat.setUser1(sender);
-                    newChat.setUser2(recipient);
-                    return chatRepository.save(newChat);
-                });
+            Long chatId = chatLookupService.resolveChatId(sender.getId(), recipient.getId());
 
             com.postgresql.MasChat.model.Message tipMessage = new com.postgresql.MasChat.model.Message();
             tipMessage.setSender(sender);
@@ -375,22 +379,15 @@ public class MassCoinService {
             }
             contentBuilder.append(" (Tx #").append(transaction.getId()).append(")");
             tipMessage.setContent(contentBuilder.toString());
-            tipMessage.setChat(chat);
+            tipMessage.setChat(chatRepository.getReferenceById(chatId));
             tipMessage.setSentAt(java.time.LocalDateTime.now());
             tipMessage = messageRepository.save(tipMessage);
+            inboxService.recordMessage(tipMessage);
 
             // Broadcast to both users over WebSocket so it appears immediately
             try {
-                messagingTemplate.convertAndSendToUser(
-                    recipient.getId().toString(),
-                    "/queue/messages",
-                    tipMessage
-                );
-                messagingTemplate.convertAndSendToUser(
-                    sender.getId().toString(),
-                    "/queue/messages",
-                    tipMessage
-                );
+                realtimeEventPublisher.sendToUsers("/queue/messages", MessageDTO.fromEntity(tipMessage),
+                    recipient.getId(), sender.getId());
             } catch (Exception e) {
                 System.err.println("Failed to broadcast MASS TIP chat message: " + e.getMessage());
             }
@@ -415,11 +412,18 @@ public class MassCoinService {
         return transferRequestRepository.countByRecipientIdAndStatus(userId, MassCoinTransferRequest.RequestStatus.PENDING);
     }
 
-    // Get transactions for a user
+    // Get transactions for a user; counterparties are loaded in one batch
+    @Transactional(readOnly = true)
     public Page<MassCoinDTO.TransactionInfo> getUserTransactions(Long userId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         Page<MassCoinTransaction> transactions = transactionRepository.findBySenderIdOrRecipientIdOrderByCreatedAtDesc(userId, pageable);
-        return transactions.map(MassCoinDTO.TransactionInfo::new);
+        UserSummaryLoader users = userSummaryService.loader();
+        transactions.forEach(transaction -> users
+            .register(transaction.getSender() != null ? transaction.getSender().getId() : null)
+            .register(transaction.getRecipient().getId()));
+        return transactions.map(transaction -> new MassCoinDTO.TransactionInfo(transaction,
+            users.get(transaction.getSender() != null ? transaction.getSender().getId() : null),
+            users.get(transaction.getRecipient().getId())));
     }
 
     // Get user statistics
@@ -550,7 +554,9 @@ public class MassCoinService {
             MassCoinTransferRequest.ContextType.REEL);
         request.setContextId(postId);
         
-        return transferMass(senderId, request);
+        MassCoinDTO.TransactionInfo transaction = transferMass(senderId, request);
+        affinityService.record(senderId, recipient.getId(), AffinityService.Interaction.TIP);
+        return transaction;
     }
 
     // Reward user (system reward)
@@ -0,0 +1,287 @@
+package com.postgresql.MasChat.service;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.postgresql.MasChat.config.AppConfig;
+import com.postgresql.MasChat.model.Attachment;
+import com.postgresql.MasChat.repository.AttachmentRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Turns uploaded images into a thumbnail and a medium variant plus a blurhash placeholder on a
+// bounded worker pool, off the request thread. A full queue leaves the attachment PENDING; the
+// sweeper requeues attachments that stay unfinished (full queue, crash, restart) after
+// media.retry-after-seconds.
+@Service
+public class MediaProcessingService {
+    private static final Logger logger = LoggerFactory.getLogger(MediaProcessingService.class);
+    private static final Set<Attachment.Status> UNFINISHED = EnumSet.of(Attachment.Status.PENDING, Attachment.Status.PROCESSING);
+    private static final int BLURHASH_SIZE = 32;
+
+    @Autowired
+    private AttachmentRepository attachmentRepository;
+    @Autowired
+    private AppConfig appConfig;
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
+    @Value("${media.workers:2}")
+    private int workerCount;
+    @Value("${media.queue-capacity:200}")
+    private int queueCapacity;
+    @Value("${media.thumbnail-width:320}")
+    private int thumbnailWidth;
+    @Value("${media.medium-width:1080}")
+    private int mediumWidth;
+    @Value("${media.variant-format:jpeg}")
+    private String variantFormat;
+    @Value("${media.jpeg-quality:0.8}")
+    private float jpegQuality;
+    @Value("${media.max-pixels:50000000}")
+    private long maxPixels;
+    @Value("${media.retry-after-seconds:300}")
+    private long retryAfterSeconds;
+
+    private ThreadPoolExecutor workers;
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "media-sweep");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Attachments queued or running on this node, so a sweep does not queue them twice
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), r -> {
+                Thread thread = new Thread(r, "media-worker-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        variantFormat = variantFormat.toLowerCase(Locale.ROOT);
+        if (!"jpeg".equals(variantFormat) && !ImageIO.getImageWritersByFormatName(variantFormat).hasNext()) {
+            logger.warn("No ImageIO writer for media.variant-format={}, writing jpeg variants", variantFormat);
+            variantFormat = "jpeg";
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        long interval = Math.max(1, retryAfterSeconds);
+        sweeper.scheduleWithFixedDelay(this::sweepSafely, 0, interval, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+        workers.shutdown();
+    }
+
+    // Queued once the upload's transaction commits, so a worker always finds the row
+    public void submit(Long attachmentId) {
+        TxCallbacks.afterCommit(() -> enqueue(attachmentId, false));
+    }
+
+    private boolean enqueue(Long attachmentId, boolean retry) {
+        if (!inFlight.add(attachmentId)) {
+            return true;
+        }
+        try {
+            workers.execute(() -> process(attachmentId, retry));
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(attachmentId);
+            logger.warn("Media queue full, attachment {} left for the sweeper", attachmentId);
+            return false;
+        }
+    }
+
+    private void sweepSafely() {
+        try {
+            List<Long> ids = attachmentRepository.findIdsByStatusBefore(UNFINISHED, LocalDateTime.now().minusSeconds(retryAfterSeconds));
+            for (Long id : ids) {
+                if (!enqueue(id, true)) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Media sweep failed: {}", e.getMessage());
+        }
+    }
+
+    private void process(Long attachmentId, boolean retry) {
+        try {
+            // A retry may take over a PROCESSING row whose worker died; live workers finish long before
+            boolean claimed = attachmentRepository.updateStatus(attachmentId, Attachment.Status.PENDING, Attachment.Status.PROCESSING) == 1
+                || (retry && attachmentRepository.updateStatus(attachmentId, Attachment.Status.PROCESSING, Attachment.Status.PROCESSING) == 1);
+            if (!claimed) {
+                return;
+            }
+            Attachment attachment = attachmentRepository.findById(attachmentId).orElse(null);
+            if (attachment == null) {
+                return;
+            }
+            try {
+                render(attachment);
+                attachmentRepository.markProcessed(attachmentId, Attachment.Status.READY, attachment.getWidth(), attachment.getHeight(),
+                    attachment.getBlurhash(), attachment.getThumbnailUrl(), attachment.getMediumUrl(), LocalDateTime.now());
+            } catch (Exception e) {
+                logger.warn("Processing attachment {} ({}) failed: {}", attachmentId, attachment.getFileName(), e.getMessage());
+                attachmentRepository.markProcessed(attachmentId, Attachment.Status.FAILED, null, null, null, null, null, LocalDateTime.now());
+            }
+            // Feed payloads of the post now carry the variants. Read after markProcessed: the
+            // upload is usually linked to its post while it is being processed, and a link
+            // committed later bumps the version itself.
+            if (attachmentRepository.findPostId(attachmentId) != null) {
+                resourceVersionService.bump(ResourceVersionService.POSTS);
+            }
+        } catch (Exception e) {
+            logger.warn("Media worker failed on attachment {}: {}", attachmentId, e.getMessage());
+        } finally {
+            inFlight.remove(attachmentId);
+        }
+    }
+
+    // Fills in dimensions, blurhash and variant URLs. Variants are only made where the original
+    // is wider; otherwise the next larger URL is reused.
+    private void render(Attachment attachment) throws IOException {
+        Path source = MediaService.UPLOAD_DIR.resolve(attachment.getFileName());
+        BufferedImage image;
+        int width;
+        int height;
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                width = reader.getWidth(0);
+                height = reader.getHeight(0);
+                // Checked from the header, before any pixels are decoded
+                if ((long) width * height > maxPixels) {
+                    throw new IOException("image is " + width + "x" + height + ", over media.max-pixels=" + maxPixels);
+                }
+                // Decode large originals subsampled so the longer side is about twice the medium
+                // width, which bounds memory; the final resize below smooths the result
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.max(width, height) / (2 * mediumWidth));
+                param.setSourceSubsampling(step, step, 0, 0);
+                image = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        attachment.setWidth(width);
+        attachment.setHeight(height);
+        // Longer side at most BLURHASH_SIZE, so tall images stay cheap to encode
+        int longest = Math.max(image.getWidth(), image.getHeight());
+        int blurWidth = Math.max(1, (int) ((long) image.getWidth() * Math.min(BLURHASH_SIZE, longest) / longest));
+        attachment.setBlurhash(Blurhash.encode(scale(image, blurWidth), 4, 3));
+
+        String base = attachment.getFileName().replaceFirst("\\.[^.]+$", "");
+        // Re-encoding an animated GIF would keep only its first frame
+        boolean animated = attachment.getFileName().toLowerCase(Locale.ROOT).endsWith(".gif");
+        String medium = attachment.getUrl();
+        if (width > mediumWidth && !animated) {
+            medium = writeVariant(scale(image, mediumWidth), base + "_w" + mediumWidth);
+        }
+        attachment.setMediumUrl(medium);
+        attachment.setThumbnailUrl(width > thumbnailWidth
+            ? writeVariant(scale(image, thumbnailWidth), base + "_w" + thumbnailWidth)
+            : medium);
+    }
+
+    private String writeVariant(BufferedImage image, String name) throws IOException {
+        String fileName = name + ("jpeg".equals(variantFormat) ? ".jpg" : "." + variantFormat);
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(variantFormat).next();
+        try (OutputStream out = Files.newOutputStream(MediaService.UPLOAD_DIR.resolve(fileName));
+             ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if ("jpeg".equals(variantFormat)) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(jpegQuality);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return appConfig.getUploadUrl(fileName);
+    }
+
+    // Opaque RGB at targetWidth (never wider than the source), halving first so large reductions
+    // stay smooth under bilinear
+    private static BufferedImage scale(BufferedImage source, int targetWidth) {
+        targetWidth = Math.min(targetWidth, source.getWidth());
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        boolean first = true;
+        do {
+            int nextWidth = Math.max(targetWidth, width / 2);
+            int nextHeight = Math.max(1, (int) Math.round((double) height * nextWidth / width));
+            BufferedImage next = new BufferedImage(nextWidth, nextHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                if (first) {
+                    // Transparent PNG/GIF areas become white rather than black
+                    g.setColor(Color.WHITE);
+                    g.fillRect(0, 0, nextWidth, nextHeight);
+                }
+                g.drawImage(current, 0, 0, nextWidth, nextHeight, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+            width = nextWidth;
+            height = nextHeight;
+            first = false;
+        } while (width > targetWidth);
+        return current;
+    }
+}
@@ -0,0 +1,123 @@
+package com.postgresql.MasChat.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.imageio.ImageIO;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.postgresql.MasChat.config.AppConfig;
+import com.postgresql.MasChat.dto.AttachmentDTO;
+import com.postgresql.MasChat.exception.ResourceNotFoundException;
+import com.postgresql.MasChat.model.Attachment;
+import com.postgresql.MasChat.model.Post;
+import com.postgresql.MasChat.repository.AttachmentRepository;
+
+// Uploads: the request body is streamed to uploads/ (served by WebConfig) and recorded as an
+// Attachment. Images are handed to MediaProcessingService for variants; videos are stored as-is.
+@Service
+public class MediaService {
+    static final Path UPLOAD_DIR = Paths.get("uploads");
+    // Formats MediaProcessingService can decode; webp only when an ImageIO reader for it is on
+    // the classpath, as the JDK has none
+    private static final Set<String> IMAGE_EXTENSIONS = Stream.of("jpg", "jpeg", "png", "gif", "bmp", "webp")
+        .filter(extension -> ImageIO.getImageReadersBySuffix(extension).hasNext())
+        .collect(Collectors.toUnmodifiableSet());
+    private static final Set<String> VIDEO_EXTENSIONS = Set.of("mp4", "mov", "m4v", "webm");
+
+    @Autowired
+    private AttachmentRepository attachmentRepository;
+    @Autowired
+    private MediaProcessingService mediaProcessingService;
+    @Autowired
+    private AppConfig appConfig;
+
+    // type prefixes the stored file name, e.g. "post" or "marketplace"
+    @Transactional
+    public Attachment store(MultipartFile file, Long userId, String type) throws IOException {
+        String extension = extension(file.getOriginalFilename());
+        boolean image = IMAGE_EXTENSIONS.contains(extension);
+        if (!image && !VIDEO_EXTENSIONS.contains(extension)) {
+            throw new IllegalArgumentException("Unsupported file type: " + extension);
+        }
+        Files.createDirectories(UPLOAD_DIR);
+        String fileName = type + "_" + UUID.randomUUID() + "." + extension;
+        Path target = UPLOAD_DIR.resolve(fileName);
+        try (InputStream in = file.getInputStream()) {
+            Files.copy(in, target);
+        }
+
+        Attachment attachment = new Attachment();
+        attachment.setFileName(fileName);
+        attachment.setFileType((image ? "image/" : "video/") + ("jpg".equals(extension) ? "jpeg" : extension));
+        attachment.setUrl(appConfig.getUploadUrl(fileName));
+        attachment.setUserId(userId);
+        // Video transcoding is not done here; a video is usable as uploaded
+        attachment.setStatus(image ? Attachment.Status.PENDING : Attachment.Status.READY);
+        try {
+            attachment = attachmentRepository.save(attachment);
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
+        if (image) {
+            mediaProcessingService.submit(attachment.getId());
+        }
+        return attachment;
+    }
+
+    public AttachmentDTO getAttachment(Long id) {
+        return attachmentRepository.findById(id)
+            .map(AttachmentDTO::fromEntity)
+            .orElseThrow(() -> new ResourceNotFoundException("Attachment " + id + " not found"));
+    }
+
+    // Links the user's own unattached uploads to a new post; other ids are ignored
+    @Transactional
+    public List<Attachment> attachToPost(Post post, Collection<Long> attachmentIds, Long userId) {
+        if (attachmentIds == null || attachmentIds.isEmpty()) {
+            return List.of();
+        }
+        List<Attachment> attachments = attachmentRepository.findUnattached(attachmentIds, userId);
+        attachments.forEach(attachment -> attachment.setPost(post));
+        return attachments;
+    }
+
+    // Media of a page of posts in one query, keyed by post id
+    public Map<Long, List<AttachmentDTO>> getPostMedia(Collection<Long> postIds) {
+        if (postIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, List<AttachmentDTO>> media = new HashMap<>();
+        for (Attachment attachment : attachmentRepository.findByPostIdIn(postIds)) {
+            media.computeIfAbsent(attachment.getPost().getId(), id -> new ArrayList<>()).add(AttachmentDTO.fromEntity(attachment));
+        }
+        return media;
+    }
+
+    private static String extension(String originalFileName) {
+        int dot = originalFileName == null ? -1 : originalFileName.lastIndexOf('.');
+        String extension = dot < 0 ? "" : originalFileName.substring(dot + 1).toLowerCase(Locale.ROOT);
+        if (extension.isEmpty()) {
+            throw new IllegalArgumentException("File name has no extension");
+        }
+        return extension;
+    }
+}
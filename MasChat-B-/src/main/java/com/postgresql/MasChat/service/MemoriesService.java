@@ -156,8 +156,8 @@ public class MemoriesService {
         memory.setDescription(post.getContent());
         memory.setImageUrl(post.getImageUrl() != null ? post.getImageUrl() : "");
         memory.setDate(post.getCreatedAt());
-        memory.setLikes((long) post.getLikedBy().size());
-        memory.setComments((long) post.getComments().size());
+        memory.setLikes((long) post.getLikeCount());
+        memory.setComments((long) post.getCommentCount());
         memory.setShares(0L); // TODO: Implement shares
         memory.setViews(0L); // TODO: Implement views
         memory.setVideo(false);
@@ -173,7 +173,7 @@ public class MemoriesService {
         memory.setDescription(story.getCaption());
         memory.setImageUrl(story.getMediaUrl());
         memory.setDate(story.getCreatedAt());
-        memory.setLikes(0L); // Stories typically don't have likes
+        memory.setLikes((long) story.getLikeCount());
         memory.setComments(0L); // Stories typically don't have comments
         memory.setShares(0L);
         memory.setViews(0L);
@@ -190,8 +190,8 @@ public class MemoriesService {
         memory.setDescription(reel.getCaption());
         memory.setImageUrl(reel.getMediaUrl());
         memory.setDate(reel.getCreatedAt());
-        memory.setLikes((long) reel.getLikedBy().size());
-        memory.setComments((long) reel.getComments().size());
+        memory.setLikes((long) reel.getLikeCount());
+        memory.setComments((long) reel.getCommentCount());
         memory.setShares((long) reel.getShareCount());
         memory.setViews(0L);
         memory.setVideo(true);
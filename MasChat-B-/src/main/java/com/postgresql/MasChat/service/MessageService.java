@@ -1,53 +1,94 @@
 package com.postgresql.MasChat.service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.postgresql.MasChat.model.Message;
 import com.postgresql.MasChat.model.User;
 import com.postgresql.MasChat.repository.MessageRepository;
 import com.postgresql.MasChat.repository.UserRepository;
 import com.postgresql.MasChat.repository.ChatRepository;
-import com.postgresql.MasChat.model.Chat;
+import com.postgresql.MasChat.repository.ChatHistoryClearRepository;
+import com.postgresql.MasChat.repository.ChatReadReceiptRepository;
+import com.postgresql.MasChat.dto.ConversationDeletionDTO;
+import com.postgresql.MasChat.dto.MessagePageDTO;
+import com.postgresql.MasChat.dto.ReadReceiptDTO;
 import com.postgresql.MasChat.dto.RecentChatDTO;
 
 @Service
 public class MessageService {
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private MessageRepository messageRepository;
     @Autowired
     private UserRepository userRepository;
     @Autowired
     private ChatRepository chatRepository;
+    @Autowired
+    private ChatLookupService chatLookupService;
+    @Autowired
+    private InboxService inboxService;
+    @Autowired
+    private ChatReadReceiptRepository chatReadReceiptRepository;
+    @Autowired
+    private RealtimeEventPublisher realtimeEventPublisher;
+    @Autowired
+    private ChatHistoryClearRepository chatHistoryClearRepository;
+    @Autowired
+    private ConversationDeletionService conversationDeletionService;
+    @Autowired
+    private AffinityService affinityService;
 
+    @Transactional
     public Message sendMessage(Long senderId, Long recipientId, String content) {
         User sender = userRepository.findById(senderId).orElseThrow();
         User recipient = userRepository.findById(recipientId).orElseThrow();
-
-        // Find or create chat
-        Chat chat = chatRepository.findByUser1AndUser2OrUser2AndUser1(sender, recipient, sender, recipient)
-            .orElseGet(() -> {
-                Chat newChat = new Chat();
-                newChat.setUser1(sender);
-                newChat.setUser2(recipient);
-                return chatRepository.save(newChat);
-            });
+        Long chatId = chatLookupService.resolveChatId(senderId, recipientId);
 
         Message message = new Message();
         message.setSender(sender);
         message.setRecipient(recipient);
         message.setContent(content);
         message.setSentAt(LocalDateTime.now());
-        message.setChat(chat);
-        return messageRepository.save(message);
+        message.setChat(chatRepository.getReferenceById(chatId));
+        Message saved = messageRepository.save(message);
+        inboxService.recordMessage(saved);
+        affinityService.recordMessage(senderId, recipientId);
+        return saved;
     }
 
+    // STOMP hot path: with a cached chat id this issues no reads, only the message insert and
+    // inbox upserts. Users and chat are references, so callers must not serialize the entity.
+    @Transactional
+    public Message sendChatMessage(Long senderId, Long recipientId, String content) {
+        Long chatId = chatLookupService.resolveChatId(senderId, recipientId);
+
+        Message message = new Message();
+        message.setSender(userRepository.getReferenceById(senderId));
+        message.setRecipient(userRepository.getReferenceById(recipientId));
+        message.setContent(content);
+        message.setSentAt(LocalDateTime.now());
+        message.setChat(chatRepository.getReferenceById(chatId));
+        Message saved = messageRepository.save(message);
+        inboxService.recordMessage(saved);
+        affinityService.recordMessage(senderId, recipientId);
+        return saved;
+    }
+
+    @Transactional
     public Message sendImageMessage(Long senderId, Long recipientId, String imageUrl, String content) {
         try {
             // Validate inputs
@@ -57,15 +98,7 @@ public class MessageService {
             
             User sender = userRepository.findById(senderId).orElseThrow();
             User recipient = userRepository.findById(recipientId).orElseThrow();
-
-            // Find or create chat
-            Chat chat = chatRepository.findByUser1AndUser2OrUser2AndUser1(sender, recipient, sender, recipient)
-                .orElseGet(() -> {
-                    Chat newChat = new Chat();
-                    newChat.setUser1(sender);
-                    newChat.setUser2(recipient);
-                    return chatRepository.save(newChat);
-                });
+            Long chatId = chatLookupService.resolveChatId(senderId, recipientId);
 
             Message message = new Message();
             message.setSender(sender);
@@ -73,8 +106,11 @@ public class MessageService {
             message.setContent(content);
             message.setImage(imageUrl); // Set the image URL
             message.setSentAt(LocalDateTime.now());
-            message.setChat(chat);
-            return messageRepository.save(message);
+            message.setChat(chatRepository.getReferenceById(chatId));
+            Message saved = messageRepository.save(message);
+            inboxService.recordMessage(saved);
+            affinityService.recordMessage(senderId, recipientId);
+            return saved;
         } catch (Exception e) {
             System.err.println("Error in sendImageMessage service: " + e.getMessage());
             e.printStackTrace();
@@ -82,61 +118,106 @@ public class MessageService {
         }
     }
 
-    public List<Message> getConversation(Long userId1, Long userId2) {
-        List<Message> messages = messageRepository.findConversationBetweenUsers(userId1, userId2);
-        // Deduplicate by id
-        LinkedHashMap<Long, Message> unique = new LinkedHashMap<>();
-        for (Message m : messages) unique.put(m.getId(), m);
-        return new ArrayList<>(unique.values());
+    public MessagePageDTO getConversation(Long userId1, Long userId2, String before, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        Optional<Long> chatId = chatLookupService.findChatId(userId1, userId2);
+        if (chatId.isEmpty()) {
+            return MessagePageDTO.empty();
+        }
+
+        // userId1 is the viewer; hide whatever they cleared on their side
+        Long clearedUpTo = chatHistoryClearRepository.findClearedUpTo(chatId.get(), userId1).orElse(0L);
+
+        // Fetch one extra row to learn whether an older page exists
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        List<Message> messages;
+        if (before == null || before.isBlank()) {
+            messages = messageRepository.findLatestByChatId(chatId.get(), clearedUpTo, page);
+        } else {
+            HistoryCursor cursor = decodeCursor(before);
+            messages = messageRepository.findByChatIdBefore(chatId.get(), clearedUpTo, cursor.sentAt(), cursor.id(), page);
+        }
+
+        boolean hasMore = messages.size() > pageSize;
+        if (hasMore) {
+            messages = messages.subList(0, pageSize);
+        }
+        String nextCursor = hasMore ? encodeCursor(messages.get(messages.size() - 1)) : null;
+        return new MessagePageDTO(messages, nextCursor, hasMore);
     }
 
+    private String encodeCursor(Message message) {
+        String raw = message.getSentAt() + "|" + message.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private HistoryCursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new HistoryCursor(
+                LocalDateTime.parse(raw.substring(0, separator)),
+                Long.valueOf(raw.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid conversation cursor: " + cursor);
+        }
+    }
+
+    // Position of the oldest message already delivered to the client
+    private record HistoryCursor(LocalDateTime sentAt, Long id) {}
+
     public List<RecentChatDTO> getRecentChats(Long userId) {
         // Ensure user exists or throw
         userRepository.findById(userId).orElseThrow();
+        return inboxService.getInbox(userId);
+    }
 
-        // Get all conversations for this user
-        List<Message> allMessages = messageRepository.findBySenderIdOrRecipientIdOrderBySentAtDesc(userId);
-        
-        // Group by conversation partner and get latest message
-        return allMessages.stream()
-            .collect(Collectors.groupingBy(msg -> {
-                if (msg.getSender().getId().equals(userId)) {
-                    return msg.getRecipient();
-                } else {
-                    return msg.getSender();
-                }
-            }))
-            .entrySet().stream()
-            .map(entry -> {
-                User partner = entry.getKey();
-                List<Message> conversation = entry.getValue();
-                Message latestMessage = conversation.get(0); // Already sorted by sentAt desc
-                
-                // Count unread messages
-                long unreadCount = conversation.stream()
-                    .filter(msg -> !msg.getSender().getId().equals(userId) && !msg.isRead())
-                    .count();
-                
-                return new RecentChatDTO(
-                    partner.getId(),
-                    partner.getUsername(),
-                    partner.getFullName(),
-                    partner.getProfilePicture(),
-                    latestMessage.getContent(),
-                    latestMessage.getSentAt(),
-                    unreadCount,
-                    partner.getOnline() != null ? partner.getOnline() : false
-                );
-            })
-            .collect(Collectors.toList());
+    // Advances the reader's watermark to upToMessageId (latest message when null) and flips the
+    // per-message read flags in one UPDATE, then tells both participants about the new watermark
+// after commit.
+    // The badge is recounted from the watermark under the inbox row lock, so a message arriving
+    // mid-call is never dropped from it.
+    @Transactional
+    public ReadReceiptDTO markMessagesAsRead(Long userId, Long partnerId, Long upToMessageId) {
+        Optional<Long> chatId = chatLookupService.findChatId(userId, partnerId);
+        if (chatId.isEmpty()) {
+            return null;
+        }
+        inboxService.lockForRead(userId, partnerId);
+        Long upTo = upToMessageId;
+        if (upTo == null) {
+            List<Long> latest = messageRepository.findLatestIdByChatId(chatId.get(), PageRequest.of(0, 1));
+            if (latest.isEmpty()) {
+                return null;
+            }
+            upTo = latest.get(0);
+        }
+
+        LocalDateTime readAt = LocalDateTime.now();
+        chatReadReceiptRepository.advanceWatermark(chatId.get(), userId, upTo, readAt);
+        Long watermark = chatReadReceiptRepository.findWatermark(chatId.get(), userId).orElse(upTo);
+        messageRepository.markReadUpTo(chatId.get(), userId, watermark);
+        inboxService.markRead(userId, partnerId, messageRepository.countAfterWatermark(chatId.get(), userId, watermark));
+
+        ReadReceiptDTO receipt = new ReadReceiptDTO(chatId.get(), userId, watermark, readAt);
+        // Pushed once committed, so a rollback never shows the sender a read that did not happen.
+        // The reader's other devices clear their badges too.
+        TxCallbacks.afterCommit(() -> realtimeEventPublisher.sendToUsers("/queue/messages", receipt, partnerId, userId));
+        return receipt;
     }
 
-    public void markMessagesAsRead(Long userId, Long partnerId) {
-        List<Message> unreadMessages = messageRepository.findByRecipientIdAndSenderIdAndReadFalse(userId, partnerId);
-        unreadMessages.forEach(msg -> msg.setRead(true));
-        messageRepository.saveAll(unreadMessages);
+    public Map<Long, Long> getReadWatermarks(Long userId, Long partnerId) {
+        Map<Long, Long> watermarks = new HashMap<>();
+        chatLookupService.findChatId(userId, partnerId).ifPresent(chatId -> {
+            chatReadReceiptRepository.findWatermark(chatId, userId).ifPresent(id -> watermarks.put(userId, id));
+            chatReadReceiptRepository.findWatermark(chatId, partnerId).ifPresent(id -> watermarks.put(partnerId, id));
+        });
+        return watermarks;
     }
 
+    @Transactional
     public void deleteMessage(Long messageId, Long userId) {
         Message message = messageRepository.findById(messageId).orElseThrow();
         
@@ -146,16 +227,30 @@ public class MessageService {
         }
         
         messageRepository.delete(message);
+        inboxService.recordDeletion(message);
     }
 
-    public void deleteConversation(Long userId, Long partnerId) {
-        User user = userRepository.findById(userId).orElseThrow();
-        User partner = userRepository.findById(partnerId).orElseThrow();
-        
-        List<Message> conversation = messageRepository.findBySenderAndRecipientOrSenderAndRecipientOrderBySentAt(
-            user, partner, partner, user
-        );
-        
-        messageRepository.deleteAll(conversation);
+    // forEveryone removes the chat for both sides in a background job; otherwise only the caller's
+    // view is cleared and the partner keeps their history
+    @Transactional
+    public ConversationDeletionDTO deleteConversation(Long userId, Long partnerId, boolean forEveryone) {
+        Optional<Long> chatId = chatLookupService.findChatId(userId, partnerId);
+        if (chatId.isEmpty()) {
+            return null;
+        }
+        if (forEveryone) {
+            return conversationDeletionService.submit(chatId.get());
+        }
+
+        Long upToId = messageRepository.findMaxIdByChatId(chatId.get());
+        if (upToId != null) {
+            chatHistoryClearRepository.advanceClear(chatId.get(), userId, upToId, LocalDateTime.now());
+        }
+        inboxService.clearSide(userId, partnerId);
+        return null;
+    }
+
+    public Optional<ConversationDeletionDTO> getConversationDeletion(String jobId) {
+        return conversationDeletionService.getStatus(jobId);
     }
 }
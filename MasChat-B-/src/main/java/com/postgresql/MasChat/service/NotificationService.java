@@ -1,5 +1,6 @@
 package com.postgresql.MasChat.service;
 
+import com.postgresql.MasChat.dto.NotificationEventDTO;
 import com.postgresql.MasChat.model.Notification;
 import com.postgresql.MasChat.model.User;
 import com.postgresql.MasChat.repository.NotificationRepository;
@@ -7,20 +8,19 @@ import com.postgresql.MasChat.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import java.util.List;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.data.domain.PageRequest;
 import java.time.LocalDateTime;
-import java.util.Map;
-import java.util.HashMap;
 
 @Service
 public class NotificationService {
+    private static final String NOTIFICATION_QUEUE = "/queue/notifications";
+
     @Autowired
     private NotificationRepository notificationRepository;
     @Autowired
     private UserRepository userRepository; // kept for future use
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private RealtimeEventPublisher realtimeEventPublisher;
 
     public Notification createNotification(User user, String message) {
         return createNotification(user, "Notification", message, Notification.NotificationType.SYSTEM_MESSAGE);
@@ -38,25 +38,7 @@ public class NotificationService {
         
         // Send via WebSocket with enhanced payload
         try {
-            Map<String, Object> notificationPayload = new HashMap<>();
-            notificationPayload.put("id", saved.getId());
-            notificationPayload.put("message", saved.getMessage());
-            notificationPayload.put("title", saved.getTitle());
-            notificationPayload.put("read", saved.isRead());
-            notificationPayload.put("createdAt", saved.getCreatedAt());
-            notificationPayload.put("type", "NEW_NOTIFICATION");
-            // Optional metadata if present
-            if (saved.getRelatedId() != null) notificationPayload.put("relatedId", saved.getRelatedId());
-            if (saved.getRelatedType() != null) notificationPayload.put("relatedType", saved.getRelatedType());
-            if (saved.getSenderId() != null) notificationPayload.put("senderId", saved.getSenderId());
-            if (saved.getSenderName() != null) notificationPayload.put("senderName", saved.getSenderName());
-            if (saved.getSenderAvatar() != null) notificationPayload.put("senderAvatar", saved.getSenderAvatar());
-            
-            messagingTemplate.convertAndSendToUser(
-                user.getId().toString(),
-                "/queue/notifications",
-                notificationPayload
-            );
+            realtimeEventPublisher.sendToUsers(NOTIFICATION_QUEUE, NotificationEventDTO.created(saved), user.getId());
         } catch (Exception e) {
             // Log WebSocket error but don't fail the notification creation
             System.err.println("WebSocket notification failed: " + e.getMessage());
@@ -102,24 +84,7 @@ public class NotificationService {
 
         // Emit with metadata
         try {
-            Map<String, Object> notificationPayload = new HashMap<>();
-            notificationPayload.put("id", saved.getId());
-            notificationPayload.put("message", saved.getMessage());
-            notificationPayload.put("title", saved.getTitle());
-            notificationPayload.put("read", saved.isRead());
-            notificationPayload.put("createdAt", saved.getCreatedAt());
-            notificationPayload.put("type", "NEW_NOTIFICATION");
-            notificationPayload.put("relatedId", saved.getRelatedId());
-            notificationPayload.put("relatedType", saved.getRelatedType());
-            notificationPayload.put("senderId", saved.getSenderId());
-            notificationPayload.put("senderName", saved.getSenderName());
-            notificationPayload.put("senderAvatar", saved.getSenderAvatar());
-
-            messagingTemplate.convertAndSendToUser(
-                receiver.getId().toString(),
-                "/queue/notifications",
-                notificationPayload
-            );
+            realtimeEventPublisher.sendToUsers(NOTIFICATION_QUEUE, NotificationEventDTO.created(saved), receiver.getId());
         } catch (Exception e) {
             System.err.println("WebSocket notification failed: " + e.getMessage());
         }
@@ -145,17 +110,11 @@ public class NotificationService {
             
             // Send real-time update via WebSocket
             try {
-                Map<String, Object> updatePayload = new HashMap<>();
-                updatePayload.put("id", notification.getId());
-                updatePayload.put("read", true);
-                updatePayload.put("readAt", notification.getReadAt());
-                updatePayload.put("type", "NOTIFICATION_READ");
-                
-                messagingTemplate.convertAndSendToUser(
-                    notification.getUser().getId().toString(),
-                    "/queue/notifications",
-                    updatePayload
-                );
+                NotificationEventDTO update = new NotificationEventDTO("NOTIFICATION_READ");
+                update.setId(notification.getId());
+                update.setRead(true);
+                update.setReadAt(notification.getReadAt());
+                realtimeEventPublisher.sendToUsers(NOTIFICATION_QUEUE, update, notification.getUser().getId());
             } catch (Exception e) {
                 System.err.println("WebSocket read update failed: " + e.getMessage());
             }
@@ -168,20 +127,15 @@ public class NotificationService {
             
             // Send bulk update via WebSocket
             try {
-                Map<String, Object> bulkUpdatePayload = new HashMap<>();
-                bulkUpdatePayload.put("notificationIds", notificationIds);
-                bulkUpdatePayload.put("read", true);
-                bulkUpdatePayload.put("readAt", LocalDateTime.now());
-                bulkUpdatePayload.put("type", "BULK_NOTIFICATIONS_READ");
+                NotificationEventDTO update = new NotificationEventDTO("BULK_NOTIFICATIONS_READ");
+                update.setNotificationIds(notificationIds);
+                update.setRead(true);
+                update.setReadAt(LocalDateTime.now());
                 
                 // Get the user ID from the first notification
                 Notification firstNotification = notificationRepository.findById(notificationIds.get(0)).orElse(null);
                 if (firstNotification != null) {
-                    messagingTemplate.convertAndSendToUser(
-                        firstNotification.getUser().getId().toString(),
-                        "/queue/notifications",
-                        bulkUpdatePayload
-                    );
+                    realtimeEventPublisher.sendToUsers(NOTIFICATION_QUEUE, update, firstNotification.getUser().getId());
                 }
             } catch (Exception e) {
                 System.err.println("WebSocket bulk read update failed: " + e.getMessage());
@@ -194,17 +148,11 @@ public class NotificationService {
         
         // Send bulk update via WebSocket
         try {
-            Map<String, Object> bulkUpdatePayload = new HashMap<>();
-            bulkUpdatePayload.put("userId", userId);
-            bulkUpdatePayload.put("read", true);
-            bulkUpdatePayload.put("readAt", LocalDateTime.now());
-            bulkUpdatePayload.put("type", "ALL_NOTIFICATIONS_READ");
-            
-            messagingTemplate.convertAndSendToUser(
-                userId.toString(),
-                "/queue/notifications",
-                bulkUpdatePayload
-            );
+            NotificationEventDTO update = new NotificationEventDTO("ALL_NOTIFICATIONS_READ");
+            update.setUserId(userId);
+            update.setRead(true);
+            update.setReadAt(LocalDateTime.now());
+            realtimeEventPublisher.sendToUsers(NOTIFICATION_QUEUE, update, userId);
         } catch (Exception e) {
             System.err.println("WebSocket all read update failed: " + e.getMessage());
         }
@@ -218,15 +166,9 @@ public class NotificationService {
             
             // Send real-time delete update via WebSocket
             try {
-                Map<String, Object> deletePayload = new HashMap<>();
-                deletePayload.put("id", notificationId);
-                deletePayload.put("type", "NOTIFICATION_DELETED");
-                
-                messagingTemplate.convertAndSendToUser(
-                    userId.toString(),
-                    "/queue/notifications",
-                    deletePayload
-                );
+                NotificationEventDTO update = new NotificationEventDTO("NOTIFICATION_DELETED");
+                update.setId(notificationId);
+                realtimeEventPublisher.sendToUsers(NOTIFICATION_QUEUE, update, userId);
             } catch (Exception e) {
                 System.err.println("WebSocket delete update failed: " + e.getMessage());
             }
@@ -244,15 +186,9 @@ public class NotificationService {
             // Send bulk delete update via WebSocket
             if (userId != null) {
                 try {
-                    Map<String, Object> bulkDeletePayload = new HashMap<>();
-                    bulkDeletePayload.put("notificationIds", notificationIds);
-                    bulkDeletePayload.put("type", "BULK_NOTIFICATIONS_DELETED");
-                    
-                    messagingTemplate.convertAndSendToUser(
-                        userId.toString(),
-                        "/queue/notifications",
-                        bulkDeletePayload
-                    );
+                    NotificationEventDTO update = new NotificationEventDTO("BULK_NOTIFICATIONS_DELETED");
+                    update.setNotificationIds(notificationIds);
+                    realtimeEventPublisher.sendToUsers(NOTIFICATION_QUEUE, update, userId);
                 } catch (Exception e) {
                     System.err.println("WebSocket bulk delete update failed: " + e.getMessage());
                 }
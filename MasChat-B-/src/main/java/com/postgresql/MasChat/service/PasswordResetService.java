@@ -25,6 +25,9 @@ public class PasswordResetService {
     @Autowired
     private BCryptPasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
     public void forgotPassword(ForgotPasswordRequest request) {
         Optional<User> userOpt = userRepository.findByEmail(request.getEmail());
         if (userOpt.isPresent()) {
@@ -62,6 +65,7 @@ public class PasswordResetService {
         user.setPassword(passwordEncoder.encode(request.getPassword()));
         user.setUpdatedAt(LocalDateTime.now());
         userRepository.save(user);
+        resourceVersionService.bumpProfile(user.getId());
         
         // Mark token as used
         resetToken.setUsed(true);
@@ -3,13 +3,28 @@ package com.postgresql.MasChat.service;
 import com.postgresql.MasChat.model.*;
 import com.postgresql.MasChat.repository.*;
 import com.postgresql.MasChat.dto.PostRequestDto;
+import com.postgresql.MasChat.dto.AttachmentDTO;
 import com.postgresql.MasChat.dto.CommentDTO;
+import com.postgresql.MasChat.dto.CommentPageDTO;
+import com.postgresql.MasChat.dto.FeedPageDTO;
+import com.postgresql.MasChat.dto.PostDTO;
+import com.postgresql.MasChat.dto.ReactionDTO;
+import com.postgresql.MasChat.exception.ResourceNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class PostService {
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private PostRepository postRepository;
     @Autowired
@@ -18,7 +33,22 @@ public class PostService {
     private CommentRepository commentRepository;
     @Autowired
     private LikeRepository likeRepository;
+    @Autowired
+    private FeedService feedService;
+    @Autowired
+    private ReactionCounterBuffer reactionCounterBuffer;
+    @Autowired
+    private CommentThreadService commentThreadService;
+    @Autowired
+    private UserSummaryService userSummaryService;
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+    @Autowired
+    private MediaService mediaService;
+    @Autowired
+    private AffinityService affinityService;
 
+    @Transactional
     public Post createPost(PostRequestDto dto, Long userId) {
         User user = userRepository.findById(userId).orElseThrow();
         Post post = new Post();
@@ -26,33 +56,99 @@ public class PostService {
         post.setImageUrl(dto.getImageUrl());
         post.setVideoUrl(dto.getVideoUrl());
         post.setUser(user);
-        return postRepository.save(post);
+        Post saved = postRepository.save(post);
+        List<Attachment> attachments = mediaService.attachToPost(saved, dto.getAttachmentIds(), userId);
+        // Clients that only read imageUrl/videoUrl still get the first upload
+        if (saved.getImageUrl() == null && saved.getVideoUrl() == null && !attachments.isEmpty()) {
+            Attachment first = attachments.get(0);
+            if (first.getFileType().startsWith("video/")) {
+                saved.setVideoUrl(first.getUrl());
+            } else {
+                saved.setImageUrl(first.getUrl());
+            }
+        }
+        feedService.fanOut(saved);
+        resourceVersionService.bump(ResourceVersionService.POSTS);
+        return saved;
+    }
+
+    // Newest posts first, one bounded page at a time
+    public List<Post> getAllPosts(Long before, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return postRepository.findLatestBefore(before == null ? Long.MAX_VALUE : before, PageRequest.of(0, pageSize));
     }
 
-    public List<Post> getAllPosts() {
-        return postRepository.findAll();
+    public FeedPageDTO getHomeFeed(Long userId, Long before, Integer limit) {
+        return feedService.getHomeFeed(userId, before, limit);
     }
 
     public List<Post> getPostsByUser(Long userId) {
         return postRepository.findByUserId(userId);
     }
 
-    public Post likePost(Long postId, Long userId) {
-        Post post = postRepository.findById(postId).orElseThrow();
-        User user = userRepository.findById(userId).orElseThrow();
-        if (!post.getLikedBy().contains(user)) {
-            post.getLikedBy().add(user);
+    // Maps a page of posts for the viewer with a single lookup of which of them they liked, one
+    // batched lookup of their authors and one of their media
+    public List<PostDTO> toDTOs(List<Post> posts, Long currentUserId) {
+        List<Long> postIds = posts.stream().map(Post::getId).toList();
+        Set<Long> liked = currentUserId == null || posts.isEmpty()
+            ? Set.of()
+            : new HashSet<>(postRepository.findLikedPostIds(currentUserId, postIds));
+        UserSummaryLoader authors = userSummaryService.loader()
+            .registerAll(posts.stream().map(post -> post.getUser().getId()).toList());
+        Map<Long, List<AttachmentDTO>> media = mediaService.getPostMedia(postIds);
+        return posts.stream()
+            .map(post -> {
+                PostDTO dto = withPendingLikes(
+                    PostDTO.fromEntity(post, currentUserId, liked.contains(post.getId()), authors.get(post.getUser().getId())), post);
+                dto.setMedia(media.getOrDefault(post.getId(), List.of()));
+                return dto;
+            })
+            .toList();
+    }
+
+    private PostDTO withPendingLikes(PostDTO dto, Post post) {
+        dto.setLikeCount((int) Math.max(0, post.getLikeCount() + reactionCounterBuffer.pending(post.getId())));
+        return dto;
+    }
+
+    // Likes never load the post or its likes collection and never lock the posts row; the count
+    // change is buffered once the transaction commits and written in batches
+    @Transactional
+    public ReactionDTO likePost(Long postId, Long userId) {
+        int changed;
+        try {
+            changed = postRepository.insertLike(postId, userId);
+        } catch (DataIntegrityViolationException e) {
+            throw new ResourceNotFoundException("Post " + postId + " or user " + userId + " not found");
+        }
+        if (changed > 0) {
+            reactionCounterBuffer.add(postId, 1);
+            resourceVersionService.bump(ResourceVersionService.POSTS);
+            affinityService.record(userId, postRepository.findAuthorId(postId), AffinityService.Interaction.LIKE);
         }
-        return postRepository.save(post);
+        return new ReactionDTO(postId, userId, true, likeCount(postId, changed), changed > 0);
     }
 
-    public Post unlikePost(Long postId, Long userId) {
-        Post post = postRepository.findById(postId).orElseThrow();
-        User user = userRepository.findById(userId).orElseThrow();
-        post.getLikedBy().remove(user);
-        return postRepository.save(post);
+    @Transactional
+    public ReactionDTO unlikePost(Long postId, Long userId) {
+        int changed = postRepository.deleteLike(postId, userId);
+        if (changed > 0) {
+            reactionCounterBuffer.add(postId, -1);
+            resourceVersionService.bump(ResourceVersionService.POSTS);
+        }
+        return new ReactionDTO(postId, userId, false, likeCount(postId, -changed), changed > 0);
+    }
+
+    // ownDelta is this call's change, which reaches the buffer only after commit
+    private int likeCount(Long postId, int ownDelta) {
+        Integer count = postRepository.findLikeCount(postId);
+        if (count == null) {
+            throw new ResourceNotFoundException("Post not found with id: " + postId);
+        }
+        return (int) Math.max(0, count + reactionCounterBuffer.pending(postId) + ownDelta);
     }
 
+    @Transactional
     public Comment addComment(Long postId, Long userId, String content) {
         Post post = postRepository.findById(postId).orElseThrow();
         User user = userRepository.findById(userId).orElseThrow();
@@ -61,9 +157,14 @@ public class PostService {
         comment.setUser(user);
         comment.setContent(content); // Use setContent instead of setText
         comment.setCreatedAt(java.time.LocalDateTime.now());
-        return commentRepository.save(comment);
+        Comment saved = commentRepository.save(comment);
+        postRepository.incrementCommentCount(postId);
+        resourceVersionService.bump(ResourceVersionService.POSTS);
+        affinityService.record(userId, post.getUser().getId(), AffinityService.Interaction.COMMENT);
+        return saved;
     }
 
+    @Transactional
     public Comment addReply(Long postId, Long userId, Long parentCommentId, String content) {
         Post post = postRepository.findById(postId).orElseThrow();
         User user = userRepository.findById(userId).orElseThrow();
@@ -75,7 +176,11 @@ public class PostService {
         reply.setContent(content);
         reply.setParentComment(parentComment);
         reply.setCreatedAt(java.time.LocalDateTime.now());
-        return commentRepository.save(reply);
+        Comment saved = commentRepository.save(reply);
+        postRepository.incrementCommentCount(postId);
+        resourceVersionService.bump(ResourceVersionService.POSTS);
+        affinityService.record(userId, post.getUser().getId(), AffinityService.Interaction.COMMENT);
+        return saved;
     }
 
     public Comment likeComment(Long commentId, Long userId) {
@@ -109,8 +214,9 @@ public class PostService {
         return comment;
     }
 
-    public List<Post> searchPosts(String query) {
-        return postRepository.findByContentContainingIgnoreCase(query);
+    // Ranked full-text search, one page at a time
+    public List<Post> searchPosts(String query, int page, Integer size) {
+        return FullTextSearch.ranked(query, page, size, postRepository::searchIds, postRepository::findAllById, Post::getId);
     }
 
     public void deletePost(Long postId, Long userId) {
@@ -120,49 +226,26 @@ public class PostService {
             throw new RuntimeException("User not authorized to delete this post");
         }
         postRepository.delete(post);
+        resourceVersionService.bump(ResourceVersionService.POSTS);
     }
 
-    public java.util.List<CommentDTO> getComments(Long postId) {
-        return getComments(postId, null);
+    // A page of top-level comments, each with its reply count and first few replies
+    public CommentPageDTO getComments(Long postId, Long currentUserId, Long before, Integer limit, Integer replyPreview) {
+        return commentThreadService.getComments(postId, currentUserId, before, limit, replyPreview);
     }
 
-    public java.util.List<CommentDTO> getComments(Long postId, Long currentUserId) {
-        try {
-            Post post = postRepository.findById(postId).orElseThrow();
-            java.util.List<Comment> topLevelComments = commentRepository.findTopLevelCommentsByPost(post);
-            java.util.List<CommentDTO> dtos = new java.util.ArrayList<>();
-            for (Comment c : topLevelComments) {
-                try {
-                    dtos.add(CommentDTO.fromEntity(c, currentUserId));
-                } catch (Exception e) {
-                    System.err.println("Error converting comment to DTO: " + e.getMessage());
-                    // Continue with other comments
-                }
-            }
-            return dtos;
-        } catch (Exception e) {
-            System.err.println("Error getting comments for post " + postId + ": " + e.getMessage());
-            e.printStackTrace();
-            throw e;
-        }
+    public List<CommentDTO> searchComments(Long postId, String searchTerm, Long currentUserId) {
+        List<Comment> comments = FullTextSearch.ranked(searchTerm, 0, FullTextSearch.MAX_PAGE_SIZE,
+            (query, limit, offset) -> commentRepository.searchIdsInPost(postId, query, limit, offset),
+            commentRepository::findAllById, Comment::getId);
+        return commentThreadService.toDTOs(comments, currentUserId);
     }
 
-    public java.util.List<CommentDTO> searchComments(Long postId, String searchTerm, Long currentUserId) {
-        Post post = postRepository.findById(postId).orElseThrow();
-        java.util.List<Comment> comments = commentRepository.searchCommentsByContent(post, searchTerm);
-        java.util.List<CommentDTO> dtos = new java.util.ArrayList<>();
-        for (Comment c : comments) {
-            dtos.add(CommentDTO.fromEntity(c, currentUserId));
-        }
-        return dtos;
+    public List<Comment> searchAllComments(String query, int page, Integer size) {
+        return FullTextSearch.ranked(query, page, size, commentRepository::searchIds, commentRepository::findAllById, Comment::getId);
     }
 
-    public java.util.List<CommentDTO> getCommentReplies(Long commentId, Long currentUserId) {
-        java.util.List<Comment> replies = commentRepository.findRepliesByParentCommentId(commentId);
-        java.util.List<CommentDTO> dtos = new java.util.ArrayList<>();
-        for (Comment c : replies) {
-            dtos.add(CommentDTO.fromEntity(c, currentUserId));
-        }
-        return dtos;
+    public CommentPageDTO getCommentReplies(Long commentId, Long currentUserId, Long after, Integer limit) {
+        return commentThreadService.getReplies(commentId, currentUserId, after, limit);
     }
 }
\ No newline at end of file
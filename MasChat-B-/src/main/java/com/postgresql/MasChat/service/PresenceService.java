@@ -0,0 +1,157 @@
+package com.postgresql.MasChat.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import com.postgresql.MasChat.dto.PresenceDTO;
+
+import jakarta.annotation.PreDestroy;
+
+// Tracks open WebSocket sessions per user in memory. A user is online while at least one tab or
+// device is connected. Transitions are collected and, every presence.flush-interval-ms, written to
+// users.online / users.last_seen in one batch and published on /topic/presence/{userId}, which
+// friends subscribe to. A disconnect followed by a reconnect within one interval is never seen.
+@Service
+public class PresenceService {
+    private static final Logger logger = LoggerFactory.getLogger(PresenceService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+    @Autowired
+    private SocialGraphService socialGraphService;
+
+    @Value("${presence.flush-interval-ms:2000}")
+    private long flushIntervalMs;
+    @Value("${chat.relay.mode:local}")
+    private String relayMode;
+
+    private final Map<Long, Integer> sessionCounts = new ConcurrentHashMap<>();
+    // Users whose online state changed since the last flush, with the time of the change
+    private final Map<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+    // Users last written and published as online; everyone else was last reported offline
+    private final Set<Long> publishedOnline = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "presence-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        // Sessions do not survive a restart, so on a single node anything still marked online is
+        // stale; with several nodes the others still own their users
+        if ("local".equals(relayMode)) {
+            jdbcTemplate.update("UPDATE users SET online = FALSE WHERE online = TRUE");
+        }
+        flusher.scheduleWithFixedDelay(this::flushSafely, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void sessionOpened(Long userId) {
+        int count = sessionCounts.merge(userId, 1, Integer::sum);
+        if (count == 1) {
+            pending.put(userId, LocalDateTime.now());
+        }
+    }
+
+    public void sessionClosed(Long userId) {
+        boolean[] wentOffline = new boolean[1];
+        sessionCounts.computeIfPresent(userId, (id, count) -> {
+            if (count > 1) {
+                return count - 1;
+            }
+            wentOffline[0] = true;
+            return null;
+        });
+        if (wentOffline[0]) {
+            pending.put(userId, LocalDateTime.now());
+        }
+    }
+
+    public boolean isOnline(Long userId) {
+        return userId != null && sessionCounts.containsKey(userId);
+    }
+
+    // Friends with a session open, by the same local view as isOnline
+    public long[] onlineFriendIds(Long userId) {
+        return Arrays.stream(socialGraphService.friendIds(userId))
+            .filter(sessionCounts::containsKey)
+            .toArray();
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.warn("Presence flush failed: {}", e.getMessage());
+        }
+    }
+
+    private void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<PresenceDTO> changes = new ArrayList<>();
+        for (Long userId : new ArrayList<>(pending.keySet())) {
+            LocalDateTime changedAt = pending.remove(userId);
+            if (changedAt != null) {
+                // Report the current state; it may have flipped back since the change was queued,
+                // and then there is nothing to write or publish
+                boolean online = isOnline(userId);
+                if (online ? !publishedOnline.add(userId) : !publishedOnline.remove(userId)) {
+                    continue;
+                }
+                changes.add(new PresenceDTO(userId, online, online ? null : changedAt));
+            }
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(
+            "UPDATE users SET online = ?, last_seen = COALESCE(?, last_seen) WHERE id = ?",
+            changes, changes.size(), (ps, change) -> {
+                ps.setBoolean(1, change.isOnline());
+                ps.setTimestamp(2, change.getLastSeen() != null ? Timestamp.valueOf(change.getLastSeen()) : null);
+                ps.setLong(3, change.getUserId());
+            });
+        for (PresenceDTO change : changes) {
+            // online and lastSeen are part of the profile payload
+            resourceVersionService.bumpProfile(change.getUserId());
+            messagingTemplate.convertAndSend("/topic/presence/" + change.getUserId(), change);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        LocalDateTime now = LocalDateTime.now();
+        for (Long userId : sessionCounts.keySet()) {
+            pending.put(userId, now);
+        }
+        sessionCounts.clear();
+        flushSafely();
+    }
+}
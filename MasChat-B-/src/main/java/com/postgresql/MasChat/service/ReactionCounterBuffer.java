@@ -0,0 +1,282 @@
+package com.postgresql.MasChat.service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Absorbs post like/unlike deltas in per-post LongAdders so a viral post does not serialize every
+// like on its posts row. Every reactions.flush-interval-ms the deltas are written to
+// posts.like_count in one UPDATE. post_likes stays the source of truth: deltas lost in a crash
+// are repaired by a recount on startup.
+//
+// The recount only runs from a node that starts while no other node is up. Every running node
+// holds a shared advisory lock on a connection of its own, and the recount needs the exclusive
+// lock, so it never overwrites a count that another node still has unflushed deltas for (they
+// would be applied on top and count those likes twice). A node joining a live cluster skips it.
+// The lock connection is opened outside the pool, so the session lock can never be handed to
+// another borrower, and is checked periodically so a dropped session takes the lock again.
+@Service
+public class ReactionCounterBuffer {
+    private static final Logger logger = LoggerFactory.getLogger(ReactionCounterBuffer.class);
+
+    private static final String FLUSH_SQL =
+        "UPDATE posts p SET like_count = GREATEST(p.like_count + d.delta, 0) " +
+        "FROM unnest(?::bigint[], ?::bigint[]) AS d(id, delta) WHERE p.id = d.id";
+    // Advisory lock key shared by all nodes: "likes" in ASCII
+    private static final long NODE_LOCK_KEY = 0x6c696b6573L;
+    private static final long LOCK_CHECK_INTERVAL_SECONDS = 10;
+    // Recount posts liked within the window; unliked-only drift is left to the next like
+    private static final String RECONCILE_SQL =
+        "UPDATE posts p SET like_count = c.likes " +
+        "FROM (SELECT pl.post_id, COUNT(*) AS likes FROM post_likes pl " +
+        "      WHERE pl.post_id IN (SELECT DISTINCT post_id FROM post_likes WHERE created_at >= NOW() - make_interval(hours => ?)) " +
+        "      GROUP BY pl.post_id) c " +
+        "WHERE p.id = c.post_id AND p.like_count <> c.likes";
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${reactions.flush-interval-ms:250}")
+    private long flushIntervalMs;
+    @Value("${reactions.reconcile-window-hours:24}")
+    private int reconcileWindowHours;
+
+    // New deltas go to current. A flush seals it and writes the generation sealed one interval
+    // earlier, so an increment racing the swap still lands before its adder is read.
+    private volatile Map<Long, LongAdder> current = new ConcurrentHashMap<>();
+    private volatile Map<Long, LongAdder> sealed = new ConcurrentHashMap<>();
+    private volatile Map<Long, LongAdder> writing = Map.of();
+    // Holds this node's shared lock for as long as the node runs; guarded by nodeLock
+    private Connection lockConnection;
+    private final Object nodeLock = new Object();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "reaction-counter-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Runs before the web server accepts likes, so no node can hold deltas taken before the recount
+    @PostConstruct
+    public void init() {
+        synchronized (nodeLock) {
+            try {
+                lockConnection = openLockConnection();
+                if (tryLock("SELECT pg_try_advisory_lock(?)")) {
+                    try {
+                        reconcile();
+                    } finally {
+                        // Same session, so taking the shared lock before releasing cannot block
+                        tryLock("SELECT pg_try_advisory_lock_shared(?)");
+                        tryLock("SELECT pg_advisory_unlock(?)");
+                    }
+                } else {
+                    logger.info("Other nodes are running, skipping like count reconciliation");
+                    try (PreparedStatement statement = lockConnection.prepareStatement("SELECT pg_advisory_lock_shared(?)")) {
+                        statement.setLong(1, NODE_LOCK_KEY);
+                        statement.execute();
+                    }
+                }
+            } catch (SQLException e) {
+                logger.warn("Could not take the reaction counter node lock, skipping reconciliation: {}", e.getMessage());
+                closeLockConnection();
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        flusher.scheduleWithFixedDelay(this::flushSafely, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        flusher.scheduleWithFixedDelay(this::checkLock, LOCK_CHECK_INTERVAL_SECONDS, LOCK_CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private Connection openLockConnection() throws SQLException {
+        Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+            dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+        connection.setAutoCommit(true);
+        return connection;
+    }
+
+    // A session that dropped released the shared lock with it; take it again on a new one.
+    // Waits for nothing, so a recount running on a starting node is simply retried next time.
+    private void checkLock() {
+        synchronized (nodeLock) {
+            try {
+                if (lockConnection != null && lockConnection.isValid(2)) {
+                    return;
+                }
+                closeLockConnection();
+                lockConnection = openLockConnection();
+                if (tryLock("SELECT pg_try_advisory_lock_shared(?)")) {
+                    logger.warn("Reaction counter node lock was lost and has been taken again");
+                } else {
+                    closeLockConnection();
+                }
+            } catch (SQLException e) {
+                logger.warn("Could not retake the reaction counter node lock: {}", e.getMessage());
+                closeLockConnection();
+            }
+        }
+    }
+
+    private void closeLockConnection() {
+        if (lockConnection == null) {
+            return;
+        }
+        try {
+            lockConnection.close();
+        } catch (SQLException e) {
+            logger.debug("Closing the reaction counter lock connection failed: {}", e.getMessage());
+        }
+        lockConnection = null;
+    }
+
+    private boolean tryLock(String sql) throws SQLException {
+        try (PreparedStatement statement = lockConnection.prepareStatement(sql)) {
+            statement.setLong(1, NODE_LOCK_KEY);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getBoolean(1);
+            }
+        }
+    }
+
+    private void reconcile() {
+        if (reconcileWindowHours <= 0) {
+            return;
+        }
+        try {
+            int fixed = jdbcTemplate.update(RECONCILE_SQL, reconcileWindowHours);
+            if (fixed > 0) {
+                logger.info("Reconciled like counts of {} posts", fixed);
+            }
+        } catch (Exception e) {
+            logger.warn("Like count reconciliation failed: {}", e.getMessage());
+        }
+    }
+
+    // Inside a transaction the delta is only taken once it commits, so a rolled-back like never
+    // moves the counter
+    public void add(Long postId, long delta) {
+        TxCallbacks.afterCommit(() -> addNow(postId, delta));
+    }
+
+    private void addNow(Long postId, long delta) {
+        Map<Long, LongAdder> deltas = current;
+        LongAdder adder = deltas.get(postId);
+        if (adder == null) {
+            adder = deltas.computeIfAbsent(postId, id -> new LongAdder());
+        }
+        adder.add(delta);
+    }
+
+    // Likes accepted but not yet written to posts.like_count; add this to the persisted value
+    public long pending(Long postId) {
+        return sum(current, postId) + sum(sealed, postId) + sum(writing, postId);
+    }
+
+    private long sum(Map<Long, LongAdder> deltas, Long postId) {
+        LongAdder adder = deltas.get(postId);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.warn("Reaction counter flush failed: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void flush() {
+        Map<Long, LongAdder> deltas = sealed;
+        writing = deltas;
+        sealed = current;
+        current = new ConcurrentHashMap<>();
+        try {
+            write(deltas);
+        } finally {
+            writing = Map.of();
+        }
+    }
+
+    private void write(Map<Long, LongAdder> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(deltas.size());
+        List<Long> values = new ArrayList<>(deltas.size());
+        deltas.forEach((postId, adder) -> {
+            long delta = adder.sum();
+            if (delta != 0) {
+                ids.add(postId);
+                values.add(delta);
+            }
+        });
+        try {
+            if (!ids.isEmpty()) {
+                jdbcTemplate.update(FLUSH_SQL, ps -> {
+                    ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray()));
+                    ps.setArray(2, ps.getConnection().createArrayOf("bigint", values.toArray()));
+                });
+            }
+        } catch (RuntimeException e) {
+            // Carry the deltas over to the next flush rather than dropping them
+            for (int i = 0; i < ids.size(); i++) {
+                addNow(ids.get(i), values.get(i));
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Two flushes write out both the sealed and the current generation
+        try {
+            flush();
+            flush();
+        } catch (Exception e) {
+            logger.warn("Final reaction counter flush failed, counts will be reconciled on restart: {}", e.getMessage());
+        }
+        // Releases the node lock only after this node's deltas are written
+        synchronized (nodeLock) {
+            if (lockConnection != null) {
+                try {
+                    tryLock("SELECT pg_advisory_unlock_shared(?)");
+                } catch (SQLException e) {
+                    logger.warn("Could not release the reaction counter node lock: {}", e.getMessage());
+                }
+                closeLockConnection();
+            }
+        }
+    }
+}
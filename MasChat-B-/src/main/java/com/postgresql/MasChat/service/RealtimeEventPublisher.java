@@ -0,0 +1,48 @@
+package com.postgresql.MasChat.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Pushes one event to several users. convertAndSendToUser serializes the payload again for every
+// call; here it is written to JSON once and the same bytes go to every recipient and session.
+@Service
+public class RealtimeEventPublisher {
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public void sendToUsers(String destination, Object payload, Long... userIds) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not serialize " + payload.getClass().getSimpleName(), e);
+        }
+        Long previous = null;
+        for (Long userId : userIds) {
+            // Self-chats list the same user twice; their sessions only need the event once
+            if (userId == null || userId.equals(previous)) {
+                continue;
+            }
+            previous = userId;
+            messagingTemplate.send("/user/" + userId + destination, message(body));
+        }
+    }
+
+    private Message<byte[]> message(byte[] body) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(body, accessor.getMessageHeaders());
+    }
+}
@@ -2,11 +2,18 @@
 package com.postgresql.MasChat.service;
 
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.postgresql.MasChat.dto.ReactionDTO;
+import com.postgresql.MasChat.dto.ReelDTO;
+import com.postgresql.MasChat.exception.ResourceNotFoundException;
 import com.postgresql.MasChat.model.Reel;
 import com.postgresql.MasChat.model.ReelComment;
 import com.postgresql.MasChat.model.User;
@@ -26,6 +33,10 @@ public class ReelService {
     private UserRepository userRepository;
     @Autowired
     private ReelCommentRepository reelCommentRepository;
+    @Autowired
+    private UserSummaryService userSummaryService;
+    @Autowired
+    private ResourceVersionService resourceVersionService;
 
     public Reel createReel(Long userId, String mediaUrl, String caption) {
         System.out.println("Creating reel for user: " + userId);
@@ -40,41 +51,66 @@ public class ReelService {
         reel.setCreatedAt(LocalDateTime.now());
         
         Reel savedReel = reelRepository.save(reel);
+        resourceVersionService.bump(ResourceVersionService.REELS);
         System.out.println("Reel created successfully with ID: " + savedReel.getId());
         return savedReel;
     }
 
     public List<Reel> getRecentReels() {
         LocalDateTime since = LocalDateTime.now().minusDays(7); // Show last 7 days
-        System.out.println("Fetching reels created after: " + since);
-        List<Reel> reels = reelRepository.findByCreatedAtAfter(since);
-        System.out.println("Found " + reels.size() + " reels");
-        for (Reel reel : reels) {
-            System.out.println("Reel ID: " + reel.getId() + ", User: " + reel.getUser().getUsername() + ", Media: " + reel.getMediaUrl());
-        }
-        return reels;
+        return reelRepository.findByCreatedAtAfter(since);
     }
 
     public void deleteReel(Long reelId, Long userId) {
         Reel reel = reelRepository.findById(reelId).orElseThrow();
         if (!reel.getUser().getId().equals(userId)) throw new RuntimeException("Unauthorized");
         reelRepository.delete(reel);
+        resourceVersionService.bump(ResourceVersionService.REELS);
     }
 
-    public Reel likeReel(Long reelId, Long userId) {
-        Reel reel = reelRepository.findById(reelId).orElseThrow();
-        User user = userRepository.findById(userId).orElseThrow();
-        reel.getLikedBy().add(user);
-        return reelRepository.save(reel);
+    public List<ReelDTO> toDTOs(List<Reel> reels, Long currentUserId) {
+        Set<Long> liked = currentUserId == null || reels.isEmpty()
+            ? Set.of()
+            : new HashSet<>(reelRepository.findLikedReelIds(currentUserId, reels.stream().map(Reel::getId).toList()));
+        UserSummaryLoader authors = userSummaryService.loader()
+            .registerAll(reels.stream().map(reel -> reel.getUser().getId()).toList());
+        return reels.stream()
+            .map(reel -> ReelDTO.fromEntity(reel, currentUserId, liked.contains(reel.getId()), authors.get(reel.getUser().getId())))
+            .toList();
     }
 
-    public Reel unlikeReel(Long reelId, Long userId) {
-        Reel reel = reelRepository.findById(reelId).orElseThrow();
-        User user = userRepository.findById(userId).orElseThrow();
-        reel.getLikedBy().remove(user);
-        return reelRepository.save(reel);
+    @Transactional
+    public ReactionDTO likeReel(Long reelId, Long userId) {
+        int changed;
+        try {
+            changed = reelRepository.insertLike(reelId, userId);
+        } catch (DataIntegrityViolationException e) {
+            throw new ResourceNotFoundException("Reel " + reelId + " or user " + userId + " not found");
+        }
+        if (changed > 0) {
+            resourceVersionService.bump(ResourceVersionService.REELS);
+        }
+        return new ReactionDTO(reelId, userId, true, likeCount(reelId), changed > 0);
+    }
+
+    @Transactional
+    public ReactionDTO unlikeReel(Long reelId, Long userId) {
+        int changed = reelRepository.deleteLike(reelId, userId);
+        if (changed > 0) {
+            resourceVersionService.bump(ResourceVersionService.REELS);
+        }
+        return new ReactionDTO(reelId, userId, false, likeCount(reelId), changed > 0);
+    }
+
+    private int likeCount(Long reelId) {
+        Integer count = reelRepository.findLikeCount(reelId);
+        if (count == null) {
+            throw new ResourceNotFoundException("Reel not found with id: " + reelId);
+        }
+        return count;
     }
 
+    @Transactional
     public ReelComment addComment(Long reelId, Long userId, String content) {
         Reel reel = reelRepository.findById(reelId).orElseThrow();
         User user = userRepository.findById(userId).orElseThrow();
@@ -83,17 +119,22 @@ public class ReelService {
         comment.setUser(user);
         comment.setContent(content);
         comment.setCreatedAt(java.time.LocalDateTime.now());
-        return reelCommentRepository.save(comment);
+        ReelComment saved = reelCommentRepository.save(comment);
+        reelRepository.incrementCommentCount(reelId);
+        resourceVersionService.bump(ResourceVersionService.REELS);
+        return saved;
     }
 
     public Reel shareReel(Long reelId) {
         Reel reel = reelRepository.findById(reelId).orElseThrow();
         reel.setShareCount(reel.getShareCount() + 1);
-        return reelRepository.save(reel);
+        Reel saved = reelRepository.save(reel);
+        resourceVersionService.bump(ResourceVersionService.REELS);
+        return saved;
     }
 
-    public List<Reel> searchReels(String query) {
-        return reelRepository.findByCaptionContainingIgnoreCase(query);
+    public List<Reel> searchReels(String query, int page, Integer size) {
+        return FullTextSearch.ranked(query, page, size, reelRepository::searchIds, reelRepository::findAllById, Reel::getId);
     }
 
     public List<ReelComment> getComments(Long reelId) {
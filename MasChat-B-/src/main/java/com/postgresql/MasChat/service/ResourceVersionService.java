@@ -0,0 +1,85 @@
+package com.postgresql.MasChat.service;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+// Version stamps behind the ETags of the polled list and profile endpoints. Write paths bump the
+// family (or the user's profile stripe) whose responses they change; GET handlers pass the tag to
+// WebRequest.checkNotModified and return before loading anything when the client is current.
+// Stamps live in memory: the boot epoch keeps tags from matching across restarts, and with
+// several nodes http-cache.max-stale-seconds bounds how long another node's write goes unseen.
+@Service
+public class ResourceVersionService {
+    public static final String POSTS = "posts";
+    public static final String STORIES = "stories";
+    public static final String REELS = "reels";
+    public static final String MARKETPLACE = "marketplace";
+
+    // Users share 4096 stripes; a bump also revalidates the few other profiles on the same stripe
+    private static final int PROFILE_STRIPE_BITS = 12;
+
+    private final Map<String, AtomicLong> families = Map.of(
+        POSTS, new AtomicLong(),
+        STORIES, new AtomicLong(),
+        REELS, new AtomicLong(),
+        MARKETPLACE, new AtomicLong());
+    private final AtomicLongArray profiles = new AtomicLongArray(1 << PROFILE_STRIPE_BITS);
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    @Value("${http-cache.max-stale-seconds:0}")
+    private long maxStaleSeconds;
+    // Stories expire and reels age out of their window without any write
+    @Value("${http-cache.time-window-seconds:60}")
+    private long timeWindowSeconds;
+
+    // Takes effect once the surrounding transaction commits, so a GET that still reads the old
+    // rows cannot be tagged with the new version
+    public void bump(String family) {
+        AtomicLong version = families.get(family);
+        if (version == null) {
+            throw new IllegalArgumentException("Unknown resource family: " + family);
+        }
+        TxCallbacks.afterCommit(version::incrementAndGet);
+    }
+
+    public void bumpProfile(Long userId) {
+        TxCallbacks.afterCommit(() -> profiles.incrementAndGet(stripe(userId)));
+    }
+
+    // A user's name or picture changed, or the user was deleted: their profile and every list
+    // that shows them
+    public void bumpUser(Long userId) {
+        bumpProfile(userId);
+        families.keySet().forEach(this::bump);
+    }
+
+    public String etag(String family) {
+        AtomicLong version = families.get(family);
+        if (version == null) {
+            throw new IllegalArgumentException("Unknown resource family: " + family);
+        }
+        boolean timeDependent = STORIES.equals(family) || REELS.equals(family);
+        return tag(family, version.get(), timeDependent);
+    }
+
+    public String profileEtag(Long userId) {
+        return tag("profile-" + userId, profiles.get(stripe(userId)), false);
+    }
+
+    private String tag(String name, long version, boolean timeDependent) {
+        long window = maxStaleSeconds;
+        if (timeDependent && timeWindowSeconds > 0 && (window <= 0 || timeWindowSeconds < window)) {
+            window = timeWindowSeconds;
+        }
+        String tag = name + "-" + epoch + "-" + version;
+        return window > 0 ? tag + "-" + (System.currentTimeMillis() / 1000 / window) : tag;
+    }
+
+    private static int stripe(Long userId) {
+        return (int) ((userId * 0x9E3779B97F4A7C15L) >>> (64 - PROFILE_STRIPE_BITS));
+    }
+}
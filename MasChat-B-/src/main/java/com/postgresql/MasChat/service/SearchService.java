@@ -0,0 +1,80 @@
+package com.postgresql.MasChat.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.postgresql.MasChat.dto.SearchResultsDTO;
+import com.postgresql.MasChat.dto.UserDTO;
+import com.postgresql.MasChat.model.User;
+
+// Unified search: runs the ranked full-text query of each requested type and returns one page of
+// each. Every type is a GIN index probe plus one batched load of the page's rows.
+@Service
+public class SearchService {
+    public static final Set<String> TYPES = Set.of("posts", "reels", "comments", "users", "groups", "items");
+
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private ReelService reelService;
+    @Autowired
+    private CommentThreadService commentThreadService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private GroupService groupService;
+    @Autowired
+    private MarketplaceService marketplaceService;
+    @Autowired
+    private PresenceService presenceService;
+    @Autowired
+    private FriendshipStatusService friendshipStatusService;
+
+    @Transactional(readOnly = true)
+    public SearchResultsDTO search(String query, Set<String> types, int page, Integer size, Long currentUserId) {
+        SearchResultsDTO results = new SearchResultsDTO();
+        results.setQuery(query);
+        results.setPage(Math.max(0, page));
+        results.setSize(FullTextSearch.pageSize(size));
+
+        if (types.contains("posts")) {
+            results.setPosts(postService.toDTOs(postService.searchPosts(query, page, size), currentUserId));
+        }
+        if (types.contains("reels")) {
+            results.setReels(reelService.toDTOs(reelService.searchReels(query, page, size), currentUserId));
+        }
+        if (types.contains("comments")) {
+            results.setComments(commentThreadService.toDTOs(postService.searchAllComments(query, page, size), currentUserId));
+        }
+        if (types.contains("users")) {
+            results.setUsers(searchUsers(query, page, size, currentUserId));
+        }
+        if (types.contains("groups")) {
+            results.setGroups(groupService.searchGroups(query, page, size));
+        }
+        if (types.contains("items")) {
+            results.setItems(marketplaceService.searchItems(query, page, size));
+        }
+        return results;
+    }
+
+    // With a viewer, each user carries the viewer's friendship status, resolved for the whole page at once
+    public List<UserDTO> searchUsers(String query, int page, Integer size, Long currentUserId) {
+        List<User> users = userService.searchUsers(query, page, size);
+        Map<Long, String> statuses = currentUserId == null || users.isEmpty()
+            ? Map.of()
+            : friendshipStatusService.getStatuses(currentUserId, users.stream().map(User::getId).toList());
+        return users.stream()
+            .map(user -> {
+                UserDTO dto = UserDTO.fromEntity(user, presenceService.isOnline(user.getId()));
+                dto.setFriendshipStatus(statuses.get(user.getId()));
+                return dto;
+            })
+            .toList();
+    }
+}
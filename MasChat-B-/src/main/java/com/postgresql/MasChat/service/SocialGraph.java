@@ -0,0 +1,312 @@
+package com.postgresql.MasChat.service;
+
+import java.util.Arrays;
+
+// Friendships as primitive adjacency: a CSR snapshot (sorted user ids, row offsets, sorted friend
+// ids) plus a small sorted overlay of rows changed since it was built. Reads are lock-free
+// binary searches over one immutable snapshot; writers are serialized, copy the overlay and fold
+// it into a new CSR once it holds more than compactThreshold rows. Edges are directed as in
+// user_friends, which stores both directions of a friendship.
+public final class SocialGraph {
+    private static final long[] NONE = new long[0];
+
+    // Friends of userIds[i] are neighbors[offsets[i]] .. neighbors[offsets[i + 1] - 1], ascending;
+    // changedRows[k] is the complete, ascending friend list of changedIds[k] and wins over the CSR
+    private record Snapshot(long[] userIds, int[] offsets, long[] neighbors, long[] changedIds, long[][] changedRows) {}
+
+    private final int compactThreshold;
+    private volatile Snapshot snapshot = new Snapshot(NONE, new int[] {0}, NONE, NONE, new long[0][]);
+
+    public SocialGraph(int compactThreshold) {
+        this.compactThreshold = Math.max(1, compactThreshold);
+    }
+
+    // Replaces the whole graph, dropping any overlay
+    public synchronized void load(Builder builder) {
+        snapshot = builder.build();
+    }
+
+    public boolean areFriends(long userId, long otherId) {
+        Snapshot s = snapshot;
+        int k = Arrays.binarySearch(s.changedIds, userId);
+        if (k >= 0) {
+            return Arrays.binarySearch(s.changedRows[k], otherId) >= 0;
+        }
+        int i = Arrays.binarySearch(s.userIds, userId);
+        return i >= 0 && Arrays.binarySearch(s.neighbors, s.offsets[i], s.offsets[i + 1], otherId) >= 0;
+    }
+
+    public int degree(long userId) {
+        return degree(snapshot, userId);
+    }
+
+    // Ascending friend ids; a copy the caller may keep
+    public long[] friends(long userId) {
+        Snapshot s = snapshot;
+        int k = Arrays.binarySearch(s.changedIds, userId);
+        if (k >= 0) {
+            return s.changedRows[k].clone();
+        }
+        int i = Arrays.binarySearch(s.userIds, userId);
+        return i < 0 ? NONE : Arrays.copyOfRange(s.neighbors, s.offsets[i], s.offsets[i + 1]);
+    }
+
+    public int mutualCount(long userId, long otherId) {
+        return intersect(snapshot, userId, otherId, null);
+    }
+
+    // Ascending ids of the friends both users have
+    public long[] mutualFriends(long userId, long otherId) {
+        Snapshot s = snapshot;
+        long[] out = new long[Math.min(degree(s, userId), degree(s, otherId))];
+        return Arrays.copyOf(out, intersect(s, userId, otherId, out));
+    }
+
+    public void addFriendship(long userId, long otherId) {
+        update(userId, otherId, true);
+    }
+
+    public void removeFriendship(long userId, long otherId) {
+        update(userId, otherId, false);
+    }
+
+    public int userCount() {
+        Snapshot s = snapshot;
+        int count = s.userIds.length;
+        for (long id : s.changedIds) {
+            if (Arrays.binarySearch(s.userIds, id) < 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public long edgeCount() {
+        Snapshot s = snapshot;
+        long count = s.neighbors.length;
+        for (int k = 0; k < s.changedIds.length; k++) {
+            int i = Arrays.binarySearch(s.userIds, s.changedIds[k]);
+            count += s.changedRows[k].length - (i < 0 ? 0 : s.offsets[i + 1] - s.offsets[i]);
+        }
+        return count;
+    }
+
+    private static int degree(Snapshot s, long userId) {
+        int k = Arrays.binarySearch(s.changedIds, userId);
+        if (k >= 0) {
+            return s.changedRows[k].length;
+        }
+        int i = Arrays.binarySearch(s.userIds, userId);
+        return i < 0 ? 0 : s.offsets[i + 1] - s.offsets[i];
+    }
+
+    // Counts the common friends and, when out is given, writes them to it. A merge walk when the
+    // rows are of similar size, binary searches of the smaller into the larger otherwise.
+    private static int intersect(Snapshot s, long userId, long otherId, long[] out) {
+        long[] a;
+        int aFrom;
+        int aTo;
+        int k = Arrays.binarySearch(s.changedIds, userId);
+        if (k >= 0) {
+            a = s.changedRows[k];
+            aFrom = 0;
+            aTo = a.length;
+        } else {
+            int i = Arrays.binarySearch(s.userIds, userId);
+            if (i < 0) {
+                return 0;
+            }
+            a = s.neighbors;
+            aFrom = s.offsets[i];
+            aTo = s.offsets[i + 1];
+        }
+        long[] b;
+        int bFrom;
+        int bTo;
+        k = Arrays.binarySearch(s.changedIds, otherId);
+        if (k >= 0) {
+            b = s.changedRows[k];
+            bFrom = 0;
+            bTo = b.length;
+        } else {
+            int i = Arrays.binarySearch(s.userIds, otherId);
+            if (i < 0) {
+                return 0;
+            }
+            b = s.neighbors;
+            bFrom = s.offsets[i];
+            bTo = s.offsets[i + 1];
+        }
+        if (aTo - aFrom > bTo - bFrom) {
+            long[] t = a; a = b; b = t;
+            int f = aFrom; aFrom = bFrom; bFrom = f;
+            int e = aTo; aTo = bTo; bTo = e;
+        }
+
+        int count = 0;
+        if ((long) (aTo - aFrom) * 8 < bTo - bFrom) {
+            for (int x = aFrom; x < aTo && bFrom < bTo; x++) {
+                int found = Arrays.binarySearch(b, bFrom, bTo, a[x]);
+                if (found >= 0) {
+                    if (out != null) {
+                        out[count] = a[x];
+                    }
+                    count++;
+                    bFrom = found + 1;
+                } else {
+                    bFrom = -found - 1;
+                }
+            }
+            return count;
+        }
+        int x = aFrom;
+        int y = bFrom;
+        while (x < aTo && y < bTo) {
+            long va = a[x];
+            long vb = b[y];
+            if (va < vb) {
+                x++;
+            } else if (va > vb) {
+                y++;
+            } else {
+                if (out != null) {
+                    out[count] = va;
+                }
+                count++;
+                x++;
+                y++;
+            }
+        }
+        return count;
+    }
+
+    private synchronized void update(long userId, long otherId, boolean add) {
+        if (userId == otherId) {
+            return;
+        }
+        Snapshot s = snapshot;
+        long[] userRow = withEdge(friends(userId), otherId, add);
+        long[] otherRow = withEdge(friends(otherId), userId, add);
+        if (userRow == null && otherRow == null) {
+            return;
+        }
+        long[] changedIds = s.changedIds;
+        long[][] changedRows = s.changedRows;
+        if (userRow != null) {
+            int k = Arrays.binarySearch(changedIds, userId);
+            changedIds = k >= 0 ? changedIds : insert(changedIds, -k - 1, userId);
+            changedRows = k >= 0 ? changedRows.clone() : insert(changedRows, -k - 1, userRow);
+            changedRows[k >= 0 ? k : -k - 1] = userRow;
+        }
+        if (otherRow != null) {
+            int k = Arrays.binarySearch(changedIds, otherId);
+            changedIds = k >= 0 ? changedIds : insert(changedIds, -k - 1, otherId);
+            changedRows = k >= 0 ? changedRows.clone() : insert(changedRows, -k - 1, otherRow);
+            changedRows[k >= 0 ? k : -k - 1] = otherRow;
+        }
+        Snapshot next = new Snapshot(s.userIds, s.offsets, s.neighbors, changedIds, changedRows);
+        snapshot = changedIds.length > compactThreshold ? compact(next) : next;
+    }
+
+    // The row with value added or removed, or null when that changes nothing
+    private static long[] withEdge(long[] row, long value, boolean add) {
+        int at = Arrays.binarySearch(row, value);
+        if (add == (at >= 0)) {
+            return null;
+        }
+        if (add) {
+            return insert(row, -at - 1, value);
+        }
+        long[] shorter = new long[row.length - 1];
+        System.arraycopy(row, 0, shorter, 0, at);
+        System.arraycopy(row, at + 1, shorter, at, row.length - at - 1);
+        return shorter;
+    }
+
+    private static long[] insert(long[] values, int at, long value) {
+        long[] longer = new long[values.length + 1];
+        System.arraycopy(values, 0, longer, 0, at);
+        longer[at] = value;
+        System.arraycopy(values, at, longer, at + 1, values.length - at);
+        return longer;
+    }
+
+    private static long[][] insert(long[][] values, int at, long[] value) {
+        long[][] longer = new long[values.length + 1][];
+        System.arraycopy(values, 0, longer, 0, at);
+        longer[at] = value;
+        System.arraycopy(values, at, longer, at + 1, values.length - at);
+        return longer;
+    }
+
+    // Folds the overlay into a fresh CSR; users left without friends are dropped
+    private static Snapshot compact(Snapshot s) {
+        Builder builder = new Builder();
+        int i = 0;
+        int k = 0;
+        while (i < s.userIds.length || k < s.changedIds.length) {
+            boolean takeChanged = i >= s.userIds.length || (k < s.changedIds.length && s.changedIds[k] <= s.userIds[i]);
+            if (takeChanged) {
+                long userId = s.changedIds[k];
+                for (long friendId : s.changedRows[k]) {
+                    builder.add(userId, friendId);
+                }
+                if (i < s.userIds.length && s.userIds[i] == userId) {
+                    i++;
+                }
+                k++;
+            } else {
+                long userId = s.userIds[i];
+                for (int e = s.offsets[i]; e < s.offsets[i + 1]; e++) {
+                    builder.add(userId, s.neighbors[e]);
+                }
+                i++;
+            }
+        }
+        return builder.build();
+    }
+
+    // Collects edges in ascending (user, friend) order, e.g. straight from
+    // SELECT ... ORDER BY user_id, friend_id
+    public static final class Builder {
+        private long[] userIds = new long[1024];
+        private int[] offsets = new int[1025];
+        private long[] neighbors = new long[4096];
+        private int users;
+        private int edges;
+
+        public Builder add(long userId, long friendId) {
+            if (users > 0 && userIds[users - 1] == userId) {
+                long last = neighbors[edges - 1];
+                if (friendId == last) {
+                    return this;
+                }
+                if (friendId < last) {
+                    throw new IllegalArgumentException("Edges must be added in ascending order");
+                }
+            } else {
+                if (users > 0 && userId < userIds[users - 1]) {
+                    throw new IllegalArgumentException("Edges must be added in ascending order");
+                }
+                if (users == userIds.length) {
+                    userIds = Arrays.copyOf(userIds, users * 2);
+                    offsets = Arrays.copyOf(offsets, users * 2 + 1);
+                }
+                userIds[users] = userId;
+                offsets[users] = edges;
+                users++;
+            }
+            if (edges == neighbors.length) {
+                neighbors = Arrays.copyOf(neighbors, edges * 2);
+            }
+            neighbors[edges++] = friendId;
+            return this;
+        }
+
+        private Snapshot build() {
+            int[] rowOffsets = Arrays.copyOf(offsets, users + 1);
+            rowOffsets[users] = edges;
+            return new Snapshot(Arrays.copyOf(userIds, users), rowOffsets, Arrays.copyOf(neighbors, edges), NONE, new long[0][]);
+        }
+    }
+}
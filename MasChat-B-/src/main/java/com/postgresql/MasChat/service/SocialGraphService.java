@@ -0,0 +1,124 @@
+package com.postgresql.MasChat.service;
+
+import java.sql.PreparedStatement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Process-wide friendship index (see SocialGraph), loaded from user_friends before the server
+// takes requests and kept current by FriendService on accept and unfriend. Answers areFriends,
+// degree and mutual-friend queries without touching the database or loading User entities.
+// Changes made on other nodes are only seen after social-graph.reload-interval-minutes.
+@Service
+public class SocialGraphService {
+    private static final Logger logger = LoggerFactory.getLogger(SocialGraphService.class);
+    private static final int LOAD_FETCH_SIZE = 10_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${social-graph.compact-threshold:4096}")
+    private int compactThreshold;
+    @Value("${social-graph.reload-interval-minutes:0}")
+    private long reloadIntervalMinutes;
+
+    private SocialGraph graph;
+    private final ScheduledExecutorService reloader = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "social-graph-reload");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void init() {
+        graph = new SocialGraph(compactThreshold);
+        reload();
+        if (reloadIntervalMinutes > 0) {
+            reloader.scheduleWithFixedDelay(this::reloadSafely, reloadIntervalMinutes, reloadIntervalMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reloader.shutdownNow();
+    }
+
+    public boolean areFriends(Long userId, Long otherId) {
+        return graph.areFriends(userId, otherId);
+    }
+
+    public int degree(Long userId) {
+        return graph.degree(userId);
+    }
+
+    public long[] friendIds(Long userId) {
+        return graph.friends(userId);
+    }
+
+    public int mutualCount(Long userId, Long otherId) {
+        return graph.mutualCount(userId, otherId);
+    }
+
+    public long[] mutualFriendIds(Long userId, Long otherId) {
+        return graph.mutualFriends(userId, otherId);
+    }
+
+    // Applied once the surrounding transaction commits
+    public void friendshipAdded(Long userId, Long otherId) {
+        TxCallbacks.afterCommit(() -> apply(userId, otherId, true));
+    }
+
+    public void friendshipRemoved(Long userId, Long otherId) {
+        TxCallbacks.afterCommit(() -> apply(userId, otherId, false));
+    }
+
+    // Holds the lock across the read so an accept or unfriend committed meanwhile is applied
+    // after the new graph, not lost under it
+    private synchronized void reload() {
+        long started = System.currentTimeMillis();
+        SocialGraph.Builder builder = new SocialGraph.Builder();
+        // Inside a transaction the driver streams rows in fetch-size batches instead of buffering them all
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        tx.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                "SELECT user_id, friend_id FROM user_friends ORDER BY user_id, friend_id");
+            statement.setFetchSize(LOAD_FETCH_SIZE);
+            return statement;
+        }, (RowCallbackHandler) rs -> builder.add(rs.getLong(1), rs.getLong(2))));
+        graph.load(builder);
+        logger.info("Loaded social graph: {} users, {} friendship edges in {} ms",
+            graph.userCount(), graph.edgeCount(), System.currentTimeMillis() - started);
+    }
+
+    private void reloadSafely() {
+        try {
+            reload();
+        } catch (Exception e) {
+            logger.warn("Social graph reload failed: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void apply(Long userId, Long otherId, boolean add) {
+        if (add) {
+            graph.addFriendship(userId, otherId);
+        } else {
+            graph.removeFriendship(userId, otherId);
+        }
+    }
+}
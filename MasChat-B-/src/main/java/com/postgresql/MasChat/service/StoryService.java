@@ -1,14 +1,21 @@
 package com.postgresql.MasChat.service;
 
+import com.postgresql.MasChat.dto.ReactionDTO;
+import com.postgresql.MasChat.dto.StoryDTO;
+import com.postgresql.MasChat.exception.ResourceNotFoundException;
 import com.postgresql.MasChat.model.Story;
 import com.postgresql.MasChat.model.User;
 import com.postgresql.MasChat.repository.StoryRepository;
 import com.postgresql.MasChat.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Service
 public class StoryService {
@@ -16,6 +23,12 @@ public class StoryService {
     private StoryRepository storyRepository;
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private UserSummaryService userSummaryService;
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+    @Autowired
+    private AffinityService affinityService;
 
     public Story createStory(Long userId, String mediaUrl, String caption) {
         User user = userRepository.findById(userId).orElseThrow();
@@ -24,7 +37,9 @@ public class StoryService {
         story.setMediaUrl(mediaUrl);
         story.setCaption(caption);
         story.setCreatedAt(LocalDateTime.now());
-        return storyRepository.save(story);
+        Story saved = storyRepository.save(story);
+        resourceVersionService.bump(ResourceVersionService.STORIES);
+        return saved;
     }
 
     public List<Story> getRecentStories() {
@@ -36,20 +51,58 @@ public class StoryService {
         Story story = storyRepository.findById(storyId).orElseThrow();
         if (!story.getUser().getId().equals(userId)) throw new RuntimeException("Unauthorized");
         storyRepository.delete(story);
+        resourceVersionService.bump(ResourceVersionService.STORIES);
     }
 
-    public Story likeStory(Long storyId, Long userId) {
-        Story story = storyRepository.findById(storyId).orElseThrow();
-        User user = userRepository.findById(userId).orElseThrow();
-        story.getLikedBy().add(user);
-        return storyRepository.save(story);
+    public List<StoryDTO> toDTOs(List<Story> stories, Long currentUserId) {
+        Set<Long> liked = currentUserId == null || stories.isEmpty()
+            ? Set.of()
+            : new HashSet<>(storyRepository.findLikedStoryIds(currentUserId, stories.stream().map(Story::getId).toList()));
+        UserSummaryLoader authors = userSummaryService.loader()
+            .registerAll(stories.stream().map(story -> story.getUser().getId()).toList());
+        return stories.stream()
+            .map(story -> StoryDTO.fromEntity(story, currentUserId, liked.contains(story.getId()), authors.get(story.getUser().getId())))
+            .toList();
     }
 
-    public Story unlikeStory(Long storyId, Long userId) {
-        Story story = storyRepository.findById(storyId).orElseThrow();
-        User user = userRepository.findById(userId).orElseThrow();
-        story.getLikedBy().remove(user);
-        return storyRepository.save(story);
+    @Transactional
+    public ReactionDTO likeStory(Long storyId, Long userId) {
+        int changed;
+        try {
+            changed = storyRepository.insertLike(storyId, userId);
+        } catch (DataIntegrityViolationException e) {
+            throw new ResourceNotFoundException("Story " + storyId + " or user " + userId + " not found");
+        }
+        if (changed > 0) {
+            resourceVersionService.bump(ResourceVersionService.STORIES);
+        }
+        return new ReactionDTO(storyId, userId, true, likeCount(storyId), changed > 0);
+    }
+
+    @Transactional
+    public ReactionDTO unlikeStory(Long storyId, Long userId) {
+        int changed = storyRepository.deleteLike(storyId, userId);
+        if (changed > 0) {
+            resourceVersionService.bump(ResourceVersionService.STORIES);
+        }
+        return new ReactionDTO(storyId, userId, false, likeCount(storyId), changed > 0);
+    }
+
+    // Views are not stored; they only feed the viewer's affinity towards the story's owner
+    public void viewStory(Long storyId, Long userId) {
+        Long ownerId = storyRepository.findOwnerId(storyId);
+        if (ownerId == null) {
+            throw new ResourceNotFoundException("Story not found with id: " + storyId);
+        }
+        affinityService.record(userId, ownerId, AffinityService.Interaction.STORY_VIEW);
+    }
+
+    private int likeCount(Long storyId) {
+        Integer count = storyRepository.findLikeCount(storyId);
+        if (count == null) {
+            throw new ResourceNotFoundException("Story not found with id: " + storyId);
+        }
+        return count;
     }
 
     public List<Story> getStoriesByUser(Long userId) {
@@ -0,0 +1,25 @@
+package com.postgresql.MasChat.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Defers in-memory side effects (cache updates, counters, queued work) until the surrounding
+// transaction commits, so a rollback leaves them untouched.
+public final class TxCallbacks {
+
+    private TxCallbacks() {}
+
+    // Runs the action after commit, or right away when no transaction is active
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
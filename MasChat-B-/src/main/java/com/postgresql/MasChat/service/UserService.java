@@ -1,8 +1,13 @@
 package com.postgresql.MasChat.service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -18,12 +23,32 @@ import com.postgresql.MasChat.repository.UserRepository;
 
 @Service
 public class UserService {
+    private static final int DEFAULT_BEST_FRIENDS = 2;
+    private static final int MAX_BEST_FRIENDS = 50;
+    // Strongest affinities read per request; non-friends among them are skipped
+    private static final int BEST_FRIENDS_SCAN = 200;
+
     @Autowired
     private UserRepository userRepository;
     
     @Autowired
     private BCryptPasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ChatLookupService chatLookupService;
+
+    @Autowired
+    private UserSummaryService userSummaryService;
+
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
+    @Autowired
+    private AffinityService affinityService;
+
+    @Autowired
+    private SocialGraphService socialGraphService;
+
     
 
     public User findById(Long userId) {
@@ -105,6 +130,8 @@ public User updateProfile(Long userId, ProfileUpdateRequest request) {
     }
 
     user.setUpdatedAt(LocalDateTime.now());
+    userSummaryService.invalidate(userId);
+    resourceVersionService.bumpUser(userId);
     return userRepository.save(user);
 }
 
@@ -114,6 +141,8 @@ public User updateProfile(Long userId, ProfileUpdateRequest request) {
         User user = this.findById(userId);
         user.setProfilePicture(imageUrl);
         user.setUpdatedAt(LocalDateTime.now());
+        userSummaryService.invalidate(userId);
+        resourceVersionService.bumpUser(userId);
         return userRepository.save(user);
     }
 
@@ -122,6 +151,7 @@ public User updateProfile(Long userId, ProfileUpdateRequest request) {
         User user = this.findById(userId);
         user.setCoverPhoto(imageUrl);
         user.setUpdatedAt(LocalDateTime.now());
+        resourceVersionService.bumpProfile(userId);
         return userRepository.save(user);
     }
 
@@ -134,6 +164,7 @@ public User updateProfile(Long userId, ProfileUpdateRequest request) {
         user.getDetails().setAvatar(imageUrl);
         user.getDetails().setShowAvatar(showAvatar);
         user.setUpdatedAt(LocalDateTime.now());
+        resourceVersionService.bumpProfile(userId);
         return userRepository.save(user);
     }
 
@@ -145,6 +176,8 @@ public User updateProfile(Long userId, ProfileUpdateRequest request) {
         Optional<User> userOpt = userRepository.findByUsername(username);
         if (userOpt.isPresent()) {
             userRepository.delete(userOpt.get());
+            // Chats cascade with the user; drop cached pair ids that may point at them
+            chatLookupService.clear();
             return true;
         }
         return false;
@@ -154,6 +187,8 @@ public User updateProfile(Long userId, ProfileUpdateRequest request) {
         Optional<User> userOpt = userRepository.findById(id);
         if (userOpt.isPresent()) {
             userRepository.delete(userOpt.get());
+            // Chats cascade with the user; drop cached pair ids that may point at them
+            chatLookupService.clear();
             return true;
         }
         return false;
@@ -172,18 +207,38 @@ public User updateProfile(Long userId, ProfileUpdateRequest request) {
         return user.getFriends();
     }
 
-    public List<User> searchUsers(String query) {
-        String q = query.toLowerCase();
-        return userRepository.findAll().stream()
-            .filter(u -> (u.getUsername() != null && u.getUsername().toLowerCase().contains(q)) ||
-                         (u.getFullName() != null && u.getFullName().toLowerCase().contains(q)))
-            .toList();
+    public List<User> searchUsers(String query, int page, Integer size) {
+        return FullTextSearch.ranked(query, page, size, userRepository::searchIds, userRepository::findAllById, User::getId);
     }
 
-    public List<User> getBestFriends(Long userId) {
-        User user = userRepository.findById(userId).orElseThrow();
-        List<User> friends = user.getFriends();
-        // For now, just return the first two friends (could be sorted by interaction in the future)
-        return friends.stream().limit(2).toList();
+    // Friends with the highest affinity (see AffinityService), topped up from the friend list
+    // when fewer than limit of them have interacted recently
+    public List<User> getBestFriends(Long userId, Integer limit) {
+        if (!userRepository.existsById(userId)) {
+            throw new NoSuchElementException("User not found with id: " + userId);
+        }
+        int size = limit == null ? DEFAULT_BEST_FRIENDS : Math.max(1, Math.min(limit, MAX_BEST_FRIENDS));
+        List<Long> ids = new ArrayList<>(size);
+        for (Long targetId : affinityService.topScores(userId, BEST_FRIENDS_SCAN).keySet()) {
+            if (ids.size() == size) {
+                break;
+            }
+            if (socialGraphService.areFriends(userId, targetId)) {
+                ids.add(targetId);
+            }
+        }
+        for (long friendId : socialGraphService.friendIds(userId)) {
+            if (ids.size() == size) {
+                break;
+            }
+            if (!ids.contains(friendId)) {
+                ids.add(friendId);
+            }
+        }
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, User> users = userRepository.findAllById(ids).stream().collect(Collectors.toMap(User::getId, u -> u));
+        return ids.stream().map(users::get).filter(Objects::nonNull).toList();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,58 @@
+package com.postgresql.MasChat.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.postgresql.MasChat.dto.UserSummaryDTO;
+
+// Request-scoped batch loader, obtained from UserSummaryService.loader(). Mappers register every
+// user id they are about to render, then get() resolves all pending ids with one lookup and
+// serves the rest of the request from memory. Not thread-safe; one request, one thread.
+public class UserSummaryLoader {
+    private final UserSummaryService service;
+    private final Map<Long, UserSummaryDTO> resolved = new HashMap<>();
+    private final Set<Long> pending = new LinkedHashSet<>();
+
+    UserSummaryLoader(UserSummaryService service) {
+        this.service = service;
+    }
+
+    public UserSummaryLoader register(Long userId) {
+        if (userId != null && !resolved.containsKey(userId)) {
+            pending.add(userId);
+        }
+        return this;
+    }
+
+    public UserSummaryLoader registerAll(Collection<Long> userIds) {
+        userIds.forEach(this::register);
+        return this;
+    }
+
+    // Null for a null or unknown id
+    public UserSummaryDTO get(Long userId) {
+        if (userId == null) {
+            return null;
+        }
+        if (!resolved.containsKey(userId)) {
+            register(userId);
+            dispatch();
+        }
+        return resolved.get(userId);
+    }
+
+    private void dispatch() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<Long, UserSummaryDTO> loaded = service.loadAll(pending);
+        for (Long id : pending) {
+            // Remember misses too, so an unknown id is not queried again
+            resolved.put(id, loaded.get(id));
+        }
+        pending.clear();
+    }
+}
@@ -0,0 +1,80 @@
+package com.postgresql.MasChat.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import com.postgresql.MasChat.dto.UserSummaryDTO;
+import com.postgresql.MasChat.repository.UserRepository;
+
+// Process-wide LRU cache of user summaries (users.summary-cache.max-size entries) in front of one
+// IN (...) query, plus the per-request UserSummaryLoader that DTO mappers collect ids into.
+// Profile changes must call invalidate so names and pictures are not served stale; that only
+// reaches this node, so entries also expire after users.summary-cache.ttl-seconds.
+@Service
+public class UserSummaryService {
+    private static final String LOADER_ATTRIBUTE = UserSummaryLoader.class.getName();
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final GenerationCache<Long, UserSummaryDTO> cache;
+
+    public UserSummaryService(@Value("${users.summary-cache.max-size:10000}") int maxSize,
+                              @Value("${users.summary-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.cache = new GenerationCache<>(maxSize, ttlSeconds * 1000);
+    }
+
+    // The loader bound to the current HTTP request, or a fresh one outside of a request
+    // (STOMP handlers, background threads)
+    public UserSummaryLoader loader() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return new UserSummaryLoader(this);
+        }
+        UserSummaryLoader loader = (UserSummaryLoader) attributes.getAttribute(LOADER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (loader == null) {
+            loader = new UserSummaryLoader(this);
+            attributes.setAttribute(LOADER_ATTRIBUTE, loader, RequestAttributes.SCOPE_REQUEST);
+        }
+        return loader;
+    }
+
+    // Cached summaries for the ids, the misses fetched together in one query
+    Map<Long, UserSummaryDTO> loadAll(Collection<Long> ids) {
+        Map<Long, UserSummaryDTO> found = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long id : ids) {
+            UserSummaryDTO summary = cache.get(id);
+            if (summary != null) {
+                found.put(id, summary);
+            } else {
+                misses.add(id);
+            }
+        }
+        if (misses.isEmpty()) {
+            return found;
+        }
+        long generation = cache.generation();
+        Map<Long, UserSummaryDTO> loaded = new HashMap<>();
+        for (UserSummaryDTO summary : userRepository.findSummariesByIdIn(misses)) {
+            loaded.put(summary.getId(), summary);
+        }
+        cache.putAllIfCurrent(generation, loaded);
+        found.putAll(loaded);
+        return found;
+    }
+
+    // Evicts now and again once the surrounding transaction commits
+    public void invalidate(Long userId) {
+        cache.invalidate(userId);
+    }
+}
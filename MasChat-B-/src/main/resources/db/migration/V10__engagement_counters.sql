@@ -0,0 +1,21 @@
+-- Denormalized like/comment counters, maintained in place by the like and comment endpoints
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS like_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS comment_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE reels ADD COLUMN IF NOT EXISTS like_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE reels ADD COLUMN IF NOT EXISTS comment_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE stories ADD COLUMN IF NOT EXISTS like_count INTEGER NOT NULL DEFAULT 0;
+
+-- Backfill from the existing rows
+UPDATE posts p SET
+    like_count = (SELECT COUNT(*) FROM post_likes pl WHERE pl.post_id = p.id),
+    comment_count = (SELECT COUNT(*) FROM comments c WHERE c.post_id = p.id);
+UPDATE reels r SET
+    like_count = (SELECT COUNT(*) FROM reel_likes rl WHERE rl.reel_id = r.id),
+    comment_count = (SELECT COUNT(*) FROM reel_comments rc WHERE rc.reel_id = r.id);
+UPDATE stories s SET
+    like_count = (SELECT COUNT(*) FROM story_likes sl WHERE sl.story_id = s.id);
+
+-- The viewer's batched "liked" lookup probes by user first
+CREATE INDEX IF NOT EXISTS idx_post_likes_user_id ON post_likes(user_id, post_id);
+CREATE INDEX IF NOT EXISTS idx_reel_likes_user_id ON reel_likes(user_id, reel_id);
+CREATE INDEX IF NOT EXISTS idx_story_likes_user_id ON story_likes(user_id, story_id);
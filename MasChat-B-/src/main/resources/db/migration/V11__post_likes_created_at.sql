@@ -0,0 +1,2 @@
+-- Startup reconciliation of buffered like counts looks up recently liked posts
+CREATE INDEX IF NOT EXISTS idx_post_likes_created_at ON post_likes(created_at);
@@ -0,0 +1,92 @@
+-- Full-text search: a weighted tsvector per searchable table, kept current by triggers and
+-- served by GIN indexes. The 'simple' configuration is used throughout since content is
+-- multilingual and names must match as typed; queries add prefix matching on the last term.
+
+-- Hibernate maps User.fullName to full_name; make sure it exists before the trigger reads it
+ALTER TABLE users ADD COLUMN IF NOT EXISTS full_name VARCHAR(255);
+
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS search_vector tsvector;
+ALTER TABLE comments ADD COLUMN IF NOT EXISTS search_vector tsvector;
+ALTER TABLE reels ADD COLUMN IF NOT EXISTS search_vector tsvector;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS search_vector tsvector;
+ALTER TABLE groups ADD COLUMN IF NOT EXISTS search_vector tsvector;
+ALTER TABLE marketplace_items ADD COLUMN IF NOT EXISTS search_vector tsvector;
+
+CREATE OR REPLACE FUNCTION posts_search_vector_update() RETURNS trigger AS $$
+BEGIN
+    NEW.search_vector := setweight(to_tsvector('simple', COALESCE(NEW.content, '')), 'A');
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION comments_search_vector_update() RETURNS trigger AS $$
+BEGIN
+    NEW.search_vector := setweight(to_tsvector('simple', COALESCE(NEW.content, '')), 'A');
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION reels_search_vector_update() RETURNS trigger AS $$
+BEGIN
+    NEW.search_vector := setweight(to_tsvector('simple', COALESCE(NEW.caption, '')), 'A');
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION users_search_vector_update() RETURNS trigger AS $$
+BEGIN
+    NEW.search_vector := setweight(to_tsvector('simple', COALESCE(NEW.username, '')), 'A') ||
+                         setweight(to_tsvector('simple', COALESCE(NEW.full_name, '')), 'B');
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION groups_search_vector_update() RETURNS trigger AS $$
+BEGIN
+    NEW.search_vector := setweight(to_tsvector('simple', COALESCE(NEW.name, '')), 'A') ||
+                         setweight(to_tsvector('simple', COALESCE(NEW.description, '')), 'B');
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION marketplace_items_search_vector_update() RETURNS trigger AS $$
+BEGIN
+    NEW.search_vector := setweight(to_tsvector('simple', COALESCE(NEW.title, '')), 'A') ||
+                         setweight(to_tsvector('simple', COALESCE(NEW.description, '')), 'B');
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_posts_search_vector ON posts;
+CREATE TRIGGER trg_posts_search_vector BEFORE INSERT OR UPDATE OF content ON posts
+    FOR EACH ROW EXECUTE FUNCTION posts_search_vector_update();
+DROP TRIGGER IF EXISTS trg_comments_search_vector ON comments;
+CREATE TRIGGER trg_comments_search_vector BEFORE INSERT OR UPDATE OF content ON comments
+    FOR EACH ROW EXECUTE FUNCTION comments_search_vector_update();
+DROP TRIGGER IF EXISTS trg_reels_search_vector ON reels;
+CREATE TRIGGER trg_reels_search_vector BEFORE INSERT OR UPDATE OF caption ON reels
+    FOR EACH ROW EXECUTE FUNCTION reels_search_vector_update();
+DROP TRIGGER IF EXISTS trg_users_search_vector ON users;
+CREATE TRIGGER trg_users_search_vector BEFORE INSERT OR UPDATE OF username, full_name ON users
+    FOR EACH ROW EXECUTE FUNCTION users_search_vector_update();
+DROP TRIGGER IF EXISTS trg_groups_search_vector ON groups;
+CREATE TRIGGER trg_groups_search_vector BEFORE INSERT OR UPDATE OF name, description ON groups
+    FOR EACH ROW EXECUTE FUNCTION groups_search_vector_update();
+DROP TRIGGER IF EXISTS trg_marketplace_items_search_vector ON marketplace_items;
+CREATE TRIGGER trg_marketplace_items_search_vector BEFORE INSERT OR UPDATE OF title, description ON marketplace_items
+    FOR EACH ROW EXECUTE FUNCTION marketplace_items_search_vector_update();
+
+-- Backfill: touching the watched columns fires the triggers
+UPDATE posts SET content = content;
+UPDATE comments SET content = content;
+UPDATE reels SET caption = caption;
+UPDATE users SET username = username;
+UPDATE groups SET name = name;
+UPDATE marketplace_items SET title = title;
+
+CREATE INDEX IF NOT EXISTS idx_posts_search_vector ON posts USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS idx_comments_search_vector ON comments USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS idx_reels_search_vector ON reels USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS idx_users_search_vector ON users USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS idx_groups_search_vector ON groups USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS idx_marketplace_items_search_vector ON marketplace_items USING GIN (search_vector);
@@ -0,0 +1,4 @@
+-- Keyset pages of a post's comments and of a comment's replies, and per-page like counts
+CREATE INDEX IF NOT EXISTS idx_comments_post_id_id ON comments(post_id, id);
+CREATE INDEX IF NOT EXISTS idx_comments_parent_comment_id_id ON comments(parent_comment_id, id);
+CREATE INDEX IF NOT EXISTS idx_likes_comment_id ON likes(comment_id);
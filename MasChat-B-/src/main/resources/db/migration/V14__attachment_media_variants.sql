@@ -0,0 +1,15 @@
+-- Processing state and resized variants of uploaded media. Rows from before the pipeline are
+-- plain files and count as ready.
+ALTER TABLE attachments ADD COLUMN IF NOT EXISTS user_id BIGINT REFERENCES users(id) ON DELETE SET NULL;
+ALTER TABLE attachments ADD COLUMN IF NOT EXISTS status VARCHAR(20) NOT NULL DEFAULT 'READY';
+ALTER TABLE attachments ALTER COLUMN status SET DEFAULT 'PENDING';
+ALTER TABLE attachments ADD COLUMN IF NOT EXISTS width INTEGER;
+ALTER TABLE attachments ADD COLUMN IF NOT EXISTS height INTEGER;
+ALTER TABLE attachments ADD COLUMN IF NOT EXISTS blurhash VARCHAR(64);
+ALTER TABLE attachments ADD COLUMN IF NOT EXISTS thumbnail_url TEXT;
+ALTER TABLE attachments ADD COLUMN IF NOT EXISTS medium_url TEXT;
+ALTER TABLE attachments ADD COLUMN IF NOT EXISTS processed_at TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_attachments_post_id ON attachments(post_id);
+-- Startup and the sweeper requeue unfinished work
+CREATE INDEX IF NOT EXISTS idx_attachments_unfinished ON attachments(id) WHERE status IN ('PENDING', 'PROCESSING');
@@ -0,0 +1,6 @@
+-- One request per direction is already enforced by UNIQUE(sender_id, receiver_id) from V1
+-- (friend_requests_sender_id_receiver_id_key), whose index also serves lookups by sender.
+-- (receiver_id, sender_id) serves those by receiver; together they replace the single-column indexes.
+CREATE INDEX IF NOT EXISTS idx_friend_requests_receiver_sender ON friend_requests(receiver_id, sender_id);
+DROP INDEX IF EXISTS idx_friend_requests_sender_id;
+DROP INDEX IF EXISTS idx_friend_requests_receiver_id;
@@ -0,0 +1,14 @@
+-- Messages exchanged per conversation side, so chat partners can be ranked by how much they talk
+-- without reading the messages table
+ALTER TABLE inbox_entries ADD COLUMN IF NOT EXISTS message_count BIGINT NOT NULL DEFAULT 0;
+
+UPDATE inbox_entries e
+SET message_count = c.n
+FROM (
+    SELECT LEAST(sender_id, recipient_id) AS a, GREATEST(sender_id, recipient_id) AS b, COUNT(*) AS n
+    FROM messages
+    WHERE sender_id IS NOT NULL AND recipient_id IS NOT NULL
+    GROUP BY 1, 2
+) c
+WHERE LEAST(e.user_id, e.partner_id) = c.a
+  AND GREATEST(e.user_id, e.partner_id) = c.b;
@@ -0,0 +1,37 @@
+-- Decayed interaction score of a user towards another, maintained by AffinityService. score is
+-- scaled to 2025-01-01 with a 14-day half-life (see AffinityService), so it only ever grows and
+-- one user's rows keep their order as time passes.
+CREATE TABLE IF NOT EXISTS user_affinities (
+    user_id BIGINT REFERENCES users(id) ON DELETE CASCADE NOT NULL,
+    target_id BIGINT REFERENCES users(id) ON DELETE CASCADE NOT NULL,
+    score DOUBLE PRECISION NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (user_id, target_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_user_affinities_user_score ON user_affinities(user_id, score DESC);
+
+-- Seed from the last 90 days of messages, post likes, comments and tips, with the weights of
+-- AffinityService.Interaction
+WITH events AS (
+    SELECT sender_id AS user_id, recipient_id AS target_id, sent_at AS at, 1.0 AS weight FROM messages
+    WHERE sent_at >= NOW() - INTERVAL '90 days'
+    UNION ALL
+    SELECT recipient_id, sender_id, sent_at, 0.5 FROM messages
+    WHERE sent_at >= NOW() - INTERVAL '90 days'
+    UNION ALL
+    SELECT pl.user_id, p.user_id, pl.created_at, 1.0 FROM post_likes pl JOIN posts p ON p.id = pl.post_id
+    WHERE pl.created_at >= NOW() - INTERVAL '90 days'
+    UNION ALL
+    SELECT c.user_id, p.user_id, c.created_at, 2.0 FROM comments c JOIN posts p ON p.id = c.post_id
+    WHERE c.created_at >= NOW() - INTERVAL '90 days'
+    UNION ALL
+    SELECT sender_id, recipient_id, created_at, 3.0 FROM mass_coin_transactions
+    WHERE transaction_type = 'CONTENT_TIP' AND status = 'CONFIRMED' AND created_at >= NOW() - INTERVAL '90 days'
+)
+INSERT INTO user_affinities (user_id, target_id, score)
+SELECT user_id, target_id, SUM(weight * power(2, (EXTRACT(EPOCH FROM at) - 1735689600) / 1209600.0))
+FROM events
+WHERE user_id IS NOT NULL AND target_id IS NOT NULL AND user_id <> target_id AND at IS NOT NULL
+GROUP BY user_id, target_id
+ON CONFLICT (user_id, target_id) DO NOTHING;
@@ -0,0 +1,7 @@
+-- Search input is tokenized by the same parser and 'simple' dictionary as the search_vector
+-- columns, so tokens the parser keeps whole (jane.doe, example.com, iphone-15) match as typed.
+-- Every term must match and the last may be a word prefix. Input without any word gives NULL,
+-- which matches nothing. plainto_tsquery quotes each lexeme, so no input is a syntax error.
+CREATE OR REPLACE FUNCTION search_tsquery(input text) RETURNS tsquery AS $$
+    SELECT (NULLIF(plainto_tsquery('simple', input)::text, '') || ':*')::tsquery
+$$ LANGUAGE sql IMMUTABLE;
@@ -0,0 +1,9 @@
+-- Broker relay messages too large for a NOTIFY payload (chat.relay.mode=postgres). The
+-- notification carries the row id; rows are read by every receiving node and swept once old.
+CREATE TABLE IF NOT EXISTS relay_payloads (
+    id BIGSERIAL PRIMARY KEY,
+    payload BYTEA NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX IF NOT EXISTS idx_relay_payloads_created_at ON relay_payloads(created_at);
@@ -0,0 +1,4 @@
+-- Keyset index for paginated conversation history (newest first).
+-- Supersedes the single-column chat_id index, which is a prefix of it.
+CREATE INDEX IF NOT EXISTS idx_messages_chat_sent_at_id ON messages(chat_id, sent_at DESC, id DESC);
+DROP INDEX IF EXISTS idx_messages_chat_id;
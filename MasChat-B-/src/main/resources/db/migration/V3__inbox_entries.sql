@@ -0,0 +1,38 @@
+-- Per-user inbox projection: one row per (owner, partner) conversation
+CREATE TABLE IF NOT EXISTS inbox_entries (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT REFERENCES users(id) ON DELETE CASCADE NOT NULL,
+    partner_id BIGINT REFERENCES users(id) ON DELETE CASCADE NOT NULL,
+    chat_id BIGINT REFERENCES chats(id) ON DELETE CASCADE NOT NULL,
+    last_message_id BIGINT,
+    last_message_preview VARCHAR(255),
+    last_message_at TIMESTAMP NOT NULL,
+    unread_count BIGINT NOT NULL DEFAULT 0,
+    UNIQUE(user_id, partner_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_inbox_entries_user_last_message_at ON inbox_entries(user_id, last_message_at DESC);
+
+-- Backfill from existing messages: latest message and unread count per side of each conversation
+WITH sides AS (
+    SELECT sender_id AS user_id, recipient_id AS partner_id, chat_id, id, content, image, sent_at, FALSE AS unread
+    FROM messages
+    UNION ALL
+    SELECT recipient_id, sender_id, chat_id, id, content, image, sent_at, NOT read
+    FROM messages
+    WHERE recipient_id <> sender_id
+),
+ranked AS (
+    SELECT sides.*,
+           COUNT(*) FILTER (WHERE unread) OVER (PARTITION BY user_id, partner_id) AS unread_count
+    FROM sides
+)
+INSERT INTO inbox_entries (user_id, partner_id, chat_id, last_message_id, last_message_preview, last_message_at, unread_count)
+SELECT DISTINCT ON (user_id, partner_id)
+       user_id, partner_id, chat_id, id,
+       CASE WHEN (content IS NULL OR content = '') AND image IS NOT NULL THEN '[Image]' ELSE LEFT(content, 255) END,
+       sent_at, unread_count
+FROM ranked
+WHERE user_id IS NOT NULL AND partner_id IS NOT NULL
+ORDER BY user_id, partner_id, sent_at DESC, id DESC
+ON CONFLICT (user_id, partner_id) DO NOTHING;
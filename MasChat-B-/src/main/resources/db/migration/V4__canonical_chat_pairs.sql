@@ -0,0 +1,23 @@
+-- Store every chat with user1_id < user2_id so a pair of users maps to exactly one row.
+
+-- Fold reversed duplicates (b, a) into the already-canonical (a, b) row
+UPDATE messages m
+SET chat_id = keep.id
+FROM chats dup
+JOIN chats keep ON keep.user1_id = dup.user2_id AND keep.user2_id = dup.user1_id
+WHERE m.chat_id = dup.id AND dup.user1_id > dup.user2_id;
+
+UPDATE inbox_entries e
+SET chat_id = keep.id
+FROM chats dup
+JOIN chats keep ON keep.user1_id = dup.user2_id AND keep.user2_id = dup.user1_id
+WHERE e.chat_id = dup.id AND dup.user1_id > dup.user2_id;
+
+DELETE FROM chats dup
+USING chats keep
+WHERE keep.user1_id = dup.user2_id AND keep.user2_id = dup.user1_id AND dup.user1_id > dup.user2_id;
+
+-- Swap the remaining non-canonical rows
+UPDATE chats SET user1_id = user2_id, user2_id = user1_id WHERE user1_id > user2_id;
+
+ALTER TABLE chats ADD CONSTRAINT chk_chats_canonical_pair CHECK (user1_id <= user2_id);
@@ -0,0 +1,20 @@
+-- Per-participant read watermark: every message in the chat up to last_read_message_id has been read
+CREATE TABLE IF NOT EXISTS chat_read_receipts (
+    id BIGSERIAL PRIMARY KEY,
+    chat_id BIGINT REFERENCES chats(id) ON DELETE CASCADE NOT NULL,
+    user_id BIGINT REFERENCES users(id) ON DELETE CASCADE NOT NULL,
+    last_read_message_id BIGINT NOT NULL,
+    read_at TIMESTAMP NOT NULL,
+    UNIQUE(chat_id, user_id)
+);
+
+-- Only unread rows are touched by mark-read and unread counts, so keep the index to those
+CREATE INDEX IF NOT EXISTS idx_messages_unread ON messages(chat_id, recipient_id) WHERE read = FALSE;
+
+-- Backfill watermarks from messages already flagged as read
+INSERT INTO chat_read_receipts (chat_id, user_id, last_read_message_id, read_at)
+SELECT chat_id, recipient_id, MAX(id), NOW()
+FROM messages
+WHERE read = TRUE AND chat_id IS NOT NULL
+GROUP BY chat_id, recipient_id
+ON CONFLICT (chat_id, user_id) DO NOTHING;
@@ -0,0 +1,9 @@
+-- Per-participant "clear chat": messages up to cleared_up_to_message_id are hidden from that user only
+CREATE TABLE IF NOT EXISTS chat_history_clears (
+    id BIGSERIAL PRIMARY KEY,
+    chat_id BIGINT REFERENCES chats(id) ON DELETE CASCADE NOT NULL,
+    user_id BIGINT REFERENCES users(id) ON DELETE CASCADE NOT NULL,
+    cleared_up_to_message_id BIGINT NOT NULL,
+    cleared_at TIMESTAMP NOT NULL,
+    UNIQUE(chat_id, user_id)
+);
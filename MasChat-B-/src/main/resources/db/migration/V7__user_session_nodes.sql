@@ -0,0 +1,10 @@
+-- Which chat nodes hold WebSocket sessions for a user (chat.relay.mode=postgres)
+CREATE TABLE IF NOT EXISTS user_session_nodes (
+    user_name VARCHAR(100) NOT NULL,
+    node_id VARCHAR(64) NOT NULL,
+    session_count INT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (user_name, node_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_user_session_nodes_node ON user_session_nodes(node_id);
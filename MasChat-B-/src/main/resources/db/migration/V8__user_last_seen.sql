@@ -0,0 +1,2 @@
+-- Last time a user's final WebSocket session closed, written by PresenceService
+ALTER TABLE users ADD COLUMN IF NOT EXISTS last_seen TIMESTAMP;
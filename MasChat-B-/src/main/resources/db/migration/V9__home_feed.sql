@@ -0,0 +1,26 @@
+-- One feed per user, so fan-out can upsert into it
+DELETE FROM feeds f USING feeds g WHERE f.user_id = g.user_id AND f.id > g.id;
+CREATE UNIQUE INDEX IF NOT EXISTS uk_feeds_user_id ON feeds(user_id);
+
+-- Posts of authors over the fan-out threshold are merged into feeds at read time
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS fanout_on_read BOOLEAN NOT NULL DEFAULT FALSE;
+CREATE INDEX IF NOT EXISTS idx_posts_user_id_id ON posts(user_id, id);
+CREATE INDEX IF NOT EXISTS idx_posts_fanout_on_read ON posts(user_id, id) WHERE fanout_on_read = TRUE;
+
+-- Seed feeds with the last 30 days of posts by each user and their friends
+INSERT INTO feeds (user_id, updated_at)
+SELECT id, NOW() FROM users
+ON CONFLICT (user_id) DO NOTHING;
+
+INSERT INTO feed_posts (feed_id, post_id)
+SELECT f.id, p.id
+FROM feeds f
+JOIN posts p ON p.user_id = f.user_id
+WHERE p.created_at >= NOW() - INTERVAL '30 days'
+UNION
+SELECT f.id, p.id
+FROM feeds f
+JOIN user_friends uf ON uf.user_id = f.user_id
+JOIN posts p ON p.user_id = uf.friend_id
+WHERE p.created_at >= NOW() - INTERVAL '30 days'
+ON CONFLICT DO NOTHING;
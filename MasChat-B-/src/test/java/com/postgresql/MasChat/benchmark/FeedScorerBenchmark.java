@@ -0,0 +1,78 @@
+package com.postgresql.MasChat.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.postgresql.MasChat.service.FeedCandidates;
+import com.postgresql.MasChat.service.FeedScorer;
+import com.postgresql.MasChat.service.FeedSignal;
+
+// Ranking cost of one feed request with the default signal weights. Run with
+// mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.postgresql.MasChat.benchmark.FeedScorerBenchmark
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FeedScorerBenchmark {
+    @Param({"100", "1000", "5000"})
+    private int candidateCount;
+
+    private FeedScorer scorer;
+    private FeedCandidates candidates;
+    private float[] scores;
+    private long now;
+
+    @Setup
+    public void setUp() {
+        scorer = new FeedScorer()
+            .with(FeedSignal.affinity(), 3.0f)
+            .with(FeedSignal.velocity(5f), 2.0f)
+            .with(FeedSignal.recency(24f), 2.0f)
+            .with(FeedSignal.media(0f, 0.6f, 1f), 0.5f);
+
+        Random random = new Random(42);
+        now = System.currentTimeMillis();
+        candidates = new FeedCandidates(candidateCount);
+        for (int i = 0; i < candidateCount; i++) {
+            byte kind = i % 4 == 0 ? FeedCandidates.KIND_REEL : FeedCandidates.KIND_POST;
+            int slot = candidates.add(kind, candidateCount - i, random.nextInt(300),
+                now - (long) random.nextInt(7 * 24) * 3_600_000L, random.nextInt(500), random.nextInt(50),
+                (byte) random.nextInt(3));
+            if (random.nextInt(5) == 0) {
+                candidates.setAffinity(slot, random.nextFloat());
+            }
+        }
+        scores = new float[candidateCount];
+    }
+
+    @Benchmark
+    public void score() {
+        scorer.score(candidates, now, scores);
+    }
+
+    @Benchmark
+    public int[] rank() {
+        return scorer.rank(candidates, now, scores);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(FeedScorerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
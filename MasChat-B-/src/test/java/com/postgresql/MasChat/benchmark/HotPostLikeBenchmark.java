@@ -0,0 +1,167 @@
+package com.postgresql.MasChat.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import com.postgresql.MasChat.repository.PostRepository;
+import com.postgresql.MasChat.repository.ReelRepository;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+// Many users liking and unliking one hot item at once, each statement in its own transaction as
+// in the services. main runs both benchmarks at 1, 2, 4, 8 and 16 threads to show how each
+// path scales with the number of concurrent likers. Post likes only touch post_likes (the counter is buffered by
+// ReactionCounterBuffer); reel likes also bump reels.like_count, so every like queues on that one
+// row. The SQL is read from the repositories' @Query annotations. Needs Docker for the Postgres
+// container, or -Dbenchmark.jdbc-url (with .username/.password) pointing at an empty database. Run with
+// mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.postgresql.MasChat.benchmark.HotPostLikeBenchmark
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HotPostLikeBenchmark {
+    private static final int LIKERS_PER_THREAD = 64;
+    private static final int MAX_THREADS = 64;
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16};
+
+    @State(Scope.Benchmark)
+    public static class Database {
+        PostgreSQLContainer<?> container;
+        HikariDataSource dataSource;
+        NamedParameterJdbcTemplate jdbc;
+        String postLike;
+        String postUnlike;
+        String reelLike;
+        String reelUnlike;
+        long postId;
+        long reelId;
+        long[] userIds;
+        final AtomicInteger threads = new AtomicInteger();
+
+        @Setup(Level.Trial)
+        public void start() throws Exception {
+            HikariConfig config = new HikariConfig();
+            String url = System.getProperty("benchmark.jdbc-url");
+            if (url == null) {
+                container = new PostgreSQLContainer<>("postgres:16-alpine");
+                container.start();
+                config.setJdbcUrl(container.getJdbcUrl());
+                config.setUsername(container.getUsername());
+                config.setPassword(container.getPassword());
+            } else {
+                config.setJdbcUrl(url);
+                config.setUsername(System.getProperty("benchmark.username", "postgres"));
+                config.setPassword(System.getProperty("benchmark.password", ""));
+            }
+            config.setMaximumPoolSize(MAX_THREADS);
+            dataSource = new HikariDataSource(config);
+            Flyway.configure().dataSource(dataSource).load().migrate();
+
+            postLike = sql(PostRepository.class, "insertLike");
+            postUnlike = sql(PostRepository.class, "deleteLike");
+            reelLike = sql(ReelRepository.class, "insertLike");
+            reelUnlike = sql(ReelRepository.class, "deleteLike");
+
+            JdbcTemplate template = new JdbcTemplate(dataSource);
+            String run = Long.toString(System.nanoTime(), 36);
+            userIds = new long[MAX_THREADS * LIKERS_PER_THREAD];
+            for (int i = 0; i < userIds.length; i++) {
+                userIds[i] = template.queryForObject(
+                    "INSERT INTO users (username, email, password) VALUES (?, ?, 'x') RETURNING id", Long.class,
+                    "liker-" + run + "-" + i, "liker-" + run + "-" + i + "@example.test");
+            }
+            postId = template.queryForObject("INSERT INTO posts (user_id) VALUES (?) RETURNING id", Long.class, userIds[0]);
+            reelId = template.queryForObject("INSERT INTO reels (user_id) VALUES (?) RETURNING id", Long.class, userIds[0]);
+            jdbc = new NamedParameterJdbcTemplate(dataSource);
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            dataSource.close();
+            if (container != null) {
+                container.stop();
+            }
+        }
+
+        private static String sql(Class<?> repository, String method) throws NoSuchMethodException {
+            return repository.getMethod(method, Long.class, Long.class).getAnnotation(Query.class).value();
+        }
+    }
+
+    // Each thread likes with its own users, so every like and unlike changes a row
+    @State(Scope.Thread)
+    public static class Liker {
+        long[] userIds;
+        int offset;
+        int next;
+
+        @Setup(Level.Trial)
+        public void assign(Database db) {
+            int thread = db.threads.getAndIncrement();
+            if (thread >= MAX_THREADS) {
+                throw new IllegalStateException("At most " + MAX_THREADS + " threads are seeded");
+            }
+            userIds = db.userIds;
+            offset = thread * LIKERS_PER_THREAD;
+        }
+
+        long nextUserId() {
+            next = (next + 1) % LIKERS_PER_THREAD;
+            return userIds[offset + next];
+        }
+    }
+
+    @Benchmark
+    public int likeAndUnlikePost(Database db, Liker liker) {
+        MapSqlParameterSource params = new MapSqlParameterSource("postId", db.postId).addValue("userId", liker.nextUserId());
+        return db.jdbc.update(db.postLike, params) + db.jdbc.update(db.postUnlike, params);
+    }
+
+    @Benchmark
+    public int likeAndUnlikeReel(Database db, Liker liker) {
+        MapSqlParameterSource params = new MapSqlParameterSource("reelId", db.reelId).addValue("userId", liker.nextUserId());
+        return db.jdbc.update(db.reelLike, params) + db.jdbc.update(db.reelUnlike, params);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        List<String> summary = new ArrayList<>();
+        for (int threads : THREAD_COUNTS) {
+            Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .include(HotPostLikeBenchmark.class.getSimpleName())
+                .threads(threads)
+                .build()).run();
+            for (RunResult result : results) {
+                summary.add(String.format("%-20s %3d threads %12.1f ops/s", result.getParams().getBenchmark()
+                    .replaceFirst(".*\\.", ""), threads, result.getPrimaryResult().getScore()));
+            }
+        }
+        summary.forEach(System.out::println);
+    }
+}
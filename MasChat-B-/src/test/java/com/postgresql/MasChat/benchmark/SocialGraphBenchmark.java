@@ -0,0 +1,139 @@
+package com.postgresql.MasChat.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.postgresql.MasChat.model.User;
+import com.postgresql.MasChat.service.SocialGraph;
+
+// Friendship checks and mutual-friend counts on the SocialGraph index against the in-memory part
+// of the entity path (User.getFriends().contains, id sets). The entity path also pays for loading
+// both users and their friends lists, which is not measured here. Run with
+// mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.postgresql.MasChat.benchmark.SocialGraphBenchmark
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SocialGraphBenchmark {
+    private static final int USERS = 20_000;
+    private static final int PAIRS = 1024;
+
+    @Param({"50", "500"})
+    private int averageDegree;
+
+    private SocialGraph graph;
+    private User[] users;
+    private long[] left;
+    private long[] right;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<TreeSet<Long>> adjacency = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            adjacency.add(new TreeSet<>());
+        }
+        long edges = (long) USERS * averageDegree / 2;
+        for (long e = 0; e < edges; e++) {
+            int a = random.nextInt(USERS);
+            int b = random.nextInt(USERS);
+            if (a != b) {
+                adjacency.get(a).add((long) b);
+                adjacency.get(b).add((long) a);
+            }
+        }
+
+        SocialGraph.Builder builder = new SocialGraph.Builder();
+        users = new User[USERS];
+        for (int i = 0; i < USERS; i++) {
+            users[i] = new User();
+            users[i].setId((long) i);
+        }
+        for (int i = 0; i < USERS; i++) {
+            List<User> friends = new ArrayList<>(adjacency.get(i).size());
+            for (long friendId : adjacency.get(i)) {
+                builder.add(i, friendId);
+                friends.add(users[(int) friendId]);
+            }
+            users[i].setFriends(friends);
+        }
+        graph = new SocialGraph(4096);
+        graph.load(builder);
+
+        // Half the pairs are friends, half are random
+        left = new long[PAIRS];
+        right = new long[PAIRS];
+        for (int p = 0; p < PAIRS; p++) {
+            int a = random.nextInt(USERS);
+            left[p] = a;
+            TreeSet<Long> friends = adjacency.get(a);
+            right[p] = p % 2 == 0 && !friends.isEmpty() ? friends.first() : random.nextInt(USERS);
+        }
+    }
+
+    private int nextPair() {
+        next = (next + 1) & (PAIRS - 1);
+        return next;
+    }
+
+    @Benchmark
+    public boolean areFriendsIndex() {
+        int p = nextPair();
+        return graph.areFriends(left[p], right[p]);
+    }
+
+    @Benchmark
+    public boolean areFriendsEntity() {
+        int p = nextPair();
+        return users[(int) left[p]].getFriends().contains(users[(int) right[p]]);
+    }
+
+    @Benchmark
+    public int mutualCountIndex() {
+        int p = nextPair();
+        return graph.mutualCount(left[p], right[p]);
+    }
+
+    @Benchmark
+    public int mutualCountEntity() {
+        int p = nextPair();
+        Set<Long> ids = new HashSet<>();
+        for (User friend : users[(int) left[p]].getFriends()) {
+            ids.add(friend.getId());
+        }
+        int count = 0;
+        for (User friend : users[(int) right[p]].getFriends()) {
+            if (ids.contains(friend.getId())) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SocialGraphBenchmark.class.getSimpleName()).build()).run();
+    }
+}
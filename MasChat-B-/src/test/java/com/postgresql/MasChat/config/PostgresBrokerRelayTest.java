@@ -0,0 +1,152 @@
+package com.postgresql.MasChat.config;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.InterceptableChannel;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.postgresql.MasChat.MasChatApplication;
+import com.postgresql.MasChat.TestConfig;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Two application contexts in one JVM sharing one Postgres, as two chat nodes would. A message
+// sent on node A must reach node B's broker when the user's session is registered on node B.
+@Testcontainers(disabledWithoutDocker = true)
+class PostgresBrokerRelayTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+    // Messages node B's broker received from another node
+    private static final BlockingQueue<Message<?>> relayedToB = new LinkedBlockingQueue<>();
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = startNode("node_a");
+        nodeB = startNode("node_b");
+        nodeB.getBean("brokerChannel", InterceptableChannel.class).addInterceptor(new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                if (message.getHeaders().containsKey(BrokerRelay.RELAYED_HEADER)) {
+                    relayedToB.add(message);
+                }
+                return message;
+            }
+        });
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+    }
+
+    @Test
+    void userMessageOnNodeAReachesSessionOnNodeB() throws InterruptedException {
+        nodeB.getBean(BrokerRelay.class).userConnected("42");
+        try {
+            Message<?> message = sendUntilRelayed(() -> nodeA.getBean(SimpMessagingTemplate.class)
+                .convertAndSendToUser("42", "/queue/messages", Map.of("content", "hello from a")), "/user/42/queue/messages");
+
+            assertEquals("node_a", message.getHeaders().get(BrokerRelay.RELAYED_HEADER));
+            assertTrue(new String((byte[]) message.getPayload(), StandardCharsets.UTF_8).contains("hello from a"));
+        } finally {
+            nodeB.getBean(BrokerRelay.class).userDisconnected("42");
+        }
+    }
+
+    @Test
+    void messageOverTheNotifyLimitIsRelayedThroughTheTable() throws InterruptedException {
+        nodeB.getBean(BrokerRelay.class).userConnected("44");
+        try {
+            String content = "x".repeat(20_000);
+            Message<?> message = sendUntilRelayed(() -> nodeA.getBean(SimpMessagingTemplate.class)
+                .convertAndSendToUser("44", "/queue/messages", Map.of("content", content)), "/user/44/queue/messages");
+
+            assertTrue(new String((byte[]) message.getPayload(), StandardCharsets.UTF_8).contains(content));
+        } finally {
+            nodeB.getBean(BrokerRelay.class).userDisconnected("44");
+        }
+    }
+
+    @Test
+    void userWithoutSessionOnNodeBIsNotRelayedThere() throws InterruptedException {
+        // The broadcast topic proves node B is listening before checking for absence
+        sendUntilRelayed(() -> nodeA.getBean(SimpMessagingTemplate.class)
+            .convertAndSend("/topic/presence/7", Map.of("online", true)), "/topic/presence/7");
+        relayedToB.clear();
+
+        nodeA.getBean(SimpMessagingTemplate.class).convertAndSendToUser("43", "/queue/messages", Map.of("content", "nobody on b"));
+        Message<?> message = relayedToB.poll(1, TimeUnit.SECONDS);
+        assertNull(message, "relayed to a node without a session for the user");
+    }
+
+    private static ConfigurableApplicationContext startNode(String nodeId) {
+        return new SpringApplicationBuilder(Node.class).run(
+            "--server.port=0",
+            // The test profile switches security and WebSocket auto-configuration off for H2 tests
+            "--spring.autoconfigure.exclude=",
+            "--spring.datasource.url=" + POSTGRES.getJdbcUrl(),
+            "--spring.datasource.username=" + POSTGRES.getUsername(),
+            "--spring.datasource.password=" + POSTGRES.getPassword(),
+            "--spring.datasource.driver-class-name=org.postgresql.Driver",
+            "--spring.jpa.hibernate.ddl-auto=none",
+            "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+            "--spring.flyway.enabled=true",
+            "--chat.relay.mode=postgres",
+            "--chat.relay.node-id=" + nodeId);
+    }
+
+    // MasChatApplication without TestConfig, whose exclusions would switch security off
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EnableJpaRepositories(basePackages = "com.postgresql.MasChat.repository")
+    @EntityScan(basePackages = "com.postgresql.MasChat.model")
+    @ComponentScan(basePackages = "com.postgresql.MasChat", excludeFilters = @ComponentScan.Filter(
+        type = FilterType.ASSIGNABLE_TYPE, classes = {TestConfig.class, MasChatApplication.class}))
+    static class Node {}
+
+    // Node B starts listening on its own thread after startup, so the first sends may go unheard
+    private static Message<?> sendUntilRelayed(Runnable send, String destination) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 15_000;
+        while (System.currentTimeMillis() < deadline) {
+            send.run();
+            Message<?> message;
+            while ((message = relayedToB.poll(500, TimeUnit.MILLISECONDS)) != null) {
+                if (destination.equals(SimpMessageHeaderAccessor.getDestination(message.getHeaders()))) {
+                    return message;
+                }
+            }
+        }
+        return fail("nothing relayed to node B for " + destination);
+    }
+}
@@ -0,0 +1,69 @@
+package com.postgresql.MasChat.repository;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// search_tsquery (V18) against Postgres: input is split by the same parser as the search_vector
+// columns, so dotted names and host names match whole, and the last term matches as a prefix.
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class FullTextSearchQueryTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.flyway.enabled", () -> "true");
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void buildsPrefixQueriesFromPostgresTokens() {
+        assertEquals("'jane.doe':*", tsQuery("Jane.Doe"));
+        assertEquals("'jane' & 'do':*", tsQuery("Jane Do"));
+        assertEquals("'drop' & 'table':*", tsQuery("'); DROP TABLE:* --"));
+        assertNull(tsQuery("&|!():*'"));
+    }
+
+    @Test
+    void findsUsersByFullDottedUsernameAndPrefix() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        long id = jdbcTemplate.queryForObject(
+            "INSERT INTO users (username, email, password, full_name) VALUES (?, ?, 'x', 'Jane Doe') RETURNING id",
+            Long.class, "jane.doe" + suffix, suffix + "@example.test");
+
+        assertTrue(userRepository.searchIds("jane.doe" + suffix, 10, 0).contains(id));
+        assertTrue(userRepository.searchIds("jane.do", 10, 0).contains(id));
+        assertTrue(userRepository.searchIds("Jane D", 10, 0).contains(id));
+        assertFalse(userRepository.searchIds("jane.doe" + suffix + "x", 10, 0).contains(id));
+        assertTrue(userRepository.searchIds("&|!", 10, 0).isEmpty());
+    }
+
+    private String tsQuery(String input) {
+        return jdbcTemplate.queryForObject("SELECT search_tsquery(?)::text", String.class, input);
+    }
+}
@@ -0,0 +1,158 @@
+package com.postgresql.MasChat.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The single-statement like/unlike queries against Postgres: a row is only counted when the
+// statement actually wrote it, so a repeated or concurrent duplicate like reports 0 and leaves
+// the counter alone. Post counters are moved by ReactionCounterBuffer, not by the statement.
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class ReactionStatementsTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.flyway.enabled", () -> "true");
+    }
+
+    @Autowired
+    private PostRepository postRepository;
+    @Autowired
+    private ReelRepository reelRepository;
+    @Autowired
+    private StoryRepository storyRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private long authorId;
+
+    @BeforeEach
+    void createAuthor() {
+        authorId = createUser("author");
+    }
+
+    @Test
+    void postLikeIsIdempotentAndLeavesTheCounterToTheBuffer() {
+        long postId = jdbcTemplate.queryForObject("INSERT INTO posts (user_id) VALUES (?) RETURNING id", Long.class, authorId);
+        long liker = createUser("post-liker");
+
+        assertEquals(1, postRepository.insertLike(postId, liker));
+        assertEquals(0, postRepository.insertLike(postId, liker));
+        assertEquals(1, countRows("post_likes", "post_id", postId));
+        assertEquals(0, postRepository.findLikeCount(postId));
+
+        assertEquals(1, postRepository.deleteLike(postId, liker));
+        assertEquals(0, postRepository.deleteLike(postId, liker));
+        assertEquals(0, countRows("post_likes", "post_id", postId));
+    }
+
+    @Test
+    void reelAndStoryLikesMoveTheCounterOnlyWhenARowChanged() {
+        long reelId = jdbcTemplate.queryForObject("INSERT INTO reels (user_id) VALUES (?) RETURNING id", Long.class, authorId);
+        long storyId = jdbcTemplate.queryForObject("INSERT INTO stories (user_id) VALUES (?) RETURNING id", Long.class, authorId);
+        long liker = createUser("reel-liker");
+
+        assertEquals(1, reelRepository.insertLike(reelId, liker));
+        assertEquals(0, reelRepository.insertLike(reelId, liker));
+        assertEquals(1, reelRepository.findLikeCount(reelId));
+        assertEquals(1, reelRepository.deleteLike(reelId, liker));
+        assertEquals(0, reelRepository.deleteLike(reelId, liker));
+        assertEquals(0, reelRepository.findLikeCount(reelId));
+
+        assertEquals(1, storyRepository.insertLike(storyId, liker));
+        assertEquals(0, storyRepository.insertLike(storyId, liker));
+        assertEquals(1, storyRepository.findLikeCount(storyId));
+        assertEquals(1, storyRepository.deleteLike(storyId, liker));
+        assertEquals(0, storyRepository.deleteLike(storyId, liker));
+        assertEquals(0, storyRepository.findLikeCount(storyId));
+    }
+
+    @Test
+    void likeOfUnknownPostFailsOnTheForeignKey() {
+        long liker = createUser("lost-liker");
+        assertThrows(DataIntegrityViolationException.class, () -> postRepository.insertLike(Long.MAX_VALUE, liker));
+    }
+
+    // Every liker sends the same like from two threads at once; exactly one of each pair counts
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void concurrentDuplicateLikesOnAHotReelCountOnce() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        long author = tx.execute(status -> createUser("hot-author"));
+        long reelId = tx.execute(status -> jdbcTemplate.queryForObject("INSERT INTO reels (user_id) VALUES (?) RETURNING id", Long.class, author));
+        List<Long> likers = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            int n = i;
+            likers.add(tx.execute(status -> createUser("hot-liker-" + n)));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            List<Callable<Integer>> likes = new ArrayList<>();
+            for (Long liker : likers) {
+                Callable<Integer> like = () -> tx.execute(status -> reelRepository.insertLike(reelId, liker));
+                likes.add(like);
+                likes.add(like);
+            }
+            int changed = 0;
+            for (Future<Integer> result : pool.invokeAll(likes)) {
+                changed += result.get();
+            }
+            assertEquals(likers.size(), changed);
+            assertEquals(likers.size(), reelRepository.findLikeCount(reelId));
+            assertEquals(likers.size(), countRows("reel_likes", "reel_id", reelId));
+        } finally {
+            pool.shutdownNow();
+            jdbcTemplate.update("DELETE FROM reels WHERE id = ?", reelId);
+            jdbcTemplate.update("DELETE FROM users WHERE id = ?", author);
+            likers.forEach(liker -> jdbcTemplate.update("DELETE FROM users WHERE id = ?", liker));
+        }
+    }
+
+    private long createUser(String prefix) {
+        String username = prefix + "-" + UUID.randomUUID().toString().substring(0, 8);
+        return jdbcTemplate.queryForObject(
+            "INSERT INTO users (username, email, password) VALUES (?, ?, 'x') RETURNING id", Long.class,
+            username, username + "@example.test");
+    }
+
+    private long countRows(String table, String column, long id) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE " + column + " = ?", Long.class, id);
+    }
+}
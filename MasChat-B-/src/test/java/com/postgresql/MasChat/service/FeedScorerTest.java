@@ -0,0 +1,61 @@
+package com.postgresql.MasChat.service;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeedScorerTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+    private static final long HOUR = 3_600_000L;
+
+    @Test
+    void ranksByWeightedScoreBestFirst() {
+        FeedCandidates candidates = new FeedCandidates(4);
+        candidates.add(FeedCandidates.KIND_POST, 10, 1, NOW - 48 * HOUR, 0, 0, FeedCandidates.MEDIA_TEXT);
+        candidates.add(FeedCandidates.KIND_POST, 11, 1, NOW, 0, 0, FeedCandidates.MEDIA_TEXT);
+        candidates.add(FeedCandidates.KIND_REEL, 12, 2, NOW - 6 * HOUR, 0, 0, FeedCandidates.MEDIA_VIDEO);
+        candidates.add(FeedCandidates.KIND_POST, 13, 3, NOW - 24 * HOUR, 0, 0, FeedCandidates.MEDIA_TEXT);
+        candidates.setAffinity(3, 1f);
+
+        FeedScorer scorer = new FeedScorer()
+            .with(FeedSignal.recency(6f), 1f)
+            .with(FeedSignal.affinity(), 2f);
+        float[] scores = new float[4];
+        int[] order = scorer.rank(candidates, NOW, scores);
+
+        // 13: 0.0625 + 2, 11: 1, 12: 0.5, 10: 0.0039
+        assertArrayEquals(new int[] {3, 1, 2, 0}, order);
+        assertEquals(1f, scores[1], 1e-6f);
+        assertEquals(0.5f, scores[2], 1e-6f);
+        assertEquals(2.0625f, scores[3], 1e-6f);
+    }
+
+    @Test
+    void equalAndNegativeScoresKeepCandidateOrder() {
+        FeedCandidates candidates = new FeedCandidates(5);
+        for (int i = 0; i < 5; i++) {
+            candidates.add(FeedCandidates.KIND_POST, i, 1, NOW, 0, 0, i == 2 ? FeedCandidates.MEDIA_IMAGE : FeedCandidates.MEDIA_TEXT);
+        }
+        // Text scores -1 (clamped to 0 for ordering), the one image scores 1
+        FeedScorer scorer = new FeedScorer().with(FeedSignal.media(-1f, 1f, 0f), 1f);
+        int[] order = scorer.rank(candidates, NOW, new float[5]);
+        assertArrayEquals(new int[] {2, 0, 1, 3, 4}, order);
+    }
+
+    @Test
+    void zeroWeightLeavesSignalOutAndEmptyBufferRanksNothing() {
+        FeedScorer scorer = new FeedScorer();
+        assertSame(scorer, scorer.with(FeedSignal.affinity(), 0f));
+        assertEquals(0, scorer.rank(new FeedCandidates(8), NOW, new float[8]).length);
+    }
+
+    @Test
+    void velocitySaturatesAtHalfValueForHalfRate() {
+        FeedCandidates candidates = new FeedCandidates(1);
+        // Two hours old with 4 likes and 2 comments: (4 + 4) / (2 + 2) = 2 per hour
+        candidates.add(FeedCandidates.KIND_POST, 1, 1, NOW - 2 * HOUR, 4, 2, FeedCandidates.MEDIA_TEXT);
+        float[] scores = new float[1];
+        new FeedScorer().with(FeedSignal.velocity(2f), 1f).score(candidates, NOW, scores);
+        assertEquals(0.5f, scores[0], 1e-6f);
+    }
+}
@@ -0,0 +1,50 @@
+package com.postgresql.MasChat.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FullTextSearchTest {
+
+    @Test
+    void leavesTokensWholeForPostgres() {
+        assertEquals("Jane Do", FullTextSearch.normalize("Jane Do"));
+        assertEquals("jane.doe", FullTextSearch.normalize("  jane.doe "));
+        assertEquals("iPhone-15 pro", FullTextSearch.normalize("iPhone-15 \t pro"));
+    }
+
+    @Test
+    void blankInputIsNoQuery() {
+        assertNull(FullTextSearch.normalize("   "));
+        assertNull(FullTextSearch.normalize(""));
+        assertNull(FullTextSearch.normalize(null));
+    }
+
+    @Test
+    void keepsAtMostEightTerms() {
+        assertEquals("1 2 3 4 5 6 7 8", FullTextSearch.normalize("1 2 3 4 5 6 7 8 9 10"));
+    }
+
+    @Test
+    void rankedReturnsRowsInIdOrderAndSkipsMissing() {
+        List<Object> calls = new ArrayList<>();
+        List<String> rows = FullTextSearch.ranked("hello", 2, 5,
+            (tsQuery, limit, offset) -> {
+                calls.add(tsQuery);
+                calls.add(limit);
+                calls.add(offset);
+                return List.of(3L, 1L, 2L);
+            },
+            ids -> List.of("1", "3"),
+            Long::valueOf);
+        assertEquals(List.of("hello", 5, 10), calls);
+        assertEquals(List.of("3", "1"), rows);
+        List<String> none = FullTextSearch.ranked(" ", 0, null,
+            (tsQuery, limit, offset) -> fail("no query for empty input"),
+            ids -> List.<String>of(),
+            Long::valueOf);
+        assertEquals(List.of(), none);
+    }
+}
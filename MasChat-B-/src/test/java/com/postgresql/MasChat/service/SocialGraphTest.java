@@ -0,0 +1,138 @@
+package com.postgresql.MasChat.service;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SocialGraphTest {
+
+    private static final int USERS = 60;
+
+    @Test
+    void overlayAndCsrAgreeWithNaiveModel() {
+        // 1: every update compacts; 8: overlay and CSR mixed; large: overlay only
+        for (int threshold : new int[] {1, 8, 100_000}) {
+            Random random = new Random(threshold);
+            Map<Long, Set<Long>> model = new TreeMap<>();
+            SocialGraph graph = new SocialGraph(threshold);
+            graph.load(builderOf(randomModel(random, model)));
+            assertMatches(model, graph);
+
+            for (int step = 0; step < 2_000; step++) {
+                long a = random.nextInt(USERS);
+                long b = random.nextInt(USERS);
+                // Skew towards removals of existing edges so users get emptied and refilled
+                boolean add = random.nextInt(3) != 0 && !(model.containsKey(a) && model.get(a).contains(b));
+                if (add) {
+                    graph.addFriendship(a, b);
+                    link(model, a, b);
+                } else {
+                    graph.removeFriendship(a, b);
+                    unlink(model, a, b);
+                }
+                if (step % 100 == 0) {
+                    assertMatches(model, graph);
+                }
+            }
+            assertMatches(model, graph);
+        }
+    }
+
+    @Test
+    void compactionDropsUsersLeftWithoutFriends() {
+        SocialGraph graph = new SocialGraph(1);
+        graph.load(new SocialGraph.Builder().add(1, 2).add(2, 1));
+        graph.removeFriendship(1, 2);
+        assertArrayEquals(new long[0], graph.friends(1));
+        assertEquals(0, graph.edgeCount());
+        assertEquals(0, graph.userCount());
+
+        graph.addFriendship(2, 3);
+        assertArrayEquals(new long[] {3}, graph.friends(2));
+        assertEquals(2, graph.userCount());
+    }
+
+    @Test
+    void hubIntersectionUsesBinarySearchPath() {
+        // A hub with far more friends than the other user takes the galloping path
+        SocialGraph graph = new SocialGraph(1_000);
+        Map<Long, Set<Long>> model = new TreeMap<>();
+        for (long f = 1; f <= 500; f++) {
+            link(model, 0, f);
+        }
+        for (long f : new long[] {3, 250, 499, 777}) {
+            link(model, 1_000, f);
+        }
+        graph.load(builderOf(model));
+        assertArrayEquals(new long[] {3, 250, 499}, graph.mutualFriends(0, 1_000));
+        assertArrayEquals(new long[] {3, 250, 499}, graph.mutualFriends(1_000, 0));
+
+        graph.removeFriendship(0, 250);
+        graph.addFriendship(1_000, 42);
+        assertArrayEquals(new long[] {3, 42, 499}, graph.mutualFriends(0, 1_000));
+        assertEquals(3, graph.mutualCount(1_000, 0));
+    }
+
+    @Test
+    void builderRejectsUnsortedEdges() {
+        SocialGraph.Builder builder = new SocialGraph.Builder().add(2, 5);
+        assertThrows(IllegalArgumentException.class, () -> builder.add(2, 4));
+        assertThrows(IllegalArgumentException.class, () -> builder.add(1, 9));
+    }
+
+    private static Map<Long, Set<Long>> randomModel(Random random, Map<Long, Set<Long>> model) {
+        for (int e = 0; e < USERS * 3; e++) {
+            link(model, random.nextInt(USERS), random.nextInt(USERS));
+        }
+        return model;
+    }
+
+    private static SocialGraph.Builder builderOf(Map<Long, Set<Long>> model) {
+        SocialGraph.Builder builder = new SocialGraph.Builder();
+        model.forEach((user, friends) -> friends.forEach(friend -> builder.add(user, friend)));
+        return builder;
+    }
+
+    private static void link(Map<Long, Set<Long>> model, long a, long b) {
+        if (a != b) {
+            model.computeIfAbsent(a, id -> new TreeSet<>()).add(b);
+            model.computeIfAbsent(b, id -> new TreeSet<>()).add(a);
+        }
+    }
+
+    private static void unlink(Map<Long, Set<Long>> model, long a, long b) {
+        if (model.containsKey(a)) {
+            model.get(a).remove(b);
+        }
+        if (model.containsKey(b)) {
+            model.get(b).remove(a);
+        }
+    }
+
+    private static void assertMatches(Map<Long, Set<Long>> model, SocialGraph graph) {
+        long edges = 0;
+        for (long a = 0; a < USERS; a++) {
+            Set<Long> friendsOfA = model.getOrDefault(a, Set.of());
+            edges += friendsOfA.size();
+            assertArrayEquals(toArray(friendsOfA), graph.friends(a), "friends of " + a);
+            assertEquals(friendsOfA.size(), graph.degree(a));
+            for (long b = 0; b < USERS; b++) {
+                assertEquals(friendsOfA.contains(b), graph.areFriends(a, b));
+                Set<Long> mutual = new TreeSet<>(friendsOfA);
+                mutual.retainAll(model.getOrDefault(b, Set.of()));
+                assertArrayEquals(toArray(mutual), graph.mutualFriends(a, b), "mutual friends of " + a + " and " + b);
+                assertEquals(mutual.size(), graph.mutualCount(a, b));
+            }
+        }
+        assertEquals(edges, graph.edgeCount());
+    }
+
+    private static long[] toArray(Set<Long> ids) {
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+}